@@ -0,0 +1,189 @@
+package com.zilch.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentRequest;
+import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
+import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Open-model load test: payments are created through POST /api/payments at a fixed arrival rate, whether earlier
+//requests completed or not, and each payment is long-polled until it is ACCEPTED or REJECTED.
+//Latencies are measured from the time a request was due to be sent, so a slow service is not hidden by a client
+//that waited for it (coordinated omission). Reports throughput and percentiles of the HTTP response and the time to decision.
+//Tune with -Dload.rates (payments/s of each phase), -Dload.phaseSeconds, -Dload.verifierMinDelay and -Dload.verifierMaxDelay
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        //Per request info logs would make the console the bottleneck
+        "logging.level.com.zilch.payment=WARN",
+        //Short verifier calls, so the run takes seconds and decision latency is dominated by the service itself
+        "spring.verification.simulatedDelay.min=${load.verifierMinDelay:5ms}",
+        "spring.verification.simulatedDelay.max=${load.verifierMaxDelay:20ms}"
+})
+@ActiveProfiles("h2")
+class PaymentLoadBenchmark {
+
+    private static final List<Integer> RATES = Arrays.stream(System.getProperty("load.rates", "50,100,200").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .toList();
+    private static final long PHASE_SECONDS = Long.getLong("load.phaseSeconds", 10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Throughput and latency percentiles of payment creation and decision at growing arrival rates")
+    void runArrivalRates() {
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            //Warm up
+            run(client, clientExecutor, RATES.getFirst(), Math.max(1, PHASE_SECONDS / 2));
+
+            List<PhaseResult> results = new ArrayList<>();
+            for (int rate : RATES) {
+                results.add(run(client, clientExecutor, rate, PHASE_SECONDS));
+            }
+
+            System.out.printf("%-8s %8s %8s %8s %8s %12s%n", "rate/s", "sent", "created", "shed", "errors", "decided/s");
+            results.forEach(result -> System.out.printf("%-8d %8d %8d %8d %8d %12.1f%n",
+                    result.rate(), result.sent(), result.created(), result.shed(), result.errors(), result.decidedPerSecond()));
+            printPercentiles("POST /api/payments response ms", results, PhaseResult::responseLatency);
+            printPercentiles("time to decision ms", results, PhaseResult::decisionLatency);
+
+            results.forEach(result -> {
+                assertThat(result.errors()).isZero();
+                assertThat(result.decided()).isEqualTo(result.created());
+            });
+        }
+    }
+
+    private PhaseResult run(HttpClient client, ExecutorService clientExecutor, int rate, long seconds) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        int payments = (int) (rate * seconds);
+        Histogram responseLatency = new ConcurrentHistogram(3);
+        Histogram decisionLatency = new ConcurrentHistogram(3);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            long due = start + i * interval;
+            LockSupport.parkNanos(due - System.nanoTime());
+            clients.add(CompletableFuture.runAsync(() -> {
+                try {
+                    HttpResponse<String> response = client.send(create(), HttpResponse.BodyHandlers.ofString());
+                    responseLatency.recordValue(micros(System.nanoTime() - due));
+                    if (response.statusCode() == 429) {
+                        shed.incrementAndGet();
+                        return;
+                    }
+                    assertThat(response.statusCode()).isEqualTo(201);
+                    created.incrementAndGet();
+                    awaitDecision(client, objectMapper.readValue(response.body(), PaymentDetailsResponse.class).id());
+                    decisionLatency.recordValue(micros(System.nanoTime() - due));
+                } catch (Exception | AssertionError e) {
+                    errors.incrementAndGet();
+                }
+            }, clientExecutor));
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).orTimeout(2, TimeUnit.MINUTES).join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return new PhaseResult(rate, payments, created.get(), shed.get(), errors.get(),
+                decisionLatency.getTotalCount() / elapsedSeconds, responseLatency, decisionLatency);
+    }
+
+    private void awaitDecision(HttpClient client, String paymentId) throws IOException, InterruptedException {
+        HttpRequest longPoll = HttpRequest.newBuilder(uri("/api/payments/" + paymentId + "?waitFor=terminal&timeout=30s")).build();
+        PaymentStatus status;
+        do {
+            HttpResponse<String> response = client.send(longPoll, HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+            status = objectMapper.readValue(response.body(), PaymentDetailsResponse.class).paymentStatus();
+        } while (!status.isTerminal);
+    }
+
+    private HttpRequest create() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        InitializePaymentRequest request = InitializePaymentRequest.builder()
+                .amount(BigDecimal.valueOf(random.nextInt(1, 101)))
+                .currency(Currency.values()[random.nextInt(Currency.values().length)])
+                .paymentMethod(PaymentMethod.values()[random.nextInt(PaymentMethod.values().length)])
+                .merchant("Load " + UUID.randomUUID())
+                .build();
+        return HttpRequest.newBuilder(uri("/api/payments"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void printPercentiles(String title, List<PhaseResult> results, Function<PhaseResult, Histogram> latency) {
+        System.out.printf("%n%s%n%-8s", title, "rate/s");
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %10s", "p" + percentile);
+        }
+        System.out.printf(" %10s%n", "max");
+        results.forEach(result -> {
+            Histogram histogram = latency.apply(result);
+            System.out.printf("%-8d", result.rate());
+            for (double percentile : PERCENTILES) {
+                System.out.printf(" %10.1f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            System.out.printf(" %10.1f%n", histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private record PhaseResult(int rate, int sent, int created, int shed, int errors, double decidedPerSecond,
+                               Histogram responseLatency, Histogram decisionLatency) {
+
+        long decided() {
+            return decisionLatency.getTotalCount();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.zilch.payment.adapter.inboud.api;
+
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentRequest;
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentResult;
+import com.zilch.payment.application.verification.PaymentVerificationScheduler;
+import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Payments/sec through POST /api/payments (one payment per request) and POST /api/payments/batch at growing batch sizes.
+//Verification scheduling is mocked out, so only HTTP, validation, inserts and event publication are measured.
+//Tune with -Dbenchmark.payments and -Dbenchmark.clients
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        //Per request info logs would make the console the bottleneck
+        "logging.level.com.zilch.payment=WARN",
+        //Payments are never decided with scheduling mocked out, admission control would start rejecting them
+        "spring.admission.enabled=false"
+})
+@ActiveProfiles("h2")
+class PaymentBatchInitializationBenchmark {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 5000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 4);
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1000};
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockitoBean
+    private PaymentVerificationScheduler paymentVerificationScheduler;
+
+    @Test
+    @DisplayName("Payments/sec, single endpoint vs batch endpoint at batch sizes 1, 10, 100, 1000")
+    void compareBatchSizes() throws Exception {
+        //Warm up
+        runSingle(PAYMENTS / 10);
+        runBatches(PAYMENTS / 10, 100);
+
+        System.out.printf("%-12s %12s %15s%n", "endpoint", "batch size", "payments/s");
+        double single = runSingle(PAYMENTS);
+        System.out.printf("%-12s %12d %15.1f%n", "single", 1, single);
+        List<Double> batched = new ArrayList<>();
+        for (int batchSize : BATCH_SIZES) {
+            double throughput = runBatches(PAYMENTS, batchSize);
+            batched.add(throughput);
+            System.out.printf("%-12s %12d %15.1f%n", "batch", batchSize, throughput);
+        }
+
+        assertThat(batched.get(batched.size() - 1)).isGreaterThan(single);
+    }
+
+    private double runSingle(int payments) throws Exception {
+        return run(payments, 1, () -> {
+            assertThat(restTemplate.postForEntity("/api/payments", request(), String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.CREATED);
+        });
+    }
+
+    private double runBatches(int payments, int batchSize) throws Exception {
+        List<InitializePaymentRequest> batch = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(request());
+        }
+        return run(payments, batchSize, () -> {
+            InitializePaymentResult[] results = restTemplate.postForObject("/api/payments/batch", batch, InitializePaymentResult[].class);
+            assertThat(results).hasSize(batchSize)
+                    .allMatch(result -> result.status() == InitializePaymentResult.Status.CREATED);
+        });
+    }
+
+    private static double run(int payments, int batchSize, Runnable call) throws Exception {
+        int calls = Math.max(1, payments / batchSize);
+        AtomicInteger remaining = new AtomicInteger(calls);
+        List<Future<?>> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        call.run();
+                    }
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return calls * batchSize / elapsedSeconds;
+    }
+
+    private static InitializePaymentRequest request() {
+        return InitializePaymentRequest.builder()
+                .amount(new BigDecimal("42.00"))
+                .currency(Currency.GBP)
+                .paymentMethod(PaymentMethod.PAY_OVER_3_MONTHS)
+                .merchant("Bench Merchant")
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.zilch.payment.adapter.inboud.api;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+//Thousands of clients waiting for payment decisions: long-poll (GET /api/payments/{id}?waitFor=terminal) vs polling
+//GET /api/payments/{id} every pollIntervalMs. Payment cache is disabled, so every payment read is a DB query.
+//Tune with -Dbenchmark.payments, -Dbenchmark.waitersPerPayment, -Dbenchmark.waitMs and -Dbenchmark.pollIntervalMs
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.persistence.cache.enabled=false",
+        //Waiters must outlive the time it takes to open all their connections
+        "spring.status-updates.max-wait-timeout=5m",
+        "server.tomcat.accept-count=2000",
+        "server.tomcat.max-connections=20000",
+        //Per request info logs would make the console the bottleneck
+        "logging.level.com.zilch.payment=WARN"
+})
+@ActiveProfiles("h2")
+class PaymentStatusWaitersBenchmark {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 200);
+    private static final int WAITERS_PER_PAYMENT = Integer.getInteger("benchmark.waitersPerPayment", 10);
+    private static final int WAITERS = PAYMENTS * WAITERS_PER_PAYMENT;
+    private static final long WAIT_MS = Long.getLong("benchmark.waitMs", 3000);
+    private static final long POLL_INTERVAL_MS = Long.getLong("benchmark.pollIntervalMs", 100);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PaymentProvider paymentProvider;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("DB queries and threads while thousands of clients wait for payment decisions")
+    void compareLongPollWithPolling() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        //Client requests run on virtual threads, so platform threads counted below are the server's
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            LongPollResult longPoll = longPoll(client, statistics);
+            PollingResult polling = poll(client, statistics, clientExecutor);
+
+            System.out.printf("%-10s %10s %15s %15s %15s %15s%n",
+                    "mode", "waiters", "requests", "DB queries", "threads", "p99 notify ms");
+            System.out.printf("%-10s %10d %15d %15d %15d %15d%n",
+                    "LONG_POLL", WAITERS, WAITERS, longPoll.queriesWhileWaiting(), longPoll.threadsWhileWaiting(), longPoll.p99NotifyMs());
+            System.out.printf("%-10s %10d %15d %15d %15s %15s%n",
+                    "POLLING", WAITERS, polling.requests(), polling.queries(), "-", "-");
+
+            assertThat(longPoll.queriesWhileWaiting()).isZero();
+            assertThat(longPoll.threadsWhileWaiting()).isLessThan(WAITERS / 4);
+            //Every poll is a DB query, waiting long-polls cost none
+            assertThat(polling.queries()).isGreaterThanOrEqualTo(polling.requests());
+        }
+    }
+
+    private LongPollResult longPoll(HttpClient client, Statistics statistics) {
+        List<Payment> payments = createVerifyingPayments();
+        Map<String, Long> decidedAt = new ConcurrentHashMap<>();
+        long[] notifyLatencies = new long[WAITERS];
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            int index = i;
+            String paymentId = payments.get(i % PAYMENTS).id();
+            HttpRequest request = HttpRequest.newBuilder(uri("/api/payments/" + paymentId + "?waitFor=terminal&timeout=5m")).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenAccept(response -> {
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.body()).contains("\"paymentStatus\":\"ACCEPTED\"");
+                notifyLatencies[index] = System.nanoTime() - decidedAt.get(paymentId);
+            }));
+        }
+        await().atMost(2, TimeUnit.MINUTES).until(() -> meterRegistry.get("payment.status.waiters").gauge().value() == WAITERS);
+
+        long queriesBefore = statistics.getPrepareStatementCount();
+        sleep(WAIT_MS);
+        long queriesWhileWaiting = statistics.getPrepareStatementCount() - queriesBefore;
+        int threadsWhileWaiting = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        payments.forEach(payment -> {
+            decidedAt.put(payment.id(), System.nanoTime());
+            paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.ACCEPTED));
+        });
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).orTimeout(2, TimeUnit.MINUTES).join();
+
+        Arrays.sort(notifyLatencies);
+        return new LongPollResult(
+                queriesWhileWaiting,
+                threadsWhileWaiting,
+                TimeUnit.NANOSECONDS.toMillis(notifyLatencies[Math.min(WAITERS - 1, (int) (WAITERS * 0.99))])
+        );
+    }
+
+    private PollingResult poll(HttpClient client, Statistics statistics, ExecutorService clientExecutor) throws Exception {
+        List<Payment> payments = createVerifyingPayments();
+        AtomicLong requests = new AtomicLong();
+        long queriesBefore = statistics.getPrepareStatementCount();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_MS);
+        List<CompletableFuture<Void>> pollers = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri("/api/payments/" + payments.get(i % PAYMENTS).id())).build();
+            pollers.add(CompletableFuture.runAsync(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        requests.incrementAndGet();
+                        Thread.sleep(POLL_INTERVAL_MS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, clientExecutor));
+        }
+        CompletableFuture.allOf(pollers.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        return new PollingResult(requests.get(), statistics.getPrepareStatementCount() - queriesBefore);
+    }
+
+    private List<Payment> createVerifyingPayments() {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            payments.add(paymentProvider.save(PaymentFactory.createPayment(builder -> builder
+                    .id(null)
+                    .paymentStatus(PaymentStatus.VERIFYING)
+                    .paymentVerifications(List.of()))));
+        }
+        return payments;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(Duration.ofMillis(millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record LongPollResult(long queriesWhileWaiting, int threadsWhileWaiting, long p99NotifyMs) {}
+
+    private record PollingResult(long requests, long queries) {}
+}
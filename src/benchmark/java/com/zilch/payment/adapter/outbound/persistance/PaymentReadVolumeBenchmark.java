@@ -0,0 +1,113 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//GET /api/payments/{id} read path latency while payments_verifications grows, on a file-backed H2 with the Flyway schema.
+//Rows are generated straight in SQL, 3 verifications per payment. Tune with -Dbenchmark.verificationRows (10M takes a while
+//and ~2GB of disk) and -Dbenchmark.samples
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/volume-${random.uuid}",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class PaymentReadVolumeBenchmark {
+
+    private static final long VERIFICATION_ROWS = Long.getLong("benchmark.verificationRows", 1_000_000);
+    private static final int SAMPLES = Integer.getInteger("benchmark.samples", 2000);
+    private static final long INSERT_CHUNK = 100_000;
+    //Far above ids handed out by the sequence
+    private static final long ID_OFFSET = 1_000_000_000_000L;
+
+    private static final String INSERT_PAYMENTS = """
+            INSERT INTO payments (id, amount, currency, payment_method, merchant, payment_status, created_date, last_updated_date)
+            SELECT 'bench-' || X, 100.00, 'EUR', 'PAY_OVER_3_MONTHS', 'Bench Merchant', 'ACCEPTED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM SYSTEM_RANGE(?, ?)""";
+    private static final String INSERT_VERIFICATIONS = """
+            INSERT INTO payments_verifications (id, payment_id, verification_type, verification_status, created_date, last_updated_date)
+            SELECT ? + R.X * 3 + T.K, 'bench-' || R.X, T.TYPE, 'PASSED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM SYSTEM_RANGE(?, ?) R
+            CROSS JOIN (VALUES (0, 'FRAUD_CHECK'), (1, 'ACCOUNT_STATUS_CHECK'), (2, 'CREDIT_LIMIT_CHECK')) T(K, TYPE)""";
+
+    @Autowired
+    private DbPaymentProvider dbPaymentProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Payment read latency at growing payments_verifications size")
+    void readLatencyAsTableGrows() {
+        List<Long> stages = new ArrayList<>();
+        for (long rows = 10_000; rows < VERIFICATION_ROWS; rows *= 10) {
+            stages.add(rows);
+        }
+        stages.add(VERIFICATION_ROWS);
+
+        System.out.printf("%-20s %15s %15s %15s%n", "verification rows", "p50 us", "p99 us", "insert s");
+        List<Result> results = new ArrayList<>();
+        long payments = 0;
+        for (long stageRows : stages) {
+            long targetPayments = stageRows / 3;
+            long start = System.nanoTime();
+            payments = grow(payments, targetPayments);
+            double insertSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Result result = measure(payments);
+            results.add(result);
+            System.out.printf("%-20d %15d %15d %15.1f%n", payments * 3, result.p50Us(), result.p99Us(), insertSeconds);
+        }
+        System.out.println(jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM payments_verifications WHERE payment_id = 'bench-1'", String.class));
+
+        //Index lookup grows with log(n), a scan would grow 1000x between the first and the last stage
+        assertThat(results.get(results.size() - 1).p50Us()).isLessThan(results.get(0).p50Us() * 10);
+    }
+
+    private long grow(long from, long to) {
+        for (long first = from + 1; first <= to; first += INSERT_CHUNK) {
+            long last = Math.min(to, first + INSERT_CHUNK - 1);
+            jdbcTemplate.update(INSERT_PAYMENTS, first, last);
+            jdbcTemplate.update(INSERT_VERIFICATIONS, ID_OFFSET, first, last);
+        }
+        return to;
+    }
+
+    private Result measure(long payments) {
+        //Warm up
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            dbPaymentProvider.getById(randomPaymentId(payments));
+        }
+        long[] latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String paymentId = randomPaymentId(payments);
+            long start = System.nanoTime();
+            assertThat(dbPaymentProvider.getById(paymentId)).get()
+                    .satisfies(payment -> assertThat(payment.paymentVerifications()).hasSize(3));
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return new Result(
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) (SAMPLES * 0.50)]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[Math.min(SAMPLES - 1, (int) (SAMPLES * 0.99))])
+        );
+    }
+
+    private static String randomPaymentId(long payments) {
+        return "bench-" + ThreadLocalRandom.current().nextLong(1, payments + 1);
+    }
+
+    private record Result(long p50Us, long p99Us) {}
+}
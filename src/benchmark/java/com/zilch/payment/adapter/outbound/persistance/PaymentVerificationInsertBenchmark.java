@@ -0,0 +1,92 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Inserts verifications of many payments on H2, one save per verification (the old scheduler path) vs one saveAll per payment.
+//Tune with -Dbenchmark.payments and -Dbenchmark.threads
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+class PaymentVerificationInsertBenchmark {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 5000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+
+    @Autowired
+    private DbPaymentVerificationProvider dbPaymentVerificationProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Verification inserts/sec, save per row vs batched saveAll")
+    void compareSaveAndSaveAll() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        //Warm up connection pool and JIT
+        run(verifications -> verifications.forEach(dbPaymentVerificationProvider::save), PAYMENTS / 10);
+
+        statistics.clear();
+        Result perRow = run(verifications -> verifications.forEach(dbPaymentVerificationProvider::save), PAYMENTS);
+        long perRowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Result batched = run(dbPaymentVerificationProvider::saveAll, PAYMENTS);
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("%-10s %15s %15s %15s%n", "path", "inserts/s", "rows", "statements");
+        System.out.printf("%-10s %15.1f %15d %15d%n", "save", perRow.throughput(), perRow.rows(), perRowStatements);
+        System.out.printf("%-10s %15.1f %15d %15d%n", "saveAll", batched.throughput(), batched.rows(), batchedStatements);
+
+        assertThat(batchedStatements).isLessThan(perRowStatements);
+    }
+
+    private static Result run(Consumer<List<PaymentVerification>> save, int payments) throws Exception {
+        int verificationsPerPayment = VerificationType.values().length;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            long start = System.nanoTime();
+            Future<?>[] futures = new Future<?>[payments];
+            for (int i = 0; i < payments; i++) {
+                futures[i] = executor.submit(() -> save.accept(verificationsOf(UUID.randomUUID().toString())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            int rows = payments * verificationsPerPayment;
+            return new Result(rows / (elapsed / 1_000_000_000.0), rows);
+        }
+    }
+
+    private static List<PaymentVerification> verificationsOf(String paymentId) {
+        return Arrays.stream(VerificationType.values())
+                .map(type -> PaymentVerification.builder()
+                        .paymentId(paymentId)
+                        .verificationType(type)
+                        .verificationStatus(PaymentVerificationStatus.SCHEDULED)
+                        .build())
+                .toList();
+    }
+
+    private record Result(double throughput, int rows) {}
+}
@@ -0,0 +1,122 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.verification.verifier.CreditLimitPaymentVerifier;
+import com.zilch.payment.application.verification.verifier.SimulatedWork;
+import com.zilch.payment.config.ThreadPoolConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.ReadyForBatchVerificationEvent;
+import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+//Credit limit verifications/sec through PaymentVerificationRunner, one backend call per payment vs batched calls.
+//The stub backend (SimulatedWork) costs callOverheadMs per call plus perPaymentMicros per payment in it.
+//Runner pool size, event dispatch and the batcher are wired as in the app, the analyzer only counts results.
+//Tune with -Dbenchmark.payments, -Dbenchmark.threads, -Dbenchmark.callOverheadMs and -Dbenchmark.perPaymentMicros
+@Tag("benchmark")
+class VerificationBatchingBenchmark {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 2000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 12);
+    private static final long CALL_OVERHEAD_MS = Long.getLong("benchmark.callOverheadMs", 20);
+    private static final long PER_PAYMENT_MICROS = Long.getLong("benchmark.perPaymentMicros", 200);
+    private static final int[] BATCH_SIZES = {1, 10, 50, 200};
+
+    @Test
+    @DisplayName("Verifications/sec and backend calls, one payment per call vs batches of 10, 50 and 200")
+    void compareBatchSizes() throws InterruptedException {
+        //Warm up
+        run(0, PAYMENTS / 10);
+
+        System.out.printf("%-12s %12s %15s%n", "batch size", "calls", "payments/s");
+        Result single = run(0, PAYMENTS);
+        System.out.printf("%-12s %12d %15.1f%n", "unbatched", single.calls(), single.throughput());
+        Result largest = single;
+        for (int batchSize : BATCH_SIZES) {
+            largest = run(batchSize, PAYMENTS);
+            System.out.printf("%-12d %12d %15.1f%n", batchSize, largest.calls(), largest.throughput());
+        }
+
+        assertThat(largest.throughput()).isGreaterThan(single.throughput());
+    }
+
+    //maxBatchSize 0 verifies one payment per call
+    private static Result run(int maxBatchSize, int payments) throws InterruptedException {
+        VerificationConfigProperties properties = new VerificationConfigProperties();
+        properties.getSimulatedDelay().setMin(Duration.ofMillis(CALL_OVERHEAD_MS));
+        properties.getSimulatedDelay().setMax(Duration.ofMillis(CALL_OVERHEAD_MS));
+        properties.getSimulatedDelay().setPerPayment(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(PER_PAYMENT_MICROS)));
+        if (maxBatchSize > 0) {
+            VerificationConfigProperties.Batching batching = new VerificationConfigProperties.Batching();
+            batching.setMaxBatchSize(maxBatchSize);
+            properties.getBatching().put(VerificationType.CREDIT_LIMIT_CHECK, batching);
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VerificationMetrics verificationMetrics = new VerificationMetrics(meterRegistry);
+        CountDownLatch completed = new CountDownLatch(payments);
+        PaymentVerificationRunner[] runner = new PaymentVerificationRunner[1];
+        long start;
+        try (ExecutorService runnerExecutor = Executors.newFixedThreadPool(THREADS)) {
+            ApplicationEventPublisher eventPublisher = event -> {
+                if (event instanceof ReadyForBatchVerificationEvent batch) {
+                    runnerExecutor.execute(() -> runner[0].runBatchVerification(batch));
+                } else if (event instanceof PaymentVerificationCompletedEvent) {
+                    completed.countDown();
+                }
+            };
+            RejectedVerificationRetry rejectedVerificationRetry = mock(RejectedVerificationRetry.class);
+            VerificationCancellationRegistry cancellationRegistry = new VerificationCancellationRegistry();
+            VerificationBatcher batcher = new VerificationBatcher(properties, eventPublisher, cancellationRegistry, rejectedVerificationRetry);
+            runner[0] = new PaymentVerificationRunner(List.of(new CreditLimitPaymentVerifier(new SimulatedWork(properties))),
+                    eventPublisher, cancellationRegistry, verificationMetrics, rejectedVerificationRetry,
+                    new VerificationResultCache(properties, verificationMetrics), batcher,
+                    new VerifierResilience(properties, verificationMetrics, meterRegistry),
+                    new VerificationBulkheads(runnerExecutor, new ThreadPoolConfigProperties(), meterRegistry, Tracer.NOOP),
+                    payment -> Duration.ZERO);
+
+            start = System.nanoTime();
+            for (int i = 0; i < payments; i++) {
+                ReadyForVerificationEvent event = event();
+                runnerExecutor.execute(() -> runner[0].runVerification(event));
+            }
+            assertThat(completed.await(10, TimeUnit.MINUTES)).isTrue();
+            batcher.shutdown();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long calls = maxBatchSize > 0
+                ? meterRegistry.get("payment.verification.batch.size").summary().count()
+                : payments;
+        return new Result(payments / elapsedSeconds, calls);
+    }
+
+    private static ReadyForVerificationEvent event() {
+        Payment payment = PaymentFactory.createPayment(null);
+        return ReadyForVerificationEvent.builder()
+                .payment(payment)
+                .paymentVerification(PaymentFactory.createPaymentVerification(builder -> builder
+                        .paymentId(payment.id())
+                        .verificationType(VerificationType.CREDIT_LIMIT_CHECK)))
+                .build();
+    }
+
+    private record Result(double throughput, long calls) {}
+}
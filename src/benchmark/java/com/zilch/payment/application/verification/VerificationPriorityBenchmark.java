@@ -0,0 +1,183 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.AsyncThreadPoolsConfig;
+import com.zilch.payment.config.ThreadPoolConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.money.Conversion;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+//PAY_NOW time to decision while pay later payments arrive faster than the runner pool verifies them,
+//runner pool with FIFO vs PRIORITY queue order. Payments arrive at a fixed rate (open model), every payNowEvery-th
+//is PAY_NOW (ACCOUNT_STATUS_CHECK only), the others are PAY_OVER_6_MONTHS with three verifications.
+//Time to decision runs from the arrival of a payment to the completion of its last verification.
+//Head starts are those from application.yaml, all types share the runner pool, so only the queue order differs.
+//Tune with -Dbenchmark.payments, -Dbenchmark.arrivalRate, -Dbenchmark.payNowEvery, -Dbenchmark.threads
+//and -Dbenchmark.verificationMs
+@Tag("benchmark")
+class VerificationPriorityBenchmark {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 2000);
+    private static final int ARRIVAL_RATE = Integer.getInteger("benchmark.arrivalRate", 400);
+    private static final int PAY_NOW_EVERY = Integer.getInteger("benchmark.payNowEvery", 10);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 4);
+    private static final long VERIFICATION_MS = Long.getLong("benchmark.verificationMs", 5);
+
+    @Test
+    @DisplayName("PAY_NOW and pay later p50/p99 time to decision under mixed load, FIFO vs PRIORITY runner queue")
+    void compareQueueOrders() throws InterruptedException {
+        //Warm up
+        run(ThreadPoolConfigProperties.QueueOrder.FIFO, PAYMENTS / 10);
+
+        Result fifo = run(ThreadPoolConfigProperties.QueueOrder.FIFO, PAYMENTS);
+        Result priority = run(ThreadPoolConfigProperties.QueueOrder.PRIORITY, PAYMENTS);
+
+        System.out.printf("%-10s %15s %15s %15s %15s%n", "queue", "PAY_NOW p50 ms", "PAY_NOW p99 ms", "later p50 ms", "later p99 ms");
+        print("FIFO", fifo);
+        print("PRIORITY", priority);
+
+        assertThat(priority.payNow().p99Ms()).isLessThan(fifo.payNow().p99Ms());
+    }
+
+    private static void print(String queueOrder, Result result) {
+        System.out.printf("%-10s %15d %15d %15d %15d%n", queueOrder,
+                result.payNow().p50Ms(), result.payNow().p99Ms(), result.payLater().p50Ms(), result.payLater().p99Ms());
+    }
+
+    private static Result run(ThreadPoolConfigProperties.QueueOrder queueOrder, int payments) throws InterruptedException {
+        ThreadPoolConfigProperties threadPoolProperties = new ThreadPoolConfigProperties();
+        ThreadPoolConfigProperties.ThreadPoolProperties runnerProperties = threadPoolProperties.getVerificationRunner();
+        runnerProperties.setCorePoolSize(THREADS);
+        runnerProperties.setMaxPoolSize(THREADS);
+        runnerProperties.setQueueCapacity(payments * 3);
+        runnerProperties.setQueueOrder(queueOrder);
+        runnerProperties.setThreadNamePrefix("bench-" + queueOrder.name().toLowerCase() + "-");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ThreadPoolTaskExecutor runnerExecutor = (ThreadPoolTaskExecutor) AsyncThreadPoolsConfig.createExecutor(
+                "verificationRunner", runnerProperties, meterRegistry, Tracer.NOOP);
+
+        Map<String, Pending> pending = new ConcurrentHashMap<>();
+        List<Long> payNow = new ArrayList<>();
+        List<Long> payLater = new ArrayList<>();
+        CountDownLatch decided = new CountDownLatch(payments);
+        ApplicationEventPublisher eventPublisher = event -> {
+            if (event instanceof PaymentVerificationCompletedEvent completed) {
+                Pending payment = pending.get(completed.paymentId());
+                if (payment.remaining().decrementAndGet() == 0) {
+                    long timeToDecision = System.nanoTime() - payment.arrivedAt();
+                    synchronized (pending) {
+                        (payment.payNow() ? payNow : payLater).add(timeToDecision);
+                    }
+                    decided.countDown();
+                }
+            }
+        };
+        VerificationConfigProperties verificationProperties = new VerificationConfigProperties();
+        VerificationConfigProperties.Priority priority = verificationProperties.getPriority();
+        priority.getPaymentMethods().put(PaymentMethod.PAY_NOW, Duration.ofSeconds(2));
+        priority.setLargeAmountHeadStart(Duration.ofMillis(500));
+        priority.setMaxHeadStart(Duration.ofSeconds(3));
+        VerificationMetrics verificationMetrics = new VerificationMetrics(meterRegistry);
+        RejectedVerificationRetry rejectedVerificationRetry = mock(RejectedVerificationRetry.class);
+        VerificationCancellationRegistry cancellationRegistry = new VerificationCancellationRegistry();
+        PaymentVerificationRunner runner = new PaymentVerificationRunner(
+                List.of(verifier(VerificationType.ACCOUNT_STATUS_CHECK), verifier(VerificationType.FRAUD_CHECK),
+                        verifier(VerificationType.CREDIT_LIMIT_CHECK)),
+                eventPublisher, cancellationRegistry, verificationMetrics, rejectedVerificationRetry,
+                new VerificationResultCache(verificationProperties, verificationMetrics),
+                new VerificationBatcher(verificationProperties, eventPublisher, cancellationRegistry, rejectedVerificationRetry),
+                new VerifierResilience(verificationProperties, verificationMetrics, meterRegistry),
+                new VerificationBulkheads(runnerExecutor, threadPoolProperties, meterRegistry, Tracer.NOOP),
+                new ConfiguredVerificationPriorityPolicy(verificationProperties, (money, currency) -> Conversion.unconverted(money)));
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / ARRIVAL_RATE;
+        long start = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            long arrival = start + i * interval;
+            LockSupport.parkNanos(arrival - System.nanoTime());
+            boolean isPayNow = i % PAY_NOW_EVERY == 0;
+            Payment payment = PaymentFactory.createPayment(builder -> builder
+                    .paymentMethod(isPayNow ? PaymentMethod.PAY_NOW : PaymentMethod.PAY_OVER_6_MONTHS));
+            List<VerificationType> types = isPayNow
+                    ? List.of(VerificationType.ACCOUNT_STATUS_CHECK)
+                    : List.of(VerificationType.ACCOUNT_STATUS_CHECK, VerificationType.FRAUD_CHECK, VerificationType.CREDIT_LIMIT_CHECK);
+            //Latency counts from the time the payment was due, also when the loop runs late
+            pending.put(payment.id(), new Pending(isPayNow, arrival, new AtomicInteger(types.size())));
+            types.forEach(type -> runner.onReadyForVerification(ReadyForVerificationEvent.builder()
+                    .payment(payment)
+                    .paymentVerification(PaymentFactory.createPaymentVerification(builder -> builder
+                            .paymentId(payment.id())
+                            .verificationType(type)))
+                    .build()));
+        }
+        assertThat(decided.await(10, TimeUnit.MINUTES)).isTrue();
+        runnerExecutor.shutdown();
+        return new Result(percentiles(payNow), percentiles(payLater));
+    }
+
+    private static PaymentVerifier verifier(VerificationType type) {
+        return new PaymentVerifier() {
+            @Override
+            public VerificationType type() {
+                return type;
+            }
+
+            @Override
+            public boolean shouldVerify(Payment payment) {
+                return true;
+            }
+
+            @Override
+            public PaymentVerificationStatus verify(Payment payment) {
+                try {
+                    Thread.sleep(VERIFICATION_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return PaymentVerificationStatus.PASSED;
+            }
+        };
+    }
+
+    private static Percentiles percentiles(List<Long> latencies) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new Percentiles(
+                TimeUnit.NANOSECONDS.toMillis(sorted[(int) (sorted.length * 0.50)]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))]));
+    }
+
+    private record Pending(boolean payNow, long arrivedAt, AtomicInteger remaining) {}
+
+    private record Percentiles(long p50Ms, long p99Ms) {}
+
+    private record Result(Percentiles payNow, Percentiles payLater) {}
+}
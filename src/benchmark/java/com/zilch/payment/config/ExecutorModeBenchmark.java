@@ -0,0 +1,87 @@
+package com.zilch.payment.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Compares the runner pool in PLATFORM and VIRTUAL mode with tasks blocking like PaymentVerifier.verify() does.
+//Tune with -Dbenchmark.tasks, -Dbenchmark.minSleepMs and -Dbenchmark.maxSleepMs
+@Tag("benchmark")
+class ExecutorModeBenchmark {
+
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 1000);
+    private static final long MIN_SLEEP_MS = Long.getLong("benchmark.minSleepMs", 50);
+    private static final long MAX_SLEEP_MS = Long.getLong("benchmark.maxSleepMs", 1000);
+
+    @Test
+    @DisplayName("Verifications/sec and p99 completion latency, platform pool vs virtual threads")
+    void compareExecutorModes() throws InterruptedException {
+        Result platform = run(runnerProperties(ThreadPoolConfigProperties.ExecutorMode.PLATFORM));
+        Result virtual = run(runnerProperties(ThreadPoolConfigProperties.ExecutorMode.VIRTUAL));
+
+        System.out.printf("%-10s %15s %15s %15s%n", "mode", "verifications/s", "p50 ms", "p99 ms");
+        System.out.printf("%-10s %15.1f %15d %15d%n", "PLATFORM", platform.throughput(), platform.p50Ms(), platform.p99Ms());
+        System.out.printf("%-10s %15.1f %15d %15d%n", "VIRTUAL", virtual.throughput(), virtual.p50Ms(), virtual.p99Ms());
+
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput());
+    }
+
+    //Mirrors the verificationRunner pool from application.yaml
+    private static ThreadPoolConfigProperties.ThreadPoolProperties runnerProperties(ThreadPoolConfigProperties.ExecutorMode mode) {
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = new ThreadPoolConfigProperties.ThreadPoolProperties();
+        properties.setMode(mode);
+        properties.setCorePoolSize(6);
+        properties.setMaxPoolSize(12);
+        properties.setQueueCapacity(5000);
+        properties.setConcurrencyLimit(2000);
+        properties.setThreadNamePrefix("bench-" + mode.name().toLowerCase() + "-");
+        return properties;
+    }
+
+    private static Result run(ThreadPoolConfigProperties.ThreadPoolProperties properties) throws InterruptedException {
+        Executor executor = AsyncThreadPoolsConfig.createExecutor(properties.getThreadNamePrefix(), properties, new SimpleMeterRegistry(), Tracer.NOOP);
+        long[] latencies = new long[TASKS];
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            final int index = i;
+            final long submittedAt = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(MIN_SLEEP_MS, MAX_SLEEP_MS + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[index] = System.nanoTime() - submittedAt;
+                    latch.countDown();
+                }
+            });
+        }
+        assertThat(latch.await(10, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - start;
+        if (executor instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+            }
+        }
+        Arrays.sort(latencies);
+        return new Result(
+                TASKS / (elapsed / 1_000_000_000.0),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (TASKS * 0.50)]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[Math.min(TASKS - 1, (int) (TASKS * 0.99))])
+        );
+    }
+
+    private record Result(double throughput, long p50Ms, long p99Ms) {}
+}
@@ -0,0 +1,33 @@
+package com.zilch.payment.adapter.inboud.api.dto;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Mapping done for every payment returned by the API, including every long-poll and event stream snapshot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentDetailsResponseBenchmark {
+
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        payment = PaymentFactory.createPayment(builder -> builder.paymentVerifications(List.of(
+                PaymentFactory.createPaymentVerification(verification -> verification.verificationType(VerificationType.FRAUD_CHECK)),
+                PaymentFactory.createPaymentVerification(verification -> verification.verificationType(VerificationType.ACCOUNT_STATUS_CHECK)))));
+    }
+
+    @Benchmark
+    public PaymentDetailsResponse fromPayment() {
+        return PaymentDetailsResponse.fromPayment(payment);
+    }
+}
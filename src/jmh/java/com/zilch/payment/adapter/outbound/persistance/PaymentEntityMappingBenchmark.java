@@ -0,0 +1,36 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Mapping done for every payment read from and written to the DB
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentEntityMappingBenchmark {
+
+    private Payment payment;
+    private PaymentEntity entity;
+
+    @Setup
+    public void setUp() {
+        payment = PaymentFactory.createPayment(null);
+        entity = PaymentEntity.fromPayment(payment);
+    }
+
+    @Benchmark
+    public Payment toPayment() {
+        return entity.toPayment();
+    }
+
+    @Benchmark
+    public PaymentEntity fromPayment() {
+        return PaymentEntity.fromPayment(payment);
+    }
+}
@@ -0,0 +1,70 @@
+package com.zilch.payment.application;
+
+import com.zilch.payment.domain.money.Money;
+import com.zilch.payment.domain.payment.enums.Currency;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Exchange rate lookup and conversion, run by the fraud verifier for every pay later payment
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConversionBenchmark {
+
+    //Previous StaticRateCurrencyProvider lookup, kept as the baseline of getExchangeRate
+    private static final Map<String, BigDecimal> STRING_KEYED_RATES = Map.of(
+            "USD_EUR", BigDecimal.valueOf(0.92),
+            "EUR_USD", BigDecimal.valueOf(1.09),
+            "USD_GBP", BigDecimal.valueOf(0.78),
+            "GBP_USD", BigDecimal.valueOf(1.28),
+            "EUR_GBP", BigDecimal.valueOf(0.85),
+            "GBP_EUR", BigDecimal.valueOf(1.18)
+    );
+
+    private final StaticRateCurrencyProvider exchangeRateProvider = new StaticRateCurrencyProvider();
+    private final CurrencyConverterService currencyConverterService = new CurrencyConverterService(exchangeRateProvider);
+
+    //Fields rather than constants, so the JIT cannot fold the lookups
+    private Currency from;
+    private Currency to;
+    private Money gbp;
+    private Money eur;
+
+    @Setup
+    public void setUp() {
+        from = Currency.GBP;
+        to = Currency.EUR;
+        gbp = Money.builder().amount(new BigDecimal("129.99")).currency(Currency.GBP).build();
+        eur = Money.builder().amount(new BigDecimal("129.99")).currency(Currency.EUR).build();
+    }
+
+    @Benchmark
+    public BigDecimal getExchangeRate() {
+        return exchangeRateProvider.getExchangeRate(from, to);
+    }
+
+    @Benchmark
+    public BigDecimal getExchangeRateByStringKey() {
+        String key = from.name() + "_" + to.name();
+        if (!STRING_KEYED_RATES.containsKey(key)) {
+            throw new IllegalArgumentException("Exchange rate not found for " + from + " to " + to);
+        }
+        return STRING_KEYED_RATES.get(key);
+    }
+
+    @Benchmark
+    public Money convert() {
+        return currencyConverterService.convert(gbp, Currency.EUR);
+    }
+
+    @Benchmark
+    public Money convertToSameCurrency() {
+        return currencyConverterService.convert(eur, Currency.EUR);
+    }
+}
@@ -0,0 +1,59 @@
+package com.zilch.payment.application.verification.verifier;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.CurrencyConverterService;
+import com.zilch.payment.application.StaticRateCurrencyProvider;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.money.Money;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+//shouldVerify is asked for every new payment while its verifications are planned
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudPaymentVerifierBenchmark {
+
+    private final FraudPaymentVerifier verifier = new FraudPaymentVerifier(
+            new CurrencyConverterService(new StaticRateCurrencyProvider()), new SimulatedWork(new VerificationConfigProperties()));
+
+    private Payment payLaterInGbp;
+    private Payment payLaterInEur;
+    private Payment payNow;
+
+    @Setup
+    public void setUp() {
+        //Otherwise the audit log line of every decision is measured rather than the decision
+        ((Logger) LoggerFactory.getLogger(FraudPaymentVerifier.class)).setLevel(Level.WARN);
+        payLaterInGbp = PaymentFactory.createPayment(builder -> builder
+                .money(Money.builder().amount(new BigDecimal("129.99")).currency(Currency.GBP).build()));
+        payLaterInEur = PaymentFactory.createPayment(null);
+        payNow = PaymentFactory.createPayment(builder -> builder.paymentMethod(PaymentMethod.PAY_NOW));
+    }
+
+    @Benchmark
+    public boolean shouldVerifyWithConversion() {
+        return verifier.shouldVerify(payLaterInGbp);
+    }
+
+    @Benchmark
+    public boolean shouldVerifyWithoutConversion() {
+        return verifier.shouldVerify(payLaterInEur);
+    }
+
+    @Benchmark
+    public boolean shouldVerifyPayNow() {
+        return verifier.shouldVerify(payNow);
+    }
+}
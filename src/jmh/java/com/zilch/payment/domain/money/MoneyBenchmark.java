@@ -0,0 +1,30 @@
+package com.zilch.payment.domain.money;
+
+import com.zilch.payment.domain.payment.enums.Currency;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private Money amount;
+    private Money threshold;
+
+    @Setup
+    public void setUp() {
+        amount = Money.builder().amount(new BigDecimal("152.94")).currency(Currency.EUR).build();
+        threshold = Money.builder().amount(BigDecimal.TEN).currency(Currency.EUR).build();
+    }
+
+    @Benchmark
+    public boolean isGreaterThan() {
+        return amount.isGreaterThan(threshold);
+    }
+}
@@ -1,9 +1,12 @@
 package com.zilch.payment.adapter.inboud.api;
 
 import com.zilch.payment.adapter.inboud.api.dto.ErrorResponse;
+import com.zilch.payment.application.admission.PaymentAdmissionRejectedException;
 import com.zilch.payment.domain.payment.PaymentNotFoundException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -31,4 +34,20 @@ public class GlobalExceptionHandler {
     public ErrorResponse handlePaymentNotFoundException(PaymentNotFoundException ex) {
         return new ErrorResponse(Instant.now(), Collections.singletonList(ex.getMessage()));
     }
+
+    @ExceptionHandler(InvalidPaymentBatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public ErrorResponse handleInvalidPaymentBatchException(InvalidPaymentBatchException ex) {
+        return new ErrorResponse(Instant.now(), Collections.singletonList(ex.getMessage()));
+    }
+
+    //Retry-After is in whole seconds
+    @ExceptionHandler(PaymentAdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentAdmissionRejectedException(PaymentAdmissionRejectedException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse(Instant.now(), Collections.singletonList(ex.getMessage())));
+    }
 }
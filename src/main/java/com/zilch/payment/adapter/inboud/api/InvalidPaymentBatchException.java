@@ -0,0 +1,7 @@
+package com.zilch.payment.adapter.inboud.api;
+
+public class InvalidPaymentBatchException extends RuntimeException {
+    public InvalidPaymentBatchException(String message) {
+        super(message);
+    }
+}
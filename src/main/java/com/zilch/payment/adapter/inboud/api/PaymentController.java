@@ -1,19 +1,38 @@
 package com.zilch.payment.adapter.inboud.api;
 
 import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentRequest;
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentResult;
 import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
 import com.zilch.payment.application.PaymentService;
+import com.zilch.payment.application.admission.PaymentAdmission;
+import com.zilch.payment.config.PaymentBatchConfigProperties;
+import com.zilch.payment.config.StatusUpdatesConfigProperties;
+import com.zilch.payment.domain.payment.FuturePaymentDetails;
+import com.zilch.payment.domain.payment.Payment;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
 
 @Validated
 @AllArgsConstructor
@@ -22,13 +41,38 @@ import org.springframework.web.bind.annotation.RestController;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentAdmission paymentAdmission;
+    private final PaymentStatusSubscriptions paymentStatusSubscriptions;
+    private final StatusUpdatesConfigProperties statusUpdatesProperties;
+    private final PaymentBatchConfigProperties paymentBatchProperties;
+    private final Validator validator;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public PaymentDetailsResponse initializePayment(@Valid @RequestBody InitializePaymentRequest initializePaymentRequest) {
-        return PaymentDetailsResponse.fromPayment(
-                paymentService.initializePayment(initializePaymentRequest.toFuturePaymentDetails())
-        );
+        return PaymentDetailsResponse.fromPayment(paymentAdmission.admit(
+                () -> paymentService.initializePayment(initializePaymentRequest.toFuturePaymentDetails())
+        ));
+    }
+
+    //Items are validated one by one, valid ones are created together. Results are returned in the request order.
+    @PostMapping("/batch")
+    public List<InitializePaymentResult> initializePayments(@RequestBody List<InitializePaymentRequest> initializePaymentRequests) {
+        if (initializePaymentRequests.isEmpty() || initializePaymentRequests.size() > paymentBatchProperties.getMaxSize()) {
+            throw new InvalidPaymentBatchException("Batch should contain from 1 to " + paymentBatchProperties.getMaxSize() + " payments");
+        }
+        List<List<String>> errors = initializePaymentRequests.stream().map(this::validate).toList();
+        List<FuturePaymentDetails> validPayments = IntStream.range(0, initializePaymentRequests.size())
+                .filter(index -> errors.get(index).isEmpty())
+                .mapToObj(index -> initializePaymentRequests.get(index).toFuturePaymentDetails())
+                .toList();
+        Iterator<Payment> createdPayments = paymentAdmission.admitAll(validPayments.size(),
+                () -> paymentService.initializePayments(validPayments)).iterator();
+        return errors.stream()
+                .map(itemErrors -> itemErrors.isEmpty()
+                        ? InitializePaymentResult.created(createdPayments.next())
+                        : InitializePaymentResult.invalid(itemErrors))
+                .toList();
     }
 
     @GetMapping
@@ -38,4 +82,44 @@ public class PaymentController {
         return PaymentDetailsResponse.fromPayment(paymentService.retrieveById(paymentId));
     }
 
+    //Long-poll: responds once the payment is ACCEPTED or REJECTED, or with its current state after the timeout
+    @GetMapping(value = "/{paymentId}", params = "waitFor=terminal")
+    public DeferredResult<PaymentDetailsResponse> awaitPaymentDecision(@PathVariable String paymentId,
+                                                                        @RequestParam(required = false) String timeout) {
+        return paymentStatusSubscriptions.awaitDecision(paymentId, waitTimeout(timeout));
+    }
+
+    @GetMapping(value = "/{paymentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPaymentEvents(@PathVariable String paymentId) {
+        return paymentStatusSubscriptions.stream(paymentId, statusUpdatesProperties.getStreamTimeout());
+    }
+
+    private List<String> validate(InitializePaymentRequest initializePaymentRequest) {
+        if (initializePaymentRequest == null) {
+            return List.of("Payment should be provided");
+        }
+        return validator.validate(initializePaymentRequest).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
+    //Accepts the same formats as durations in application.yaml, e.g. 5s, 500ms or PT5S
+    private Duration waitTimeout(String timeout) {
+        if (timeout == null) {
+            return statusUpdatesProperties.getDefaultWaitTimeout();
+        }
+        Duration requested;
+        try {
+            requested = DurationStyle.detectAndParse(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid timeout: " + timeout);
+        }
+        if (requested.isNegative() || requested.isZero()) {
+            return statusUpdatesProperties.getDefaultWaitTimeout();
+        }
+        Duration max = statusUpdatesProperties.getMaxWaitTimeout();
+        return requested.compareTo(max) > 0 ? max : requested;
+    }
+
 }
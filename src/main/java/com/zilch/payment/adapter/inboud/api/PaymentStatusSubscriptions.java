@@ -0,0 +1,261 @@
+package com.zilch.payment.adapter.inboud.api;
+
+import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
+import com.zilch.payment.application.PaymentService;
+import com.zilch.payment.config.StatusUpdatesConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+//Clients waiting for payment status changes. Waiters are parked as DeferredResult/SseEmitter, so they hold
+//no request thread, and they are woken up by status change events, so they do not read the DB while waiting.
+//Events are sent to streams on the statusStreams pool, the verification threads publishing them never wait
+//for a slow client.
+@Component
+public class PaymentStatusSubscriptions {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatusSubscriptions.class);
+
+    static final String PAYMENT_EVENT = "payment";
+    static final String PAYMENT_STATUS_EVENT = "payment-status";
+    static final String VERIFICATION_STATUS_EVENT = "verification-status";
+
+    private final PaymentService paymentService;
+    private final StatusUpdatesConfigProperties statusUpdatesProperties;
+    private final Executor statusStreamExecutor;
+    private final Counter droppedEvents;
+    private final Map<String, Set<DeferredResult<PaymentDetailsResponse>>> decisionWaiters = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> streams = new ConcurrentHashMap<>();
+
+    public PaymentStatusSubscriptions(PaymentService paymentService,
+                                      StatusUpdatesConfigProperties statusUpdatesProperties,
+                                      @Qualifier("statusStreamExecutor") Executor statusStreamExecutor,
+                                      MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.statusUpdatesProperties = statusUpdatesProperties;
+        this.statusStreamExecutor = statusStreamExecutor;
+        this.droppedEvents = Counter.builder("payment.status.stream.dropped")
+                .description("Status events not sent to event streams whose clients lag behind")
+                .register(meterRegistry);
+        Gauge.builder("payment.status.waiters", decisionWaiters, PaymentStatusSubscriptions::count)
+                .description("Long-poll requests waiting for a payment decision")
+                .register(meterRegistry);
+        Gauge.builder("payment.status.streams", streams, PaymentStatusSubscriptions::count)
+                .description("Open payment status event streams")
+                .register(meterRegistry);
+    }
+
+    //Completes with the payment once it is ACCEPTED or REJECTED, or with its current state after the timeout
+    public DeferredResult<PaymentDetailsResponse> awaitDecision(String paymentId, Duration timeout) {
+        DeferredResult<PaymentDetailsResponse> waiter = new DeferredResult<>(timeout.toMillis());
+        waiter.onTimeout(() -> complete(paymentId, waiter));
+        waiter.onCompletion(() -> remove(decisionWaiters, paymentId, waiter));
+        //Registered before the payment is read, so a decision made in between cannot be missed
+        add(decisionWaiters, paymentId, waiter);
+        Payment payment = read(paymentId, decisionWaiters, waiter);
+        if (payment.paymentStatus().isTerminal) {
+            remove(decisionWaiters, paymentId, waiter);
+            waiter.setResult(PaymentDetailsResponse.fromPayment(payment));
+        }
+        return waiter;
+    }
+
+    //Sends the current payment, then every payment and verification status change until the payment is decided
+    public SseEmitter stream(String paymentId, Duration timeout) {
+        SseEmitter stream = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(paymentId, stream);
+        stream.onCompletion(() -> remove(streams, paymentId, subscriber));
+        stream.onTimeout(() -> remove(streams, paymentId, subscriber));
+        stream.onError(e -> remove(streams, paymentId, subscriber));
+        add(streams, paymentId, subscriber);
+        //Status changes are queued under the same lock, the snapshot is never sent after a newer change
+        synchronized (subscriber) {
+            Payment payment = read(paymentId, streams, subscriber);
+            boolean decided = payment.paymentStatus().isTerminal;
+            if (decided) {
+                remove(streams, paymentId, subscriber);
+            }
+            subscriber.enqueue(SseEmitter.event().name(PAYMENT_EVENT).data(PaymentDetailsResponse.fromPayment(payment)), decided);
+        }
+        return stream;
+    }
+
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        String paymentId = event.paymentId();
+        Set<Subscriber> paymentStreams = event.paymentStatus().isTerminal ? streams.remove(paymentId) : streams.get(paymentId);
+        if (paymentStreams != null) {
+            paymentStreams.forEach(subscriber -> subscriber.enqueue(
+                    SseEmitter.event().name(PAYMENT_STATUS_EVENT).data(event), event.paymentStatus().isTerminal));
+        }
+        if (event.paymentStatus().isTerminal) {
+            Set<DeferredResult<PaymentDetailsResponse>> waiters = decisionWaiters.remove(paymentId);
+            if (waiters != null) {
+                //One read for all waiters of the payment, served from the payment cache when it is enabled
+                try {
+                    PaymentDetailsResponse response = PaymentDetailsResponse.fromPayment(paymentService.retrieveById(paymentId));
+                    waiters.forEach(waiter -> waiter.setResult(response));
+                } catch (RuntimeException e) {
+                    waiters.forEach(waiter -> waiter.setErrorResult(e));
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onVerificationStatusChanged(PaymentVerificationStatusChangedEvent event) {
+        Set<Subscriber> paymentStreams = streams.get(event.paymentId());
+        if (paymentStreams != null) {
+            paymentStreams.forEach(subscriber -> subscriber.enqueue(
+                    SseEmitter.event().name(VERIFICATION_STATUS_EVENT).data(event), false));
+        }
+    }
+
+    int waiters(String paymentId) {
+        return decisionWaiters.getOrDefault(paymentId, Set.of()).size();
+    }
+
+    int streams(String paymentId) {
+        return streams.getOrDefault(paymentId, Set.of()).size();
+    }
+
+    private void complete(String paymentId, DeferredResult<PaymentDetailsResponse> waiter) {
+        remove(decisionWaiters, paymentId, waiter);
+        try {
+            waiter.setResult(PaymentDetailsResponse.fromPayment(paymentService.retrieveById(paymentId)));
+        } catch (Exception e) {
+            waiter.setErrorResult(e);
+        }
+    }
+
+    private <T> Payment read(String paymentId, Map<String, Set<T>> subscribers, T subscriber) {
+        try {
+            return paymentService.retrieveById(paymentId);
+        } catch (RuntimeException e) {
+            remove(subscribers, paymentId, subscriber);
+            throw e;
+        }
+    }
+
+    private static <T> void add(Map<String, Set<T>> subscribers, String paymentId, T subscriber) {
+        subscribers.compute(paymentId, (id, paymentSubscribers) -> {
+            Set<T> updated = paymentSubscribers == null ? ConcurrentHashMap.newKeySet() : paymentSubscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+    }
+
+    private static <T> void remove(Map<String, Set<T>> subscribers, String paymentId, T subscriber) {
+        subscribers.computeIfPresent(paymentId, (id, paymentSubscribers) -> {
+            paymentSubscribers.remove(subscriber);
+            return paymentSubscribers.isEmpty() ? null : paymentSubscribers;
+        });
+    }
+
+    private static <T> double count(Map<String, Set<T>> subscribers) {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    //Event stream with the events still to be sent to it, sent in order by one statusStreams thread at a time
+    private final class Subscriber {
+        private final String paymentId;
+        private final SseEmitter stream;
+        private final Queue<PendingEvent> pending = new ArrayDeque<>();
+        //A task sending the pending events is submitted or running
+        private boolean sending;
+        //The last event is queued, or the stream failed
+        private boolean closed;
+
+        private Subscriber(String paymentId, SseEmitter stream) {
+            this.paymentId = paymentId;
+            this.stream = stream;
+        }
+
+        //The last event completes the stream, it is queued even when the buffer is full so the stream gets closed
+        private void enqueue(SseEmitter.SseEventBuilder event, boolean last) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (!last && pending.size() >= statusUpdatesProperties.getStreamBufferSize()) {
+                    droppedEvents.increment();
+                    logger.debug("Dropped status update of {} payment, stream lags behind", paymentId);
+                    return;
+                }
+                pending.add(new PendingEvent(event, last));
+                closed = last;
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                statusStreamExecutor.execute(this::sendPending);
+            } catch (RejectedExecutionException e) {
+                //Pending events are sent with the next event of the stream, a stream without one is closed,
+                //its client reads the payment again
+                boolean complete;
+                synchronized (this) {
+                    sending = false;
+                    complete = closed;
+                }
+                logger.debug("Cannot hand over status updates of {} payment", paymentId, e);
+                if (complete) {
+                    stream.complete();
+                }
+            }
+        }
+
+        private void sendPending() {
+            while (true) {
+                PendingEvent next;
+                synchronized (this) {
+                    next = pending.poll();
+                    if (next == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    stream.send(next.event());
+                } catch (IOException | IllegalStateException e) {
+                    //Client is gone or the stream is already completed
+                    logger.debug("Cannot send status update of {} payment", paymentId, e);
+                    synchronized (this) {
+                        pending.clear();
+                        closed = true;
+                        sending = false;
+                    }
+                    remove(streams, paymentId, this);
+                    stream.completeWithError(e);
+                    return;
+                }
+                if (next.last()) {
+                    stream.complete();
+                }
+            }
+        }
+    }
+
+    private record PendingEvent(SseEmitter.SseEventBuilder event, boolean last) {}
+}
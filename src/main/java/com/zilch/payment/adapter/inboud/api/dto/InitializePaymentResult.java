@@ -0,0 +1,24 @@
+package com.zilch.payment.adapter.inboud.api.dto;
+
+import com.zilch.payment.domain.payment.Payment;
+
+import java.util.List;
+
+//Outcome of one item of a batch request, payment is set only when it was created
+public record InitializePaymentResult(
+        Status status,
+        PaymentDetailsResponse payment,
+        List<String> errors
+) {
+    public enum Status {
+        CREATED, INVALID
+    }
+
+    public static InitializePaymentResult created(Payment payment) {
+        return new InitializePaymentResult(Status.CREATED, PaymentDetailsResponse.fromPayment(payment), List.of());
+    }
+
+    public static InitializePaymentResult invalid(List<String> errors) {
+        return new InitializePaymentResult(Status.INVALID, null, errors);
+    }
+}
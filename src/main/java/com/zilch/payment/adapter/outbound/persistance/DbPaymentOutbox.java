@@ -0,0 +1,94 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.domain.payment.PaymentOutbox;
+import com.zilch.payment.domain.payment.PaymentOutboxClaim;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Component
+@AllArgsConstructor
+public class DbPaymentOutbox implements PaymentOutbox {
+
+    private static final List<PaymentStatus> UNFINISHED_STATUSES = Arrays.stream(PaymentStatus.values())
+            .filter(status -> !status.isTerminal)
+            .toList();
+
+    private final PaymentOutboxRepository paymentOutboxRepository;
+
+    //Joins the transaction of the payment insert when there is one
+    @Override
+    @Transactional
+    public void add(List<String> paymentIds, String traceContext) {
+        paymentOutboxRepository.saveAll(paymentIds.stream()
+                .map(paymentId -> PaymentOutboxEntity.forPayment(paymentId, traceContext))
+                .toList());
+    }
+
+    @Override
+    @Transactional
+    public void addIfAbsent(List<String> paymentIds) {
+        Set<String> present = paymentOutboxRepository.findAllById(paymentIds).stream()
+                .map(PaymentOutboxEntity::getPaymentId)
+                .collect(Collectors.toSet());
+        //A relay still scheduling the batch of a present row must not remove it, so it is released from its claim
+        release(List.copyOf(present));
+        add(paymentIds.stream().filter(paymentId -> !present.contains(paymentId)).toList(), null);
+    }
+
+    //Safe with several relays: a row is claimed only if it is still available when it is updated
+    @Override
+    @Transactional
+    public PaymentOutboxClaim claim(int limit, Duration claimTimeout) {
+        Instant now = Instant.now();
+        List<String> available = paymentOutboxRepository.findAvailablePaymentIds(now, PageRequest.of(0, limit));
+        if (available.isEmpty()) {
+            return PaymentOutboxClaim.empty();
+        }
+        String claimId = UUID.randomUUID().toString();
+        int claimed = paymentOutboxRepository.claim(available, claimId, now, now.plus(claimTimeout));
+        return new PaymentOutboxClaim(claimId,
+                claimed == available.size() ? available : paymentOutboxRepository.findClaimedPaymentIds(claimId));
+    }
+
+    @Override
+    public void release(List<String> paymentIds) {
+        if (!paymentIds.isEmpty()) {
+            paymentOutboxRepository.release(paymentIds, Instant.now());
+        }
+    }
+
+    @Override
+    public Map<String, String> traceContexts(List<String> paymentIds) {
+        return paymentOutboxRepository.findAllById(paymentIds).stream()
+                .filter(entity -> entity.getTraceContext() != null)
+                .collect(Collectors.toMap(PaymentOutboxEntity::getPaymentId, PaymentOutboxEntity::getTraceContext));
+    }
+
+    @Override
+    @Transactional
+    public void remove(PaymentOutboxClaim claim, List<String> paymentIds) {
+        if (!paymentIds.isEmpty()) {
+            paymentOutboxRepository.deleteClaimed(paymentIds, claim.claimId());
+        }
+    }
+
+    @Override
+    @Transactional
+    public int addUnfinishedPayments(Instant createdBefore) {
+        List<String> paymentIds = paymentOutboxRepository.findPaymentIdsNotInOutbox(UNFINISHED_STATUSES, createdBefore);
+        add(paymentIds, null);
+        return paymentIds.size();
+    }
+}
@@ -6,26 +6,69 @@ import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @AllArgsConstructor
 public class DbPaymentProvider implements PaymentProvider {
 
     private final PaymentRepository paymentRepository;
+    private final StatusWriteBehindBuffer writeBehindBuffer;
+    private final PaymentCache paymentCache;
 
     @Override
     public Payment save(Payment payment) {
         return paymentRepository.save(PaymentEntity.fromPayment(payment)).toPayment();
     }
 
+    //One transaction, rows are sent to the DB in JDBC batches, see hibernate.jdbc.batch_size
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        return paymentRepository.saveAll(payments.stream().map(PaymentEntity::fromPayment).toList())
+                .stream()
+                .map(PaymentEntity::toPayment)
+                .toList();
+    }
+
     @Override
     public Optional<Payment> getById(String id) {
-        return paymentRepository.findById(id).map(PaymentEntity::toPayment);
+        return paymentCache.get(id, this::load);
+    }
+
+    private Optional<Payment> load(String id) {
+        if (writeBehindBuffer.isEnabled()) {
+            return writeBehindBuffer.readPayment(() -> PaymentRow.toPayment(paymentRepository.findPaymentRows(id)));
+        }
+        return PaymentRow.toPayment(paymentRepository.findPaymentRows(id));
+    }
+
+    //Payments not cached are read in one query
+    @Override
+    public List<Payment> getAllByIds(List<String> ids) {
+        Map<String, Payment> payments = paymentCache.getAll(ids, this::loadAll).stream()
+                .collect(Collectors.toMap(Payment::id, Function.identity()));
+        return ids.stream().map(payments::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Payment> loadAll(List<String> ids) {
+        if (writeBehindBuffer.isEnabled()) {
+            return writeBehindBuffer.readPayments(() -> PaymentRow.toPayments(paymentRepository.findPaymentRowsByIds(ids)));
+        }
+        return PaymentRow.toPayments(paymentRepository.findPaymentRowsByIds(ids));
     }
 
     @Override
     public void setPaymentStatus(String paymentId, PaymentStatus paymentStatus) {
-        paymentRepository.updatePaymentStatus(paymentId, paymentStatus);
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.setPaymentStatus(paymentId, paymentStatus);
+        } else {
+            paymentRepository.updatePaymentStatus(paymentId, paymentStatus);
+        }
+        paymentCache.updatePaymentStatus(paymentId, paymentStatus);
     }
 }
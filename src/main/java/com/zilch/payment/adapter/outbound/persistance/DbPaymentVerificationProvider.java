@@ -1,5 +1,6 @@
 package com.zilch.payment.adapter.outbound.persistance;
 
+import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.PaymentVerificationProvider;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
@@ -7,22 +8,82 @@ import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @Component
 @AllArgsConstructor
 public class DbPaymentVerificationProvider implements PaymentVerificationProvider {
 
     private final PaymentVerificationRepository paymentVerificationRepository;
+    private final StatusWriteBehindBuffer writeBehindBuffer;
+    private final PaymentCache paymentCache;
 
     @Override
     public PaymentVerification save(PaymentVerification paymentVerification) {
-        return paymentVerificationRepository.save(PaymentVerificationEntity.fromPaymentVerification(paymentVerification))
+        PaymentVerification saved = paymentVerificationRepository.save(PaymentVerificationEntity.fromPaymentVerification(paymentVerification))
                 .toPaymentVerification();
+        paymentCache.invalidate(saved.paymentId());
+        return saved;
+    }
+
+    //Rows are sent to the DB in JDBC batches, see hibernate.jdbc.batch_size
+    @Override
+    @Transactional
+    public List<PaymentVerification> saveAll(List<PaymentVerification> paymentVerifications) {
+        List<PaymentVerification> saved = paymentVerificationRepository.saveAll(paymentVerifications.stream()
+                        .map(PaymentVerificationEntity::fromPaymentVerification)
+                        .toList())
+                .stream()
+                .map(PaymentVerificationEntity::toPaymentVerification)
+                .toList();
+        saved.stream().map(PaymentVerification::paymentId).distinct().forEach(paymentCache::invalidate);
+        return saved;
+    }
+
+    @Override
+    public Map<Long, PaymentVerificationStatus> getStatuses(String paymentId) {
+        Optional<Payment> cached = paymentCache.getIfPresent(paymentId);
+        if (cached.isPresent()) {
+            return cached.get().paymentVerifications().stream()
+                    .collect(Collectors.toMap(PaymentVerification::id, PaymentVerification::verificationStatus));
+        }
+        if (writeBehindBuffer.isEnabled()) {
+            return writeBehindBuffer.readVerificationStatuses(() -> findStatuses(paymentId));
+        }
+        return findStatuses(paymentId);
+    }
+
+    @Override
+    @Transactional
+    public void updateStatus(String paymentId, Long id, PaymentVerificationStatus paymentVerificationStatus) {
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.setVerificationStatus(id, paymentVerificationStatus);
+        } else {
+            paymentVerificationRepository.updatePaymentVerificationStatus(id, paymentVerificationStatus);
+        }
+        paymentCache.updateVerificationStatuses(paymentId, Map.of(id, paymentVerificationStatus));
+    }
+
+    private Map<Long, PaymentVerificationStatus> findStatuses(String paymentId) {
+        return paymentVerificationRepository.findStatusesByPaymentId(paymentId).stream()
+                .collect(Collectors.toMap(VerificationStatusRow::id, VerificationStatusRow::verificationStatus));
     }
 
+    //One UPDATE per distinct status instead of one per verification
     @Override
     @Transactional
-    public void updateStatus(Long id, PaymentVerificationStatus paymentVerificationStatus) {
-        paymentVerificationRepository.updatePaymentVerificationStatus(id, paymentVerificationStatus);
+    public void updateStatuses(String paymentId, Map<Long, PaymentVerificationStatus> paymentVerificationStatuses) {
+        if (writeBehindBuffer.isEnabled()) {
+            paymentVerificationStatuses.forEach(writeBehindBuffer::setVerificationStatus);
+        } else {
+            paymentVerificationStatuses.entrySet().stream()
+                    .collect(Collectors.groupingBy(Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                    .forEach((status, ids) -> paymentVerificationRepository.updatePaymentVerificationStatuses(ids, status));
+        }
+        paymentCache.updateVerificationStatuses(paymentId, paymentVerificationStatuses);
     }
 
 }
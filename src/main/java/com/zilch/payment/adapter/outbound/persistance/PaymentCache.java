@@ -0,0 +1,107 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zilch.payment.config.PersistenceConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+//Read-through cache of payments by id. Cached payments are changed only after the DB change is committed,
+//a load racing with a change is finished before the change is applied to it, so no stale status stays cached.
+@Component
+public class PaymentCache {
+
+    private final Cache<String, Payment> cache;
+
+    public PaymentCache(PersistenceConfigProperties persistenceProperties, MeterRegistry meterRegistry) {
+        PersistenceConfigProperties.CacheProperties properties = persistenceProperties.getCache();
+        if (properties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaxSize())
+                    .expireAfterWrite(properties.getTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "payments");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public Optional<Payment> get(String paymentId, Function<String, Optional<Payment>> loader) {
+        if (cache == null) {
+            return loader.apply(paymentId);
+        }
+        return Optional.ofNullable(cache.get(paymentId, id -> loader.apply(id).orElse(null)));
+    }
+
+    //Cached payments plus the missing ones loaded at once. Loaded payments are not cached, unlike get() the bulk load
+    //does not hold back changes of the same payments, so a status changed during the load could stay cached
+    public List<Payment> getAll(List<String> paymentIds, Function<List<String>, List<Payment>> loader) {
+        if (cache == null) {
+            return loader.apply(paymentIds);
+        }
+        Map<String, Payment> cached = cache.getAllPresent(paymentIds);
+        List<String> missing = paymentIds.stream().filter(id -> !cached.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return List.copyOf(cached.values());
+        }
+        return Stream.concat(cached.values().stream(), loader.apply(missing).stream()).toList();
+    }
+
+    //Cached payment only, never loads it
+    public Optional<Payment> getIfPresent(String paymentId) {
+        return cache == null ? Optional.empty() : Optional.ofNullable(cache.getIfPresent(paymentId));
+    }
+
+    public void updatePaymentStatus(String paymentId, PaymentStatus paymentStatus) {
+        if (cache != null) {
+            afterCommit(() -> cache.asMap().computeIfPresent(paymentId,
+                    (id, payment) -> payment.toBuilder().paymentStatus(paymentStatus).build()));
+        }
+    }
+
+    public void updateVerificationStatuses(String paymentId, Map<Long, PaymentVerificationStatus> verificationStatuses) {
+        if (cache != null) {
+            afterCommit(() -> cache.asMap().computeIfPresent(paymentId, (id, payment) -> payment.toBuilder()
+                    .paymentVerifications(payment.paymentVerifications().stream()
+                            .map(verification -> verificationStatuses.containsKey(verification.id())
+                                    ? verification.toBuilder().verificationStatus(verificationStatuses.get(verification.id())).build()
+                                    : verification)
+                            .toList())
+                    .build()));
+        }
+    }
+
+    //For changes that cannot be applied in place, e.g. new verifications
+    public void invalidate(String paymentId) {
+        if (cache != null) {
+            afterCommit(() -> cache.invalidate(paymentId));
+        }
+    }
+
+    //Applied earlier, a load between the change and the commit would cache the old row
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
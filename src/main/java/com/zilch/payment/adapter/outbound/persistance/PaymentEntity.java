@@ -12,7 +12,6 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -38,9 +37,6 @@ public class PaymentEntity {
     @Enumerated(EnumType.STRING)
     private PaymentStatus paymentStatus;
 
-    @OneToMany(mappedBy = "paymentId", fetch = FetchType.EAGER)
-    private List<PaymentVerificationEntity> paymentVerifications = new ArrayList<>();
-
     @Column(updatable = false, nullable = false)
     private Instant createdDate;
 
@@ -65,7 +61,7 @@ public class PaymentEntity {
                 .paymentMethod(paymentMethod)
                 .merchant(merchant)
                 .paymentStatus(paymentStatus)
-                .paymentVerifications(paymentVerifications.stream().map(PaymentVerificationEntity::toPaymentVerification).toList())
+                .paymentVerifications(List.of())
                 .build();
     }
 
@@ -0,0 +1,65 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "payments_outbox", indexes = {
+        @Index(name = "idx_payments_outbox_available_at", columnList = "availableAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PaymentOutboxEntity implements Persistable<String> {
+
+    @Id
+    private String paymentId;
+
+    @Column(updatable = false, nullable = false)
+    private Instant createdDate;
+
+    @Column(nullable = false)
+    private Instant availableAt;
+
+    private String claimId;
+
+    private String traceContext;
+
+    //Id is assigned, without it save() would read the row before inserting it
+    @Transient
+    private boolean persisted;
+
+    @PrePersist
+    void prePersist() {
+        createdDate = Instant.now();
+        availableAt = createdDate;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Override
+    public String getId() {
+        return paymentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    public static PaymentOutboxEntity forPayment(String paymentId, String traceContext) {
+        PaymentOutboxEntity entity = new PaymentOutboxEntity();
+        entity.setPaymentId(paymentId);
+        entity.setTraceContext(traceContext);
+        return entity;
+    }
+}
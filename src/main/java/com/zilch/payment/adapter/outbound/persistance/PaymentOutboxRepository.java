@@ -0,0 +1,48 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEntity, String> {
+    @Query("SELECT o.paymentId FROM PaymentOutboxEntity o WHERE o.availableAt <= :now ORDER BY o.availableAt")
+    List<String> findAvailablePaymentIds(@Param("now") Instant now, Pageable pageable);
+
+    @Query("SELECT o.paymentId FROM PaymentOutboxEntity o WHERE o.claimId = :claimId ORDER BY o.createdDate")
+    List<String> findClaimedPaymentIds(@Param("claimId") String claimId);
+
+    //Rows claimed by someone else since they were read are skipped
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOutboxEntity o SET o.claimId = :claimId, o.availableAt = :claimedUntil " +
+            "WHERE o.paymentId IN :paymentIds AND o.availableAt <= :now")
+    int claim(@Param("paymentIds") Collection<String> paymentIds,
+              @Param("claimId") String claimId,
+              @Param("now") Instant now,
+              @Param("claimedUntil") Instant claimedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOutboxEntity o SET o.claimId = NULL, o.availableAt = :now WHERE o.paymentId IN :paymentIds")
+    void release(@Param("paymentIds") Collection<String> paymentIds, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentOutboxEntity o WHERE o.paymentId IN :paymentIds AND o.claimId = :claimId")
+    void deleteClaimed(@Param("paymentIds") Collection<String> paymentIds, @Param("claimId") String claimId);
+
+    @Query("SELECT p.id FROM PaymentEntity p WHERE p.paymentStatus IN :statuses AND p.createdDate < :createdBefore " +
+            "AND NOT EXISTS (SELECT o FROM PaymentOutboxEntity o WHERE o.paymentId = p.id)")
+    List<String> findPaymentIdsNotInOutbox(@Param("statuses") Collection<PaymentStatus> statuses,
+                                           @Param("createdBefore") Instant createdBefore);
+}
@@ -8,8 +8,27 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, String> {
+    //Payment with its verifications in one query, rows are not managed by the persistence context
+    @Query("SELECT new com.zilch.payment.adapter.outbound.persistance.PaymentRow(" +
+            "p.id, p.amount, p.currency, p.paymentMethod, p.merchant, p.paymentStatus, " +
+            "v.id, v.verificationType, v.verificationStatus) " +
+            "FROM PaymentEntity p LEFT JOIN PaymentVerificationEntity v ON v.paymentId = p.id " +
+            "WHERE p.id = :paymentId ORDER BY v.id")
+    List<PaymentRow> findPaymentRows(@Param("paymentId") String paymentId);
+
+    //Several payments with their verifications in one query, rows of a payment are next to each other
+    @Query("SELECT new com.zilch.payment.adapter.outbound.persistance.PaymentRow(" +
+            "p.id, p.amount, p.currency, p.paymentMethod, p.merchant, p.paymentStatus, " +
+            "v.id, v.verificationType, v.verificationStatus) " +
+            "FROM PaymentEntity p LEFT JOIN PaymentVerificationEntity v ON v.paymentId = p.id " +
+            "WHERE p.id IN :paymentIds ORDER BY p.id, v.id")
+    List<PaymentRow> findPaymentRowsByIds(@Param("paymentIds") Collection<String> paymentIds);
+
     @Modifying
     @Transactional
     @Query("UPDATE PaymentEntity p SET p.paymentStatus = :paymentStatus WHERE p.id = :paymentId")
@@ -0,0 +1,71 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.domain.money.Money;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+//One row of the payment LEFT JOIN verifications read, verification columns are null for a payment without verifications
+public record PaymentRow(
+        String id,
+        BigDecimal amount,
+        Currency currency,
+        PaymentMethod paymentMethod,
+        String merchant,
+        PaymentStatus paymentStatus,
+        Long verificationId,
+        VerificationType verificationType,
+        PaymentVerificationStatus verificationStatus
+) {
+
+    public static Optional<Payment> toPayment(List<PaymentRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        PaymentRow payment = rows.get(0);
+        return Optional.of(Payment.builder()
+                .id(payment.id())
+                .money(Money.builder().currency(payment.currency()).amount(payment.amount()).build())
+                .paymentMethod(payment.paymentMethod())
+                .merchant(payment.merchant())
+                .paymentStatus(payment.paymentStatus())
+                .paymentVerifications(rows.stream()
+                        .map(PaymentRow::toPaymentVerification)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .build());
+    }
+
+    //Rows of several payments, grouped by payment
+    public static List<Payment> toPayments(List<PaymentRow> rows) {
+        return rows.stream()
+                .collect(Collectors.groupingBy(PaymentRow::id, LinkedHashMap::new, Collectors.toList()))
+                .values()
+                .stream()
+                .map(paymentRows -> toPayment(paymentRows).orElseThrow())
+                .toList();
+    }
+
+    private PaymentVerification toPaymentVerification() {
+        if (verificationId == null) {
+            return null;
+        }
+        return PaymentVerification.builder()
+                .id(verificationId)
+                .paymentId(id)
+                .verificationType(verificationType)
+                .verificationStatus(verificationStatus)
+                .build();
+    }
+}
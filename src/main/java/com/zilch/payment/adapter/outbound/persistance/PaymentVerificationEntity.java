@@ -17,8 +17,10 @@ import java.time.Instant;
 @NoArgsConstructor
 public class PaymentVerificationEntity {
 
+    //Sequence ids let Hibernate batch inserts, ids are fetched from the DB once per allocationSize rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_verifications_seq")
+    @SequenceGenerator(name = "payments_verifications_seq", sequenceName = "payments_verifications_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -8,10 +8,22 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PaymentVerificationRepository extends JpaRepository<PaymentVerificationEntity, Long> {
+    @Query("SELECT new com.zilch.payment.adapter.outbound.persistance.VerificationStatusRow(v.id, v.verificationStatus) " +
+            "FROM PaymentVerificationEntity v WHERE v.paymentId = :paymentId")
+    List<VerificationStatusRow> findStatusesByPaymentId(@Param("paymentId") String paymentId);
+
     @Modifying
     @Transactional
     @Query("UPDATE PaymentVerificationEntity p SET p.verificationStatus = :status WHERE p.id = :id")
     void updatePaymentVerificationStatus(@Param("id") Long id, @Param("status") PaymentVerificationStatus paymentVerificationStatus);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentVerificationEntity p SET p.verificationStatus = :status WHERE p.id IN :ids")
+    void updatePaymentVerificationStatuses(@Param("ids") Collection<Long> ids, @Param("status") PaymentVerificationStatus paymentVerificationStatus);
 }
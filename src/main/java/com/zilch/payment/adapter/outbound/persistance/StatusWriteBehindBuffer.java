@@ -0,0 +1,244 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.config.PersistenceConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+//Collects status updates in memory and writes them as batched JDBC updates in one transaction.
+//Only the latest status per row is written. Reads must go through overlay() to see updates not flushed yet.
+@Component
+public class StatusWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusWriteBehindBuffer.class);
+
+    private static final String UPDATE_VERIFICATION_STATUS =
+            "UPDATE payments_verifications SET verification_status = ?, last_updated_date = ? WHERE id = ?";
+    private static final String UPDATE_PAYMENT_STATUS =
+            "UPDATE payments SET payment_status = ?, last_updated_date = ? WHERE id = ?";
+
+    private final PersistenceConfigProperties.WriteBehindProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final ScheduledExecutorService flusher;
+    //Only one flush at a time, so an older batch can never overwrite a newer one
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    //Readers hold the read lock from their DB read until the overlay is applied,
+    //so a batch committed in between cannot disappear from the buffer before the reader looks at it
+    private final ReadWriteLock visibilityLock = new ReentrantReadWriteLock();
+
+    //Guarded by this
+    private Map<Long, PaymentVerificationStatus> pendingVerificationStatuses = new HashMap<>();
+    private Map<String, PaymentStatus> pendingPaymentStatuses = new HashMap<>();
+    private Map<Long, PaymentVerificationStatus> flushingVerificationStatuses = Map.of();
+    private Map<String, PaymentStatus> flushingPaymentStatuses = Map.of();
+
+    public StatusWriteBehindBuffer(PersistenceConfigProperties persistenceProperties,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.properties = persistenceProperties.getWriteBehind();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = DistributionSummary.builder("payment.status.writebehind.batch.size")
+                .description("Status updates written by one flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("payment.status.writebehind.flush")
+                .description("Time to write one batch of status updates")
+                .register(meterRegistry);
+        Gauge.builder("payment.status.writebehind.pending", this, StatusWriteBehindBuffer::pendingUpdates)
+                .description("Status updates waiting for the next flush")
+                .register(meterRegistry);
+        if (properties.isEnabled()) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "status-write-behind"));
+            long delay = properties.getMaxDelay().toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, delay, delay, TimeUnit.NANOSECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void setVerificationStatus(Long verificationId, PaymentVerificationStatus status) {
+        int pending;
+        synchronized (this) {
+            pendingVerificationStatuses.put(verificationId, status);
+            pending = pendingUpdates();
+        }
+        flushIfFull(pending);
+    }
+
+    public void setPaymentStatus(String paymentId, PaymentStatus status) {
+        int pending;
+        synchronized (this) {
+            pendingPaymentStatuses.put(paymentId, status);
+            pending = pendingUpdates();
+        }
+        flushIfFull(pending);
+    }
+
+    //Reads the payment from the DB and applies status updates that are not in the DB yet
+    public Optional<Payment> readPayment(Supplier<Optional<Payment>> dbRead) {
+        visibilityLock.readLock().lock();
+        try {
+            return dbRead.get().map(this::overlay);
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    public List<Payment> readPayments(Supplier<List<Payment>> dbRead) {
+        visibilityLock.readLock().lock();
+        try {
+            return dbRead.get().stream().map(this::overlay).toList();
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, PaymentVerificationStatus> readVerificationStatuses(Supplier<Map<Long, PaymentVerificationStatus>> dbRead) {
+        visibilityLock.readLock().lock();
+        try {
+            return overlay(dbRead.get());
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    synchronized Payment overlay(Payment payment) {
+        PaymentStatus paymentStatus = pendingOrFlushing(pendingPaymentStatuses, flushingPaymentStatuses, payment.id());
+        List<PaymentVerification> verifications = payment.paymentVerifications().stream()
+                .map(verification -> {
+                    PaymentVerificationStatus status = pendingOrFlushing(
+                            pendingVerificationStatuses, flushingVerificationStatuses, verification.id());
+                    return status == null ? verification : verification.toBuilder().verificationStatus(status).build();
+                })
+                .toList();
+        return payment.toBuilder()
+                .paymentStatus(paymentStatus == null ? payment.paymentStatus() : paymentStatus)
+                .paymentVerifications(verifications)
+                .build();
+    }
+
+    synchronized Map<Long, PaymentVerificationStatus> overlay(Map<Long, PaymentVerificationStatus> verificationStatuses) {
+        Map<Long, PaymentVerificationStatus> statuses = new HashMap<>(verificationStatuses);
+        statuses.replaceAll((id, status) -> {
+            PaymentVerificationStatus buffered = pendingOrFlushing(pendingVerificationStatuses, flushingVerificationStatuses, id);
+            return buffered == null ? status : buffered;
+        });
+        return statuses;
+    }
+
+    void flush() {
+        synchronized (flushLock) {
+            Map<Long, PaymentVerificationStatus> verificationStatuses;
+            Map<String, PaymentStatus> paymentStatuses;
+            synchronized (this) {
+                if (pendingUpdates() == 0) {
+                    return;
+                }
+                verificationStatuses = flushingVerificationStatuses = pendingVerificationStatuses;
+                paymentStatuses = flushingPaymentStatuses = pendingPaymentStatuses;
+                pendingVerificationStatuses = new HashMap<>();
+                pendingPaymentStatuses = new HashMap<>();
+            }
+            boolean flushed = false;
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(transaction -> write(verificationStatuses, paymentStatuses)));
+                batchSize.record(verificationStatuses.size() + paymentStatuses.size());
+                flushed = true;
+            } catch (Exception e) {
+                logger.error("Cannot flush {} status updates, retry with the next batch",
+                        verificationStatuses.size() + paymentStatuses.size(), e);
+            } finally {
+                visibilityLock.writeLock().lock();
+                try {
+                    synchronized (this) {
+                        if (!flushed) {
+                            //Updates buffered in the meantime are newer, keep them
+                            verificationStatuses.forEach(pendingVerificationStatuses::putIfAbsent);
+                            paymentStatuses.forEach(pendingPaymentStatuses::putIfAbsent);
+                        }
+                        flushingVerificationStatuses = Map.of();
+                        flushingPaymentStatuses = Map.of();
+                    }
+                } finally {
+                    visibilityLock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(properties.getMaxDelay().toMillis() + 1000, TimeUnit.MILLISECONDS);
+        }
+        flush();
+    }
+
+    private void write(Map<Long, PaymentVerificationStatus> verificationStatuses, Map<String, PaymentStatus> paymentStatuses) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (!verificationStatuses.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_VERIFICATION_STATUS, verificationStatuses.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue().name(), now, entry.getKey()})
+                    .toList());
+        }
+        if (!paymentStatuses.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PAYMENT_STATUS, paymentStatuses.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue().name(), now, entry.getKey()})
+                    .toList());
+        }
+    }
+
+    private void flushIfFull(int pending) {
+        if (pending >= properties.getMaxBatchSize() && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    private synchronized int pendingUpdates() {
+        return pendingVerificationStatuses.size() + pendingPaymentStatuses.size();
+    }
+
+    private static <K, V> V pendingOrFlushing(Map<K, V> pending, Map<K, V> flushing, K key) {
+        V value = pending.get(key);
+        return value != null ? value : flushing.get(key);
+    }
+}
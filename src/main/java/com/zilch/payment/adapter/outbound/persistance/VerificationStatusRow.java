@@ -0,0 +1,5 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+
+public record VerificationStatusRow(Long id, PaymentVerificationStatus verificationStatus) {}
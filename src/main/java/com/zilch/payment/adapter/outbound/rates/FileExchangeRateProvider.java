@@ -0,0 +1,141 @@
+package com.zilch.payment.adapter.outbound.rates;
+
+import com.zilch.payment.application.CurrencyConverterService;
+import com.zilch.payment.application.ExchangeRates;
+import com.zilch.payment.config.ExchangeRatesConfigProperties;
+import com.zilch.payment.domain.payment.enums.Currency;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+//Exchange rates read from spring.exchangeRates.file. The file is watched, every change is loaded into a new immutable
+//ExchangeRates that replaces the current one in a single write, so lookups never lock or wait for a reload.
+//A file that cannot be read, parsed or does not cover all currency pairs is logged and the current rates are kept.
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "spring.exchange-rates", name = "file")
+public class FileExchangeRateProvider implements CurrencyConverterService.ExchangeRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileExchangeRateProvider.class);
+
+    private final Path file;
+    private final Currency pivot;
+    private final WatchService watchService;
+    private volatile ExchangeRates exchangeRates;
+
+    public FileExchangeRateProvider(ExchangeRatesConfigProperties properties) throws IOException {
+        this.file = properties.getFile().toAbsolutePath();
+        this.pivot = properties.getPivot();
+        //Service does not start without rates
+        this.exchangeRates = load();
+        logger.info("Loaded exchange rates {} from {}", exchangeRates.version(), file);
+        this.watchService = file.getFileSystem().newWatchService();
+        //Files replaced by a move show up as created
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().daemon().name("exchange-rates-watcher").start(this::watch);
+    }
+
+    @Override
+    public ExchangeRates exchangeRates() {
+        return exchangeRates;
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        watchService.close();
+    }
+
+    void reload() {
+        try {
+            ExchangeRates loaded = load();
+            //Editors write a file in several steps, unchanged content keeps the current version
+            if (!loaded.version().equals(exchangeRates.version())) {
+                exchangeRates = loaded;
+                logger.info("Loaded exchange rates {} from {}", loaded.version(), file);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Cannot load exchange rates from {}, keep rates {}", file, exchangeRates.version(), e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream().anyMatch(event -> file.getFileName().equals(event.context()));
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Stop watching exchange rates in {}", file);
+        }
+    }
+
+    private ExchangeRates load() throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        ExchangeRates loaded = ExchangeRates.of(version(content), Instant.now(), parse(new String(content, StandardCharsets.UTF_8)), pivot);
+        if (!loaded.isComplete()) {
+            throw new IllegalArgumentException("Exchange rates in " + file + " do not cover all currency pairs through " + pivot);
+        }
+        return loaded;
+    }
+
+    //Blank lines and lines starting with # are skipped
+    static Map<Currency, Map<Currency, BigDecimal>> parse(String content) {
+        Map<Currency, Map<Currency, BigDecimal>> rates = new EnumMap<>(Currency.class);
+        String[] lines = content.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split(",");
+            try {
+                if (columns.length != 3) {
+                    throw new IllegalArgumentException("Expected from,to,rate");
+                }
+                BigDecimal rate = new BigDecimal(columns[2].strip());
+                if (rate.signum() <= 0) {
+                    throw new IllegalArgumentException("Rate must be positive");
+                }
+                rates.computeIfAbsent(Currency.valueOf(columns[0].strip()), from -> new EnumMap<>(Currency.class))
+                        .put(Currency.valueOf(columns[1].strip()), rate);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid exchange rate on line " + (i + 1) + ": " + line, e);
+            }
+        }
+        return rates;
+    }
+
+    //Content hash, the same rates always get the same version
+    private static String version(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.zilch.payment.application;
 
+import com.zilch.payment.domain.money.Conversion;
 import com.zilch.payment.domain.money.CurrencyConversion;
 import com.zilch.payment.domain.money.Money;
 import com.zilch.payment.domain.payment.enums.Currency;
@@ -16,16 +17,27 @@ public class CurrencyConverterService implements CurrencyConversion {
     private final ExchangeRateProvider exchangeRateProvider;
 
     @Override
-    public Money convert(Money from, Currency targetCurrency) {
+    public Conversion conversion(Money from, Currency targetCurrency) {
         if (from.currency() == targetCurrency) {
-            return from;
+            return Conversion.unconverted(from);
         }
-        BigDecimal rate = exchangeRateProvider.getExchangeRate(from.currency(), targetCurrency);
+        //Rate and version come from the same snapshot, also when rates are reloaded in the meantime
+        ExchangeRates exchangeRates = exchangeRateProvider.exchangeRates();
+        BigDecimal rate = exchangeRates.rate(from.currency(), targetCurrency);
         BigDecimal converted = from.amount().multiply(rate).setScale(2, RoundingMode.HALF_UP);
-        return Money.builder().currency(targetCurrency).amount(converted).build();
+        return new Conversion(
+                Money.builder().currency(targetCurrency).amount(converted).build(),
+                exchangeRates.version(),
+                exchangeRates.timestamp()
+        );
     }
 
     public interface ExchangeRateProvider {
-        BigDecimal getExchangeRate(Currency from, Currency to);
+        //Current rates, must not block
+        ExchangeRates exchangeRates();
+
+        default BigDecimal getExchangeRate(Currency from, Currency to) {
+            return exchangeRates().rate(from, to);
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.zilch.payment.application;
+
+import com.zilch.payment.domain.payment.enums.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Map;
+
+//Immutable exchange rates between currencies. Version and timestamp identify the rates a conversion was made with
+public final class ExchangeRates {
+
+    private static final int DERIVED_RATE_SCALE = 6;
+
+    private final String version;
+    private final Instant timestamp;
+    //Indexed by Currency ordinals, from x to. Built once, so a lookup neither hashes nor allocates; null when unknown
+    private final BigDecimal[][] rates;
+
+    private ExchangeRates(String version, Instant timestamp, BigDecimal[][] rates) {
+        this.version = version;
+        this.timestamp = timestamp;
+        this.rates = rates;
+    }
+
+    //Pairs without a quoted rate are inverted from the rate quoted the other way or converted through the pivot currency
+    public static ExchangeRates of(String version, Instant timestamp, Map<Currency, Map<Currency, BigDecimal>> quotedRates, Currency pivot) {
+        Currency[] currencies = Currency.values();
+        BigDecimal[][] rates = new BigDecimal[currencies.length][currencies.length];
+        quotedRates.forEach((from, toRates) -> toRates.forEach((to, rate) -> rates[from.ordinal()][to.ordinal()] = rate));
+        for (Currency currency : currencies) {
+            rates[currency.ordinal()][currency.ordinal()] = BigDecimal.ONE;
+        }
+        for (Currency from : currencies) {
+            for (Currency to : currencies) {
+                BigDecimal opposite = rates[to.ordinal()][from.ordinal()];
+                if (rates[from.ordinal()][to.ordinal()] == null && opposite != null) {
+                    rates[from.ordinal()][to.ordinal()] = BigDecimal.ONE.divide(opposite, DERIVED_RATE_SCALE, RoundingMode.HALF_UP);
+                }
+            }
+        }
+        //Both legs are quoted or inverted by now
+        for (Currency from : currencies) {
+            for (Currency to : currencies) {
+                BigDecimal toPivot = rates[from.ordinal()][pivot.ordinal()];
+                BigDecimal fromPivot = rates[pivot.ordinal()][to.ordinal()];
+                if (rates[from.ordinal()][to.ordinal()] == null && toPivot != null && fromPivot != null) {
+                    rates[from.ordinal()][to.ordinal()] = toPivot.multiply(fromPivot).setScale(DERIVED_RATE_SCALE, RoundingMode.HALF_UP);
+                }
+            }
+        }
+        return new ExchangeRates(version, timestamp, rates);
+    }
+
+    public BigDecimal rate(Currency from, Currency to) {
+        BigDecimal rate = rates[from.ordinal()][to.ordinal()];
+        if (rate == null) {
+            throw new IllegalArgumentException("Exchange rate not found for " + from + " to " + to);
+        }
+        return rate;
+    }
+
+    //True when there is a rate between every two currencies
+    public boolean isComplete() {
+        for (BigDecimal[] fromRates : rates) {
+            for (BigDecimal rate : fromRates) {
+                if (rate == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public Instant timestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,117 @@
+package com.zilch.payment.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//How long payments take from creation to decision and how long they stay in each status.
+//Meters are registered upfront, recording a transition only looks up the payment and records a long.
+@Component
+public class PaymentLifecycleMetrics {
+
+    //Payments not decided by this instance within the time (restart, crash) are not tracked anymore
+    private static final Duration TRACKING_TIMEOUT = Duration.ofHours(1);
+
+    private final Timer singleCreation;
+    private final Timer batchCreation;
+    private final Counter created;
+    private final Map<PaymentStatus, Timer> timeInStatus = new EnumMap<>(PaymentStatus.class);
+    private final Map<PaymentStatus, Timer> decisions = new EnumMap<>(PaymentStatus.class);
+    private final Cache<String, Timestamps> inFlight;
+
+    public PaymentLifecycleMetrics(MeterRegistry meterRegistry) {
+        this.singleCreation = creationTimer(meterRegistry, "single");
+        this.batchCreation = creationTimer(meterRegistry, "batch");
+        this.created = Counter.builder("payment.created")
+                .description("Payments created")
+                .register(meterRegistry);
+        for (PaymentStatus status : PaymentStatus.values()) {
+            if (status.isTerminal) {
+                decisions.put(status, Timer.builder("payment.decision")
+                        .description("Time from payment creation to its decision")
+                        .tag("status", status.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            } else {
+                timeInStatus.put(status, Timer.builder("payment.status.duration")
+                        .description("Time a payment stays in the status")
+                        .tag("status", status.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+        }
+        this.inFlight = Caffeine.newBuilder()
+                .expireAfterWrite(TRACKING_TIMEOUT)
+                .build();
+    }
+
+    //startedAt is System.nanoTime() taken before the payments were created
+    public void paymentsCreated(List<Payment> payments, long startedAt) {
+        long now = System.nanoTime();
+        (payments.size() == 1 ? singleCreation : batchCreation).record(now - startedAt, TimeUnit.NANOSECONDS);
+        created.increment(payments.size());
+        payments.forEach(payment -> inFlight.put(payment.id(), new Timestamps(startedAt, now)));
+    }
+
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        Timestamps timestamps = event.paymentStatus().isTerminal
+                ? inFlight.asMap().remove(event.paymentId())
+                : inFlight.getIfPresent(event.paymentId());
+        if (timestamps == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        timestamps.transition(event.paymentStatus(), now);
+        if (event.paymentStatus().isTerminal) {
+            decisions.get(event.paymentStatus()).record(now - timestamps.createdAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordTimeIn(PaymentStatus status, long nanos) {
+        timeInStatus.get(status).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer creationTimer(MeterRegistry meterRegistry, String request) {
+        return Timer.builder("payment.creation")
+                .description("Time to create and persist payments of one request")
+                .tag("request", request)
+                .register(meterRegistry);
+    }
+
+    private final class Timestamps {
+
+        private final long createdAt;
+        //When the payment entered its current status, a payment is created as NEW
+        private long statusSince;
+        private PaymentStatus status = PaymentStatus.NEW;
+
+        private Timestamps(long createdAt, long statusSince) {
+            this.createdAt = createdAt;
+            this.statusSince = statusSince;
+        }
+
+        //A payment resumed from the outbox reports VERIFYING again, its time is counted once
+        private synchronized void transition(PaymentStatus newStatus, long now) {
+            if (newStatus == status) {
+                return;
+            }
+            recordTimeIn(status, now - statusSince);
+            statusSince = now;
+            status = newStatus;
+        }
+    }
+}
@@ -7,6 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 
 @Service
@@ -16,15 +19,40 @@ public class PaymentService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
     private final PaymentProvider paymentProvider;
+    private final PaymentOutbox paymentOutbox;
     private final ApplicationEventPublisher eventPublisher;
+    private final PaymentLifecycleMetrics paymentLifecycleMetrics;
+    private final PaymentTracing paymentTracing;
 
+    //Payment and its outbox row are committed together, the event wakes the outbox relay up after the commit
+    @Transactional
     public Payment initializePayment(FuturePaymentDetails futurePaymentDetails) {
         logger.info("Create new payment: {}", futurePaymentDetails);
+        long startedAt = System.nanoTime();
         Payment newPayment = paymentProvider.save(futurePaymentDetails.toNewPayment());
+        paymentOutbox.add(List.of(newPayment.id()), paymentTracing.currentContext());
         eventPublisher.publishEvent(new PaymentCreatedEvent((newPayment)));
+        paymentLifecycleMetrics.paymentsCreated(List.of(newPayment), startedAt);
         return newPayment;
     }
 
+    //Payments and their outbox rows are inserted in one transaction, the relay is woken up with a single event
+    @Transactional
+    public List<Payment> initializePayments(List<FuturePaymentDetails> futurePaymentDetails) {
+        if (futurePaymentDetails.isEmpty()) {
+            return List.of();
+        }
+        logger.info("Create {} new payments", futurePaymentDetails.size());
+        long startedAt = System.nanoTime();
+        List<Payment> newPayments = paymentProvider.saveAll(futurePaymentDetails.stream()
+                .map(FuturePaymentDetails::toNewPayment)
+                .toList());
+        paymentOutbox.add(newPayments.stream().map(Payment::id).toList(), paymentTracing.currentContext());
+        eventPublisher.publishEvent(new PaymentsCreatedEvent(newPayments));
+        paymentLifecycleMetrics.paymentsCreated(newPayments, startedAt);
+        return newPayments;
+    }
+
     public Payment retrieveById(String paymentId) {
         logger.info("Retrieve payment details by id: {}", paymentId);
         return paymentProvider.getById(paymentId).orElseThrow(() -> new PaymentNotFoundException(paymentId));
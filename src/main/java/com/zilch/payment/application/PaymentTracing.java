@@ -0,0 +1,65 @@
+package com.zilch.payment.application;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Keeps a payment in the trace of the request that created it, also across the outbox where no thread carries the trace.
+//Trace contexts are passed around as W3C traceparent values.
+@Component
+public class PaymentTracing {
+
+    static final String PAYMENT_ID = "paymentId";
+    private static final String TRACE_PARENT = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    //Without tracing enabled there is a no-op Tracer, but no Propagator
+    @Autowired
+    public PaymentTracing(Tracer tracer, ObjectProvider<Propagator> propagator) {
+        this(tracer, propagator.getIfAvailable(() -> Propagator.NOOP));
+    }
+
+    public PaymentTracing(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    //Null when nothing is traced on the current thread
+    public String currentContext() {
+        TraceContext context = tracer.currentTraceContext().context();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(context, carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+
+    //Runs the action in a span of the payment, a child of parentContext, or of the current span when it is null.
+    //Logs written meanwhile, also on executors the action hands work to, carry the payment id in MDC.
+    public void inPaymentSpan(String name, String paymentId, String parentContext, Runnable action) {
+        Span.Builder builder = parentContext == null
+                ? tracer.spanBuilder()
+                : propagator.extract(Map.of(TRACE_PARENT, parentContext), Map::get);
+        Span span = builder.name(name).tag("payment.id", paymentId).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span);
+             MDC.MDCCloseable ignoredMdc = MDC.putCloseable(PAYMENT_ID, paymentId)) {
+            action.run();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
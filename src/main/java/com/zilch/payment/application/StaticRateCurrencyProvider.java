@@ -4,26 +4,24 @@ import com.zilch.payment.domain.payment.enums.Currency;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Map;
 
+//Built-in rates, used unless spring.exchangeRates.file is set (see FileExchangeRateProvider)
 @Component
 public class StaticRateCurrencyProvider implements CurrencyConverterService.ExchangeRateProvider {
 
-    private static final Map<String, BigDecimal> EXCHANGE_RATES = Map.of(
-            "USD_EUR", BigDecimal.valueOf(0.92),
-            "EUR_USD", BigDecimal.valueOf(1.09),
-            "USD_GBP", BigDecimal.valueOf(0.78),
-            "GBP_USD", BigDecimal.valueOf(1.28),
-            "EUR_GBP", BigDecimal.valueOf(0.85),
-            "GBP_EUR", BigDecimal.valueOf(1.18)
+    private static final Map<Currency, Map<Currency, BigDecimal>> QUOTED_RATES = Map.of(
+            Currency.USD, Map.of(Currency.EUR, BigDecimal.valueOf(0.92), Currency.GBP, BigDecimal.valueOf(0.78)),
+            Currency.EUR, Map.of(Currency.USD, BigDecimal.valueOf(1.09), Currency.GBP, BigDecimal.valueOf(0.85)),
+            Currency.GBP, Map.of(Currency.USD, BigDecimal.valueOf(1.28), Currency.EUR, BigDecimal.valueOf(1.18))
     );
 
-    public BigDecimal getExchangeRate(Currency from, Currency to) {
-        String key = from.name() + "_" + to.name();
-        if (!EXCHANGE_RATES.containsKey(key)) {
-            throw new IllegalArgumentException("Exchange rate not found for " + from + " to " + to);
-        }
-        return EXCHANGE_RATES.get(key);
+    private final ExchangeRates exchangeRates = ExchangeRates.of("static", Instant.now(), QUOTED_RATES, Currency.USD);
+
+    @Override
+    public ExchangeRates exchangeRates() {
+        return exchangeRates;
     }
 
 }
@@ -0,0 +1,205 @@
+package com.zilch.payment.application.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.zilch.payment.config.AdmissionConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+//Admission control for new payments. Payments created and not decided yet are limited by an AIMD limit:
+//+1 when a payment is decided within targetDecisionLatency while the limit is in use, x backoffRatio when it is not
+//or when verification queues fill up. Requests over the limit are rejected before they add to the verification backlog.
+@Component
+public class PaymentAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentAdmission.class);
+
+    private final AdmissionConfigProperties properties;
+    private final List<Executor> verificationExecutors;
+    private final Counter rejected;
+    //Admission time of payments in flight, by payment id
+    private final Cache<String, Long> admitted;
+    //Decision time of payments decided before admitAll registered them, verification may finish before creation returns
+    private final Cache<String, Long> decidedBeforeAdmission;
+    //Reserved by requests being processed plus admitted payments not decided yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    //Guarded by this
+    private double limit;
+    private long lastDecreaseNanos;
+
+    public PaymentAdmission(AdmissionConfigProperties properties,
+                            @Qualifier("verificationRunnerExecutor") Executor verificationRunnerExecutor,
+                            @Qualifier("verificationAnalyzerExecutor") Executor verificationAnalyzerExecutor,
+                            VerificationBulkheads verificationBulkheads,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        //A saturated bulkhead holds back the verifications of its type as much as a full shared queue
+        this.verificationExecutors = Stream.concat(
+                        Stream.of(verificationRunnerExecutor, verificationAnalyzerExecutor),
+                        verificationBulkheads.dedicatedExecutors().stream())
+                .toList();
+        this.limit = properties.getInitialLimit();
+        this.admitted = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getDecisionTimeout())
+                .scheduler(Scheduler.systemScheduler())
+                .executor(Runnable::run)
+                .<String, Long>removalListener((paymentId, admittedAt, cause) -> {
+                    inFlight.decrementAndGet();
+                    if (cause == RemovalCause.EXPIRED) {
+                        logger.warn("Payment {} not decided within {}", paymentId, properties.getDecisionTimeout());
+                        decrease();
+                    }
+                })
+                .build();
+        this.decidedBeforeAdmission = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getDecisionTimeout())
+                .build();
+        this.rejected = Counter.builder("payment.admission.rejected")
+                .description("Payments rejected by admission control")
+                .register(meterRegistry);
+        Gauge.builder("payment.admission.limit", this, PaymentAdmission::limit)
+                .description("Payments allowed in flight")
+                .register(meterRegistry);
+        Gauge.builder("payment.admission.inflight", inFlight, AtomicInteger::get)
+                .description("Payments created and not decided yet")
+                .register(meterRegistry);
+    }
+
+    public Payment admit(Supplier<Payment> creation) {
+        return admitAll(1, () -> List.of(creation.get())).get(0);
+    }
+
+    //Throws PaymentAdmissionRejectedException without running the creation when the payments cannot be admitted
+    public List<Payment> admitAll(int payments, Supplier<List<Payment>> creation) {
+        if (!properties.isEnabled() || payments == 0) {
+            return creation.get();
+        }
+        reserve(payments);
+        List<Payment> created;
+        try {
+            created = creation.get();
+        } catch (RuntimeException e) {
+            inFlight.addAndGet(-payments);
+            throw e;
+        }
+        long now = System.nanoTime();
+        //Each entry gives its reservation back when it is removed
+        inFlight.addAndGet(-payments);
+        created.forEach(payment -> {
+            inFlight.incrementAndGet();
+            admitted.put(payment.id(), now);
+            //Registered and checked in the opposite order by onPaymentStatusChanged, one of them sees the other
+            if (decidedBeforeAdmission.asMap().remove(payment.id()) != null) {
+                decided(payment.id());
+            }
+        });
+        return created;
+    }
+
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (!event.paymentStatus().isTerminal) {
+            return;
+        }
+        if (decided(event.paymentId()) || !properties.isEnabled()) {
+            return;
+        }
+        decidedBeforeAdmission.put(event.paymentId(), System.nanoTime());
+        //Registered in the meantime
+        if (decided(event.paymentId())) {
+            decidedBeforeAdmission.invalidate(event.paymentId());
+        }
+    }
+
+    synchronized double limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    //False when the payment is not admitted, only one caller frees the slot of a payment
+    private boolean decided(String paymentId) {
+        Long admittedAt = admitted.asMap().remove(paymentId);
+        if (admittedAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - admittedAt > properties.getTargetDecisionLatency().toNanos() || queuesCongested()) {
+            decrease();
+        } else {
+            increase();
+        }
+        return true;
+    }
+
+    private synchronized void reserve(int payments) {
+        if (queuesCongested()) {
+            decrease();
+            reject("Verification queues are full");
+        }
+        int current = inFlight.get();
+        //A batch larger than the limit is still admitted when nothing else is in flight
+        if (current > 0 && current + payments > limit) {
+            reject("Too many payments in verification");
+        }
+        inFlight.addAndGet(payments);
+    }
+
+    private void reject(String reason) {
+        rejected.increment();
+        throw new PaymentAdmissionRejectedException(reason + ", retry later", properties.getRetryAfter());
+    }
+
+    private synchronized void increase() {
+        //Only when the limit is in use, otherwise it would grow without being tested
+        if (inFlight.get() * 2 >= limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1);
+        }
+    }
+
+    //At most once per targetDecisionLatency, payments decided late together are one congestion signal
+    private synchronized void decrease() {
+        long now = System.nanoTime();
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < properties.getTargetDecisionLatency().toNanos()) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+        logger.info("Payment admission limit decreased to {}", (int) limit);
+    }
+
+    private boolean queuesCongested() {
+        return verificationExecutors.stream().anyMatch(executor -> queueUtilization(executor) >= properties.getMaxQueueUtilization());
+    }
+
+    //VIRTUAL executors have no queue, their submitters wait for a free slot instead
+    private static double queueUtilization(Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            BlockingQueue<Runnable> queue = pool.getThreadPoolExecutor().getQueue();
+            int capacity = queue.size() + queue.remainingCapacity();
+            return capacity == 0 ? 0 : (double) queue.size() / capacity;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.zilch.payment.application.admission;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class PaymentAdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PaymentAdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
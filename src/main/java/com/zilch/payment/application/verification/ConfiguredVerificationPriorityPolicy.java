@@ -0,0 +1,47 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.money.CurrencyConversion;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.Currency;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Head start from spring.verification.priority: by payment method, for large amounts and by merchant, summed up to maxHeadStart
+@Component
+@AllArgsConstructor
+public class ConfiguredVerificationPriorityPolicy implements VerificationPriorityPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfiguredVerificationPriorityPolicy.class);
+
+    private final VerificationConfigProperties verificationProperties;
+    private final CurrencyConversion currencyConversion;
+
+    @Override
+    public Duration headStart(Payment payment) {
+        VerificationConfigProperties.Priority priority = verificationProperties.getPriority();
+        if (!priority.isEnabled()) {
+            return Duration.ZERO;
+        }
+        Duration headStart = priority.getPaymentMethods().getOrDefault(payment.paymentMethod(), Duration.ZERO)
+                .plus(priority.getMerchants().getOrDefault(payment.merchant(), Duration.ZERO));
+        if (!priority.getLargeAmountHeadStart().isZero() && isLargeAmount(payment, priority)) {
+            headStart = headStart.plus(priority.getLargeAmountHeadStart());
+        }
+        return headStart.compareTo(priority.getMaxHeadStart()) > 0 ? priority.getMaxHeadStart() : headStart;
+    }
+
+    private boolean isLargeAmount(Payment payment, VerificationConfigProperties.Priority priority) {
+        try {
+            return currencyConversion.convert(payment.money(), Currency.EUR).amount().compareTo(priority.getLargeAmount()) >= 0;
+        } catch (RuntimeException e) {
+            //Priority is best effort, the payment is verified in order of arrival
+            logger.warn("Cannot convert amount of {} payment to EUR: {}", payment.id(), e.getMessage());
+            return false;
+        }
+    }
+}
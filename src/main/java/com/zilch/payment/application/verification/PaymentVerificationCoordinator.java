@@ -0,0 +1,200 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.PaymentVerificationProvider;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
+import com.zilch.payment.domain.verification.events.PaymentVerificationsScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+//Used in COORDINATED verification mode: runs all verifications of a payment concurrently
+//and decides on the payment once the slowest one completes, without reloading the payment
+@Service
+public class PaymentVerificationCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentVerificationCoordinator.class);
+
+    private final PaymentVerificationRunner paymentVerificationRunner;
+    private final PaymentProvider paymentProvider;
+    private final PaymentVerificationProvider paymentVerificationProvider;
+    private final VerificationBulkheads verificationBulkheads;
+    private final VerificationPriorityPolicy verificationPriorityPolicy;
+    private final Executor analyzerExecutor;
+    private final VerificationCancellationRegistry cancellationRegistry;
+    private final VerificationMetrics verificationMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RejectedVerificationRetry rejectedVerificationRetry;
+
+    public PaymentVerificationCoordinator(PaymentVerificationRunner paymentVerificationRunner,
+                                          PaymentProvider paymentProvider,
+                                          PaymentVerificationProvider paymentVerificationProvider,
+                                          VerificationBulkheads verificationBulkheads,
+                                          VerificationPriorityPolicy verificationPriorityPolicy,
+                                          @Qualifier("verificationAnalyzerExecutor") Executor analyzerExecutor,
+                                          VerificationCancellationRegistry cancellationRegistry,
+                                          VerificationMetrics verificationMetrics,
+                                          ApplicationEventPublisher eventPublisher,
+                                          RejectedVerificationRetry rejectedVerificationRetry) {
+        this.paymentVerificationRunner = paymentVerificationRunner;
+        this.paymentProvider = paymentProvider;
+        this.paymentVerificationProvider = paymentVerificationProvider;
+        this.verificationBulkheads = verificationBulkheads;
+        this.verificationPriorityPolicy = verificationPriorityPolicy;
+        this.analyzerExecutor = analyzerExecutor;
+        this.cancellationRegistry = cancellationRegistry;
+        this.verificationMetrics = verificationMetrics;
+        this.eventPublisher = eventPublisher;
+        this.rejectedVerificationRetry = rejectedVerificationRetry;
+    }
+
+    @EventListener
+    public void coordinateVerifications(PaymentVerificationsScheduledEvent event) {
+        coordinate(event);
+    }
+
+    CompletableFuture<Void> coordinate(PaymentVerificationsScheduledEvent event) {
+        Payment payment = event.payment();
+        CompletableFuture<Map<Long, PaymentVerificationStatus>> results = event.strategy() == VerificationStrategy.SEQUENTIAL
+                ? runSequentially(payment, event.paymentVerifications())
+                : runInParallel(payment, event.paymentVerifications());
+        return results.thenAcceptAsync(statuses -> complete(payment, event.paymentVerifications(), statuses), analyzerExecutor)
+                .whenComplete((ignored, e) -> {
+                    if (e == null) {
+                        return;
+                    }
+                    //Results are written only by complete(), so a rejected step leaves every verification SCHEDULED
+                    if (e.getCause() instanceof RejectedExecutionException rejection) {
+                        rejectedVerificationRetry.retry(payment.id(), rejection);
+                    } else {
+                        //Resumed from what complete() managed to write, the payment does not stay VERIFYING
+                        rejectedVerificationRetry.retryFailed(payment.id(), e.getCause() != null ? e.getCause() : e);
+                    }
+                });
+    }
+
+    private CompletableFuture<Map<Long, PaymentVerificationStatus>> runInParallel(Payment payment, List<PaymentVerification> verifications) {
+        Map<Long, CompletableFuture<PaymentVerificationStatus>> results = new LinkedHashMap<>();
+        verifications.forEach(verification -> results.put(verification.id(), run(payment, verification)));
+        return CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<Long, PaymentVerificationStatus> statuses = new LinkedHashMap<>();
+                    results.forEach((id, result) -> statuses.put(id, result.join()));
+                    return statuses;
+                });
+    }
+
+    private CompletableFuture<Map<Long, PaymentVerificationStatus>> runSequentially(Payment payment, List<PaymentVerification> verifications) {
+        CompletableFuture<Map<Long, PaymentVerificationStatus>> results = CompletableFuture.completedFuture(new LinkedHashMap<>());
+        for (PaymentVerification verification : verifications) {
+            results = results.thenCompose(statuses -> {
+                boolean allPassed = statuses.values().stream().allMatch(status -> status == PaymentVerificationStatus.PASSED);
+                if (!allPassed) {
+                    cancellationRegistry.complete(payment.id());
+                    verificationMetrics.verificationSkippedAfterFailure(verification.verificationType());
+                    statuses.put(verification.id(), PaymentVerificationStatus.CANCELLED);
+                    return CompletableFuture.completedFuture(statuses);
+                }
+                return run(payment, verification).thenApply(status -> {
+                    statuses.put(verification.id(), status);
+                    return statuses;
+                });
+            });
+        }
+        return results;
+    }
+
+    private CompletableFuture<PaymentVerificationStatus> run(Payment payment, PaymentVerification verification) {
+        return attempt(payment, verification, 1)
+                .exceptionally(e -> {
+                    //A rejected attempt says nothing about the payment, coordinate() puts it back to the outbox
+                    if (e.getCause() instanceof RejectedExecutionException rejection) {
+                        throw rejection;
+                    }
+                    logger.error("The {} verification of {} payment failed", verification.verificationType(), payment.id(), e);
+                    return PaymentVerificationStatus.ERROR;
+                })
+                .thenApply(status -> {
+                    //The first failure decides the payment, siblings still queued or running are not needed anymore
+                    if (status == PaymentVerificationStatus.FAILED || status == PaymentVerificationStatus.ERROR) {
+                        cancellationRegistry.cancel(payment.id());
+                    }
+                    return status;
+                });
+    }
+
+    //Attempts run on the bulkhead of the verification type, ahead of others by the head start of the payment.
+    //No thread waits for the retry delay, the next attempt is queued on the bulkhead once it passes
+    private CompletableFuture<PaymentVerificationStatus> attempt(Payment payment, PaymentVerification verification, int attempt) {
+        return CompletableFuture
+                .supplyAsync(() -> paymentVerificationRunner.verify(payment, verification, attempt),
+                        verificationBulkheads.executor(verification.verificationType(), verificationPriorityPolicy.headStart(payment)))
+                .exceptionallyCompose(e -> {
+                    if (!(e.getCause() instanceof VerificationRetryException retry)) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                    verificationMetrics.verificationRetried(verification.verificationType());
+                    Executor delayed = CompletableFuture.delayedExecutor(retry.getDelay().toNanos(), TimeUnit.NANOSECONDS);
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return attempt(payment, verification, attempt + 1);
+                        } catch (RejectedExecutionException rejection) {
+                            //The attempt will not run, the payment is verified again from the outbox
+                            cancellationRegistry.complete(payment.id());
+                            throw rejection;
+                        }
+                    }, delayed).thenCompose(Function.identity());
+                });
+    }
+
+    private void complete(Payment payment, List<PaymentVerification> verifications, Map<Long, PaymentVerificationStatus> statuses) {
+        long startedAt = System.nanoTime();
+        try {
+            decide(payment, verifications, statuses);
+        } finally {
+            verificationMetrics.resultsAnalyzed(System.nanoTime() - startedAt);
+        }
+    }
+
+    private void decide(Payment payment, List<PaymentVerification> verifications, Map<Long, PaymentVerificationStatus> statuses) {
+        paymentVerificationProvider.updateStatuses(payment.id(), statuses);
+        verifications.forEach(verification -> eventPublisher.publishEvent(PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(payment.id())
+                .verificationId(verification.id())
+                .verificationType(verification.verificationType())
+                .verificationStatus(statuses.get(verification.id()))
+                .build()));
+        boolean allPassed = statuses.values().stream().allMatch(status -> status == PaymentVerificationStatus.PASSED);
+        if (allPassed) {
+            logger.info("Accept {} payment", payment.id());
+            setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+        } else {
+            logger.info("Reject {} payment", payment.id());
+            setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+        }
+    }
+
+    private void setPaymentStatus(String paymentId, PaymentStatus paymentStatus) {
+        paymentProvider.setPaymentStatus(paymentId, paymentStatus);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(paymentId, paymentStatus));
+    }
+}
@@ -0,0 +1,137 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.OutboxConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentCreatedEvent;
+import com.zilch.payment.domain.payment.PaymentOutbox;
+import com.zilch.payment.domain.payment.PaymentOutboxClaim;
+import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentsCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+//Hands payments recorded in the outbox over to the verification scheduler. Outbox rows are removed only after their
+//payments were scheduled, so a crash in between schedules them again and the scheduler resumes what was already started.
+//Batches are scheduled on the relay thread, the next batch is claimed only when the previous one was handed over.
+@Component
+public class PaymentVerificationOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentVerificationOutboxRelay.class);
+
+    private final PaymentOutbox paymentOutbox;
+    private final PaymentProvider paymentProvider;
+    private final PaymentVerificationScheduler paymentVerificationScheduler;
+    private final OutboxConfigProperties properties;
+    private final Counter relayed;
+    private final Counter deferred;
+    private final ScheduledExecutorService relay;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private volatile boolean started;
+
+    public PaymentVerificationOutboxRelay(PaymentOutbox paymentOutbox,
+                                          PaymentProvider paymentProvider,
+                                          PaymentVerificationScheduler paymentVerificationScheduler,
+                                          OutboxConfigProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.paymentOutbox = paymentOutbox;
+        this.paymentProvider = paymentProvider;
+        this.paymentVerificationScheduler = paymentVerificationScheduler;
+        this.properties = properties;
+        this.relayed = Counter.builder("payment.outbox.relayed")
+                .description("Payments handed over from the outbox to verification")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("payment.outbox.deferred")
+                .description("Payments left in the outbox because verification executors were full")
+                .register(meterRegistry);
+        this.relay = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "payment-outbox-relay"));
+    }
+
+    //Nothing verifies payments before the relay starts, so unfinished payments created so far were left by a previous run
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int recovered = paymentOutbox.addUnfinishedPayments(Instant.now());
+        if (recovered > 0) {
+            logger.warn("Resume verification of {} unfinished payments", recovered);
+        }
+        started = true;
+        long interval = properties.getPollInterval().toNanos();
+        relay.scheduleWithFixedDelay(this::drain, 0, interval, TimeUnit.NANOSECONDS);
+    }
+
+    //After commit, so the relay cannot look for the outbox rows before they are visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        requestDrain();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentsCreated(PaymentsCreatedEvent event) {
+        requestDrain();
+    }
+
+    void drain() {
+        try {
+            PaymentOutboxClaim claim;
+            do {
+                claim = paymentOutbox.claim(properties.getBatchSize(), properties.getClaimTimeout());
+                if (!claim.isEmpty() && !relay(claim)) {
+                    return;
+                }
+            } while (claim.paymentIds().size() == properties.getBatchSize());
+        } catch (Exception e) {
+            //Claimed payments are claimed again once the claim times out
+            logger.error("Cannot relay payments from the outbox, retry after {}", properties.getClaimTimeout(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        relay.shutdown();
+        relay.awaitTermination(properties.getClaimTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    //False when verification executors are full, the relay backs off until the next poll
+    private boolean relay(PaymentOutboxClaim claim) {
+        List<String> paymentIds = claim.paymentIds();
+        //Payments deleted in the meantime are dropped from the outbox
+        List<Payment> payments = paymentProvider.getAllByIds(paymentIds);
+        Set<String> deferredIds = paymentVerificationScheduler.schedule(payments, paymentOutbox.traceContexts(paymentIds)).stream()
+                .map(Payment::id)
+                .collect(Collectors.toSet());
+        List<String> scheduledIds = paymentIds.stream().filter(id -> !deferredIds.contains(id)).toList();
+        //Payments sent back to the outbox while the batch was scheduled are released from the claim and stay
+        paymentOutbox.remove(claim, scheduledIds);
+        relayed.increment(scheduledIds.size());
+        if (deferredIds.isEmpty()) {
+            return true;
+        }
+        paymentOutbox.release(List.copyOf(deferredIds));
+        deferred.increment(deferredIds.size());
+        return false;
+    }
+
+    private void requestDrain() {
+        if (started && drainRequested.compareAndSet(false, true)) {
+            relay.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.zilch.payment.application.verification;
 
-import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.PaymentNotFoundException;
 import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import com.zilch.payment.domain.verification.PaymentVerificationProvider;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 @AllArgsConstructor
 public class PaymentVerificationResultAnalyzer {
@@ -22,25 +26,57 @@ public class PaymentVerificationResultAnalyzer {
 
     private final PaymentProvider paymentProvider;
     private final PaymentVerificationProvider paymentVerificationProvider;
+    private final VerificationCancellationRegistry cancellationRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VerificationMetrics verificationMetrics;
 
     @EventListener
     @Async("verificationAnalyzerExecutor")
     public void processPaymentVerificationResult(PaymentVerificationCompletedEvent event) {
+        long startedAt = System.nanoTime();
+        try {
+            analyze(event);
+        } finally {
+            verificationMetrics.resultsAnalyzed(System.nanoTime() - startedAt);
+        }
+    }
+
+    private void analyze(PaymentVerificationCompletedEvent event) {
         logger.debug("Retrieved PaymentVerificationCompletedEvent event: " + event.toString());
-        paymentVerificationProvider.updateStatus(event.verificationId(), event.verificationResult());
-        Payment payment = paymentProvider.getById(event.paymentId())
-                .orElseThrow(() -> new PaymentNotFoundException(event.paymentId()));
+        paymentVerificationProvider.updateStatus(event.paymentId(), event.verificationId(), event.verificationResult());
+        eventPublisher.publishEvent(PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(event.paymentId())
+                .verificationId(event.verificationId())
+                .verificationType(event.verificationType())
+                .verificationStatus(event.verificationResult())
+                .build());
+        if (event.verificationResult() == PaymentVerificationStatus.CANCELLED) {
+            //Payment has been already rejected by another verification
+            return;
+        }
+        String paymentId = event.paymentId();
         if (event.verificationResult() == PaymentVerificationStatus.PASSED) {
-            boolean allPassed = payment.paymentVerifications().stream()
-                    .allMatch(paymentVerification -> paymentVerification.verificationStatus() == PaymentVerificationStatus.PASSED);
+            //Only statuses are needed to decide, not the whole payment
+            Map<Long, PaymentVerificationStatus> statuses = paymentVerificationProvider.getStatuses(paymentId);
+            if (statuses.isEmpty()) {
+                throw new PaymentNotFoundException(paymentId);
+            }
+            boolean allPassed = statuses.values().stream()
+                    .allMatch(status -> status == PaymentVerificationStatus.PASSED);
             if (allPassed) {
-                logger.info("Accept {} payment", payment.id());
-                paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+                logger.info("Accept {} payment", paymentId);
+                setPaymentStatus(paymentId, PaymentStatus.ACCEPTED);
             }
         } else {
-            logger.info("Reject {} payment", payment.id());
-            paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+            logger.info("Reject {} payment", paymentId);
+            cancellationRegistry.cancel(paymentId);
+            setPaymentStatus(paymentId, PaymentStatus.REJECTED);
         }
     }
 
+    private void setPaymentStatus(String paymentId, PaymentStatus paymentStatus) {
+        paymentProvider.setPaymentStatus(paymentId, paymentStatus);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(paymentId, paymentStatus));
+    }
+
 }
@@ -1,54 +1,282 @@
 package com.zilch.payment.application.verification;
 
+import com.zilch.payment.application.verification.verifier.BatchPaymentVerifier;
 import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.VerificationBulkheads;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
 import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.ReadyForBatchVerificationEvent;
 import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class PaymentVerificationRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(PaymentVerificationRunner.class);
+
     private final Map<VerificationType, PaymentVerifier> verifiers;
     private final ApplicationEventPublisher eventPublisher;
+    private final VerificationCancellationRegistry cancellationRegistry;
+    private final VerificationMetrics verificationMetrics;
+    private final RejectedVerificationRetry rejectedVerificationRetry;
+    private final VerificationResultCache verificationResultCache;
+    private final VerificationBatcher verificationBatcher;
+    private final VerifierResilience verifierResilience;
+    private final VerificationBulkheads verificationBulkheads;
+    private final VerificationPriorityPolicy verificationPriorityPolicy;
 
     @Autowired
     public PaymentVerificationRunner(List<PaymentVerifier> verifiersList,
-                                     ApplicationEventPublisher eventPublisher) {
+                                     ApplicationEventPublisher eventPublisher,
+                                     VerificationCancellationRegistry cancellationRegistry,
+                                     VerificationMetrics verificationMetrics,
+                                     RejectedVerificationRetry rejectedVerificationRetry,
+                                     VerificationResultCache verificationResultCache,
+                                     VerificationBatcher verificationBatcher,
+                                     VerifierResilience verifierResilience,
+                                     VerificationBulkheads verificationBulkheads,
+                                     VerificationPriorityPolicy verificationPriorityPolicy) {
         this.verifiers = verifiersList.stream().collect(Collectors.toMap(PaymentVerifier::type, verifier -> verifier));
         this.eventPublisher = eventPublisher;
+        this.cancellationRegistry = cancellationRegistry;
+        this.verificationMetrics = verificationMetrics;
+        this.rejectedVerificationRetry = rejectedVerificationRetry;
+        this.verificationResultCache = verificationResultCache;
+        this.verificationBatcher = verificationBatcher;
+        this.verifierResilience = verifierResilience;
+        this.verificationBulkheads = verificationBulkheads;
+        this.verificationPriorityPolicy = verificationPriorityPolicy;
+    }
+
+    //Verifications run on the bulkhead of their type, ahead of others by the head start of their payment.
+    //A full bulkhead throws RejectedExecutionException to the publisher, the same way the shared runner pool does
+    @EventListener
+    public void onReadyForVerification(ReadyForVerificationEvent event) {
+        verificationBulkheads.executor(event.paymentVerification().verificationType(), verificationPriorityPolicy.headStart(event.payment()))
+                .execute(() -> runVerification(event));
     }
 
+    //A batch is as urgent as its most urgent payment
     @EventListener
-    @Async("verificationRunnerExecutor")
+    public void onReadyForBatchVerification(ReadyForBatchVerificationEvent event) {
+        Duration headStart = event.verifications().stream()
+                .map(verification -> verificationPriorityPolicy.headStart(verification.payment()))
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+        verificationBulkheads.executor(event.verificationType(), headStart).execute(() -> runBatchVerification(event));
+    }
+
     public void runVerification(ReadyForVerificationEvent event) {
-        PaymentVerification paymentVerification = event.paymentVerification();
-        Payment payment = event.payment();
+        if (verifiers.get(event.paymentVerification().verificationType()) instanceof BatchPaymentVerifier
+                && verificationBatcher.add(event)) {
+            //Verified later with other payments, see runBatchVerification
+            return;
+        }
         PaymentVerificationStatus paymentVerificationStatus = PaymentVerificationStatus.ERROR;
+        boolean retried = false;
+        try {
+            paymentVerificationStatus = verify(event.payment(), event.paymentVerification(), event.attempt());
+        } catch (VerificationRetryException e) {
+            retried = true;
+            scheduleRetry(event, e.getDelay());
+        } finally {
+            if (!retried) {
+                complete(event, paymentVerificationStatus);
+            }
+        }
+    }
+
+    public void runBatchVerification(ReadyForBatchVerificationEvent event) {
+        BatchPaymentVerifier verifier = (BatchPaymentVerifier) verifiers.get(event.verificationType());
+        List<BatchOutcome> outcomes = verifyAll(verifier, event.verifications());
+        for (int i = 0; i < outcomes.size(); i++) {
+            BatchOutcome outcome = outcomes.get(i);
+            if (outcome.retryDelay() != null) {
+                scheduleRetry(event.verifications().get(i), outcome.retryDelay());
+            } else {
+                complete(event.verifications().get(i), outcome.status());
+            }
+        }
+    }
+
+    //Attempts count from 1. A failed attempt that is to be retried throws VerificationRetryException with the delay
+    //before the next one, the caller schedules it
+    public PaymentVerificationStatus verify(Payment payment, PaymentVerification paymentVerification, int attempt) {
+        VerificationType type = paymentVerification.verificationType();
+        boolean called = false;
+        try {
+            if (!cancellationRegistry.start(payment.id())) {
+                logger.info("Skip the {} verification, {} payment is already decided", type, payment.id());
+                verificationMetrics.verificationSkippedForDecidedPayment(type);
+                return PaymentVerificationStatus.CANCELLED;
+            }
+            PaymentVerifier verifier = Optional.ofNullable(verifiers.get(type))
+                    .orElseThrow(() -> new IllegalArgumentException("Cannot find verifier for: " + type));
+            called = true;
+            return verificationResultCache.verify(verifier, payment, () -> call(verifier, payment));
+        } catch (Exception e) {
+            if (cancellationRegistry.isCancelled(payment.id())) {
+                logger.info("The {} verification interrupted, {} payment is already decided", type, payment.id());
+                return PaymentVerificationStatus.CANCELLED;
+            }
+            Optional<Duration> retryDelay = called ? verifierResilience.retryDelay(type, attempt) : Optional.empty();
+            if (retryDelay.isPresent()) {
+                logger.warn("The {} verification of {} payment failed on attempt {}, retry in {} ms: {}",
+                        type, payment.id(), attempt, retryDelay.get().toMillis(), e.getMessage());
+                //Still tracked until its last attempt completes
+                cancellationRegistry.retry(payment.id());
+                throw new VerificationRetryException("The " + type + " verification of " + payment.id()
+                        + " payment failed on attempt " + attempt, retryDelay.get(), e);
+            }
+            throw e;
+        } finally {
+            cancellationRegistry.complete(payment.id());
+        }
+    }
+
+    private PaymentVerificationStatus call(PaymentVerifier verifier, Payment payment) {
+        return verifierResilience.call(verifier.type(), () -> timedCall(verifier, payment));
+    }
+
+    //Only calls that reached the verifier are timed, results reused from other payments are counted by the cache
+    private PaymentVerificationStatus timedCall(PaymentVerifier verifier, Payment payment) {
+        long startedAt = System.nanoTime();
+        PaymentVerificationStatus outcome = PaymentVerificationStatus.ERROR;
         try {
-            paymentVerificationStatus = Optional.ofNullable(verifiers.get(paymentVerification.verificationType()))
-                    .orElseThrow(() -> new IllegalArgumentException("Cannot find verifier for: " + paymentVerification.verificationType()))
-                    .verify(payment);
+            outcome = verifier.verify(payment);
+            return outcome;
+        } catch (Exception e) {
+            if (cancellationRegistry.isCancelled(payment.id())) {
+                outcome = PaymentVerificationStatus.CANCELLED;
+            }
+            throw e;
         } finally {
-            eventPublisher.publishEvent(
-                    PaymentVerificationCompletedEvent.builder()
-                            .verificationId(paymentVerification.id())
-                            .paymentId(payment.id())
-                            .verificationResult(paymentVerificationStatus)
-                            .build()
-            );
+            verificationMetrics.verificationCompleted(verifier.type(), outcome, System.nanoTime() - startedAt);
         }
     }
+
+    //One verifier call for all payments not decided yet. The call is shared, so unlike verify() it is not interrupted
+    //when one of its payments is decided, and its failure fails every payment in it
+    private List<BatchOutcome> verifyAll(BatchPaymentVerifier verifier, List<ReadyForVerificationEvent> verifications) {
+        List<PaymentVerificationStatus> statuses = new ArrayList<>(Collections.nCopies(verifications.size(), PaymentVerificationStatus.ERROR));
+        List<Duration> retryDelays = new ArrayList<>(Collections.nCopies(verifications.size(), null));
+        List<Integer> verified = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < verifications.size(); i++) {
+            Payment payment = verifications.get(i).payment();
+            if (cancellationRegistry.isCancelled(payment.id())) {
+                logger.info("Skip the {} verification, {} payment is already decided", verifier.type(), payment.id());
+                verificationMetrics.verificationSkippedForDecidedPayment(verifier.type());
+                statuses.set(i, PaymentVerificationStatus.CANCELLED);
+            } else {
+                verified.add(i);
+                payments.add(payment);
+            }
+        }
+        if (!payments.isEmpty()) {
+            long startedAt = System.nanoTime();
+            try {
+                List<PaymentVerificationStatus> results = verifierResilience.call(verifier.type(), () -> verifier.verifyAll(payments));
+                for (int i = 0; i < verified.size(); i++) {
+                    statuses.set(verified.get(i), results.get(i));
+                }
+            } catch (Exception e) {
+                logger.error("The {} verification of {} payments failed", verifier.type(), payments.size(), e);
+                verified.forEach(i -> verifierResilience.retryDelay(verifier.type(), verifications.get(i).attempt()).ifPresent(delay -> {
+                    cancellationRegistry.retry(verifications.get(i).payment().id());
+                    retryDelays.set(i, delay);
+                }));
+            } finally {
+                long duration = System.nanoTime() - startedAt;
+                verified.forEach(i -> verificationMetrics.verificationCompleted(verifier.type(), statuses.get(i), duration));
+                verificationMetrics.verificationsBatched(verifier.type(), payments.size());
+            }
+        }
+        verifications.forEach(verification -> cancellationRegistry.complete(verification.payment().id()));
+        List<BatchOutcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < verifications.size(); i++) {
+            outcomes.add(new BatchOutcome(statuses.get(i), retryDelays.get(i)));
+        }
+        return outcomes;
+    }
+
+    //The runner thread does not wait for the delay, the next attempt is queued for the runner once it passes
+    private void scheduleRetry(ReadyForVerificationEvent event, Duration delay) {
+        verificationMetrics.verificationRetried(event.paymentVerification().verificationType());
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            try {
+                eventPublisher.publishEvent(event.toBuilder().attempt(event.attempt() + 1).build());
+            } catch (RejectedExecutionException e) {
+                //The attempt will not run, the payment is verified again from the outbox
+                cancellationRegistry.complete(event.payment().id());
+                rejectedVerificationRetry.retry(event.payment().id(), e);
+            }
+        });
+    }
+
+    private void complete(ReadyForVerificationEvent event, PaymentVerificationStatus status) {
+        try {
+            publishCompleted(event.payment(), event.paymentVerification(), status);
+            continueSequence(event, status);
+        } catch (RejectedExecutionException e) {
+            //Analyzer or runner queue is full, the result is not recorded and the verification is still SCHEDULED
+            rejectedVerificationRetry.retry(event.payment().id(), e);
+        }
+    }
+
+    //SEQUENTIAL strategy: launch the next verification only if the previous one passed, otherwise skip all remaining
+    private void continueSequence(ReadyForVerificationEvent event, PaymentVerificationStatus previousStatus) {
+        List<PaymentVerification> nextVerifications = event.nextVerifications();
+        if (nextVerifications.isEmpty()) {
+            return;
+        }
+        Payment payment = event.payment();
+        if (previousStatus == PaymentVerificationStatus.PASSED) {
+            eventPublisher.publishEvent(ReadyForVerificationEvent.builder()
+                    .payment(payment)
+                    .paymentVerification(nextVerifications.get(0))
+                    .nextVerifications(nextVerifications.subList(1, nextVerifications.size()))
+                    .build());
+        } else {
+            nextVerifications.forEach(skipped -> {
+                logger.info("Skip the {} verification of {} payment after {} result", skipped.verificationType(), payment.id(), previousStatus);
+                cancellationRegistry.complete(payment.id());
+                verificationMetrics.verificationSkippedAfterFailure(skipped.verificationType());
+                publishCompleted(payment, skipped, PaymentVerificationStatus.CANCELLED);
+            });
+        }
+    }
+
+    private void publishCompleted(Payment payment, PaymentVerification paymentVerification, PaymentVerificationStatus status) {
+        eventPublisher.publishEvent(
+                PaymentVerificationCompletedEvent.builder()
+                        .verificationId(paymentVerification.id())
+                        .paymentId(payment.id())
+                        .verificationType(paymentVerification.verificationType())
+                        .verificationResult(status)
+                        .build()
+        );
+    }
+
+    //retryDelay is set when the verification runs again instead of completing with status
+    private record BatchOutcome(PaymentVerificationStatus status, Duration retryDelay) {}
 }
@@ -1,24 +1,36 @@
 package com.zilch.payment.application.verification;
 
+import com.zilch.payment.application.PaymentTracing;
 import com.zilch.payment.application.verification.verifier.FraudPaymentVerifier;
 import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.VerificationConfigProperties;
 import com.zilch.payment.domain.payment.Payment;
-import com.zilch.payment.domain.payment.PaymentCreatedEvent;
 import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.PaymentVerificationProvider;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
+import com.zilch.payment.domain.verification.events.PaymentVerificationsScheduledEvent;
 import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -26,26 +38,89 @@ public class PaymentVerificationScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(FraudPaymentVerifier.class);
 
+    //Optimal order for sequential checks with early exit: highest chance of rejection per unit of cost first
+    private static final Comparator<PaymentVerifier> MOST_REJECTING_PER_COST_FIRST = Comparator
+            .comparingDouble((PaymentVerifier verifier) -> verifier.rejectionProbability() / Math.max(1, verifier.expectedCost().toMillis()))
+            .reversed();
+
     private final PaymentProvider paymentProvider;
     private final PaymentVerificationProvider paymentVerificationProvider;
     private final ApplicationEventPublisher eventPublisher;
     private final List<PaymentVerifier> paymentVerifiers;
+    private final VerificationConfigProperties verificationProperties;
+    private final VerificationCancellationRegistry cancellationRegistry;
+    private final VerificationMetrics verificationMetrics;
+    private final PaymentTracing paymentTracing;
+    //Ids of verifications already handed over of payments deferred after only some of them were, by payment id.
+    //They are not dispatched again when the payment is scheduled again, they are still queued or running.
+    private final Map<String, Set<Long>> handedOver = new ConcurrentHashMap<>();
+
+    //Verifications of all given payments are inserted with one saveAll, a failing payment is rejected without affecting the others.
+    //Payments that already have verifications (handed over again after a crash) resume the ones still SCHEDULED.
+    //Returns payments not handed over because verification executors are full, they should be scheduled again later.
+    public List<Payment> schedule(List<Payment> payments) {
+        return schedule(payments, Map.of());
+    }
 
-    @EventListener
-    @Async("verificationSchedulerExecutor")
-    public void scheduleVerifications(PaymentCreatedEvent paymentCreatedEvent) {
-        Payment payment = paymentCreatedEvent.payment();
+    //Every payment is started in its own span, continuing the trace given for it in traceContexts
+    public List<Payment> schedule(List<Payment> payments, Map<String, String> traceContexts) {
+        long startedAt = System.nanoTime();
         try {
-            trySchedule(payment);
-        } catch (Exception e) {
-            logger.error("Cannot schedule payment verifications, reject payment", e);
-            paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+            return scheduleAll(payments, traceContexts);
+        } finally {
+            verificationMetrics.verificationsScheduled(System.nanoTime() - startedAt);
+        }
+    }
+
+    private List<Payment> scheduleAll(List<Payment> payments, Map<String, String> traceContexts) {
+        List<PlannedVerifications> plans = new ArrayList<>();
+        List<PlannedVerifications> resumed = new ArrayList<>();
+        for (Payment payment : payments) {
+            if (payment.paymentStatus().isTerminal) {
+                logger.info("Payment {} is already {}, nothing to schedule", payment.id(), payment.paymentStatus());
+                handedOver.remove(payment.id());
+                continue;
+            }
+            try {
+                if (payment.paymentVerifications().isEmpty()) {
+                    plans.add(plan(payment));
+                } else {
+                    resumed.add(new PlannedVerifications(payment,
+                            verificationProperties.strategyFor(payment.paymentMethod()), payment.paymentVerifications()));
+                }
+            } catch (Exception e) {
+                reject(payment, e);
+            }
         }
+        //Not caught, nothing was started yet and the caller can schedule the same payments again
+        Map<String, List<PaymentVerification>> savedVerifications = save(plans);
+        List<PlannedVerifications> ready = new ArrayList<>(resumed);
+        plans.forEach(plan -> ready.add(new PlannedVerifications(plan.payment(), plan.strategy(),
+                savedVerifications.getOrDefault(plan.payment().id(), List.of()))));
+        for (int i = 0; i < ready.size(); i++) {
+            PlannedVerifications plan = ready.get(i);
+            try {
+                paymentTracing.inPaymentSpan("payment.verification.schedule", plan.payment().id(),
+                        traceContexts.get(plan.payment().id()), () -> start(plan.payment(), plan.verifications(), plan.strategy()));
+            } catch (TaskRejectedException e) {
+                List<Payment> deferred = ready.subList(i, ready.size()).stream().map(PlannedVerifications::payment).toList();
+                logger.warn("Verification executors are full, defer scheduling of {} payments", deferred.size());
+                return deferred;
+            } catch (Exception e) {
+                reject(plan.payment(), e);
+            }
+        }
+        return List.of();
     }
 
-    private void trySchedule(Payment payment) {
-        List<PaymentVerification> verifications = paymentVerifiers.stream()
-                .filter(paymentVerifier -> paymentVerifier.shouldVerify(payment))
+    private PlannedVerifications plan(Payment payment) {
+        VerificationStrategy strategy = verificationProperties.strategyFor(payment.paymentMethod());
+        Stream<PaymentVerifier> applicableVerifiers = paymentVerifiers.stream()
+                .filter(paymentVerifier -> paymentVerifier.shouldVerify(payment));
+        if (strategy == VerificationStrategy.SEQUENTIAL) {
+            applicableVerifiers = applicableVerifiers.sorted(MOST_REJECTING_PER_COST_FIRST);
+        }
+        List<PaymentVerification> verifications = applicableVerifiers
                 .map(PaymentVerifier::type)
                 .map(type -> PaymentVerification.builder()
                         .verificationStatus(PaymentVerificationStatus.SCHEDULED)
@@ -53,18 +128,120 @@ public class PaymentVerificationScheduler {
                         .paymentId(payment.id())
                         .build()
                 )
-                .map(paymentVerificationProvider::save)
                 .toList();
+        return new PlannedVerifications(payment, strategy, verifications);
+    }
+
+    //Saved verifications grouped by payment, in the planned order
+    private Map<String, List<PaymentVerification>> save(List<PlannedVerifications> plans) {
+        List<PaymentVerification> verifications = plans.stream()
+                .flatMap(plan -> plan.verifications().stream())
+                .toList();
+        if (verifications.isEmpty()) {
+            return Map.of();
+        }
+        return paymentVerificationProvider.saveAll(verifications).stream()
+                .collect(Collectors.groupingBy(PaymentVerification::paymentId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    //Completed verifications are not run again, only the SCHEDULED ones are dispatched
+    private void start(Payment payment, List<PaymentVerification> verifications, VerificationStrategy strategy) {
         if (verifications.isEmpty()) {
             logger.info("No verifications should be scheduled for payment: {}", payment.id());
-            paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+            setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+            return;
+        }
+        if (verifications.stream().anyMatch(verification -> verification.verificationStatus() != PaymentVerificationStatus.SCHEDULED
+                && verification.verificationStatus() != PaymentVerificationStatus.PASSED)) {
+            logger.info("Payment {} has a verification that did not pass, reject payment", payment.id());
+            setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+            return;
+        }
+        List<PaymentVerification> scheduled = verifications.stream()
+                .filter(verification -> verification.verificationStatus() == PaymentVerificationStatus.SCHEDULED)
+                .toList();
+        if (scheduled.isEmpty()) {
+            handedOver.remove(payment.id());
+            logger.info("All verifications of payment {} passed, accept payment", payment.id());
+            setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+            return;
+        }
+        Set<Long> alreadyHandedOver = handedOver.remove(payment.id());
+        if (alreadyHandedOver != null) {
+            //The payment is VERIFYING since its first dispatch, the rest of its verifications join those still running
+            List<PaymentVerification> remaining = scheduled.stream()
+                    .filter(verification -> !alreadyHandedOver.contains(verification.id()))
+                    .toList();
+            logger.info("Dispatch {} verifications of payment {} left over by the previous dispatch", remaining.size(), payment.id());
+            if (!remaining.isEmpty()) {
+                cancellationRegistry.track(payment.id(), remaining.size());
+                dispatch(payment, remaining, strategy, alreadyHandedOver);
+            }
+            return;
+        }
+        if (scheduled.size() < verifications.size()) {
+            logger.info("Resume {} of {} verifications of payment {}", scheduled.size(), verifications.size(), payment.id());
+        }
+        //Status goes first, so a fast verification result cannot be overwritten by VERIFYING
+        setPaymentStatus(payment.id(), PaymentStatus.VERIFYING);
+        cancellationRegistry.track(payment.id(), scheduled.size());
+        dispatch(payment, scheduled, strategy, Set.of());
+    }
+
+    private void reject(Payment payment, Exception e) {
+        logger.error("Cannot schedule payment verifications, reject payment", e);
+        setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+    }
+
+    private void setPaymentStatus(String paymentId, PaymentStatus paymentStatus) {
+        paymentProvider.setPaymentStatus(paymentId, paymentStatus);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(paymentId, paymentStatus));
+    }
+
+    //A rejected verification defers the payment, verifications handed over before it are remembered, so scheduling
+    //the payment again dispatches only the rest
+    private void dispatch(Payment payment, List<PaymentVerification> verifications, VerificationStrategy strategy,
+                          Set<Long> alreadyHandedOver) {
+        if (verificationProperties.getMode() == VerificationConfigProperties.VerificationMode.COORDINATED) {
+            logger.info("Schedule {} {} coordinated verifications for the payment: {}", verifications.size(), strategy, payment.id());
+            publish(payment, verifications.size(), alreadyHandedOver, PaymentVerificationsScheduledEvent.builder()
+                    .payment(payment)
+                    .paymentVerifications(verifications)
+                    .strategy(strategy)
+                    .build());
+        } else if (strategy == VerificationStrategy.SEQUENTIAL) {
+            PaymentVerification first = verifications.get(0);
+            logger.info("Schedule the {} verification for the payment: {}, {} more to follow if it passes",
+                    first.verificationType(), first.paymentId(), verifications.size() - 1);
+            publish(payment, verifications.size(), alreadyHandedOver, ReadyForVerificationEvent.builder()
+                    .paymentVerification(first)
+                    .payment(payment)
+                    .nextVerifications(verifications.subList(1, verifications.size()))
+                    .build());
         } else {
-            verifications.forEach(verification -> {
+            Set<Long> handedOverBefore = new HashSet<>(alreadyHandedOver);
+            for (int i = 0; i < verifications.size(); i++) {
+                PaymentVerification verification = verifications.get(i);
                 logger.info("Schedule the {} verification for the payment: {}", verification.verificationType(), verification.paymentId());
-                eventPublisher.publishEvent(ReadyForVerificationEvent.builder().paymentVerification(verification).payment(payment).build());
-            });
-            paymentProvider.setPaymentStatus(payment.id(), PaymentStatus.VERIFYING);
+                publish(payment, verifications.size() - i, handedOverBefore,
+                        ReadyForVerificationEvent.builder().paymentVerification(verification).payment(payment).build());
+                handedOverBefore.add(verification.id());
+            }
+        }
+    }
+
+    //notHandedOver is the number of verifications the event and the events after it hand over
+    private void publish(Payment payment, int notHandedOver, Set<Long> handedOverBefore, Object event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (TaskRejectedException e) {
+            cancellationRegistry.untrack(payment.id(), notHandedOver);
+            if (!handedOverBefore.isEmpty()) {
+                handedOver.put(payment.id(), handedOverBefore);
+            }
+            throw e;
         }
     }
 
+    private record PlannedVerifications(Payment payment, VerificationStrategy strategy, List<PaymentVerification> verifications) {}
 }
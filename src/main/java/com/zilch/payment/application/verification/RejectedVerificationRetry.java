@@ -0,0 +1,51 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.payment.PaymentOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+//Verification work rejected by a full executor is not lost: the payment goes back to the outbox and the relay
+//resumes it later, dispatching again only the verifications still SCHEDULED.
+//Payments whose results could not be recorded are resumed the same way.
+@Component
+public class RejectedVerificationRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RejectedVerificationRetry.class);
+
+    private final PaymentOutbox paymentOutbox;
+    private final Counter retried;
+
+    public RejectedVerificationRetry(PaymentOutbox paymentOutbox, MeterRegistry meterRegistry) {
+        this.paymentOutbox = paymentOutbox;
+        this.retried = Counter.builder("payment.verification.retried")
+                .description("Payments sent back to the outbox after their verification work was rejected or failed")
+                .register(meterRegistry);
+    }
+
+    public void retry(String paymentId, RejectedExecutionException rejection) {
+        logger.warn("Verification work of {} payment rejected, retry it through the outbox: {}", paymentId, rejection.getMessage());
+        addToOutbox(paymentId);
+    }
+
+    //Results not written or payment not decided because of a failure, e.g. of the DB
+    public void retryFailed(String paymentId, Throwable failure) {
+        logger.error("Cannot record verification results of {} payment, retry it through the outbox", paymentId, failure);
+        addToOutbox(paymentId);
+    }
+
+    private void addToOutbox(String paymentId) {
+        try {
+            paymentOutbox.addIfAbsent(List.of(paymentId));
+            retried.increment();
+        } catch (RuntimeException e) {
+            //Still resumed by the startup recovery
+            logger.error("Cannot add {} payment back to the outbox", paymentId, e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.ReadyForBatchVerificationEvent;
+import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Collects verifications of the types listed in spring.verification.batching and hands them to the runner as one
+//ReadyForBatchVerificationEvent once maxBatchSize of them are waiting, or maxDelay after the first one was collected
+@Component
+public class VerificationBatcher {
+
+    private final Map<VerificationType, PendingBatch> batches = new EnumMap<>(VerificationType.class);
+    private final ApplicationEventPublisher eventPublisher;
+    private final VerificationCancellationRegistry cancellationRegistry;
+    private final RejectedVerificationRetry rejectedVerificationRetry;
+    private final ScheduledExecutorService timer;
+
+    public VerificationBatcher(VerificationConfigProperties verificationProperties,
+                               ApplicationEventPublisher eventPublisher,
+                               VerificationCancellationRegistry cancellationRegistry,
+                               RejectedVerificationRetry rejectedVerificationRetry) {
+        this.eventPublisher = eventPublisher;
+        this.cancellationRegistry = cancellationRegistry;
+        this.rejectedVerificationRetry = rejectedVerificationRetry;
+        verificationProperties.getBatching().forEach((type, properties) -> {
+            if (properties.isEnabled()) {
+                batches.put(type, new PendingBatch(type, properties));
+            }
+        });
+        this.timer = batches.isEmpty()
+                ? null
+                : Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "verification-batcher"));
+    }
+
+    //Returns false when verifications of this type are not batched and have to be run one by one
+    public boolean add(ReadyForVerificationEvent event) {
+        PendingBatch batch = batches.get(event.paymentVerification().verificationType());
+        if (batch == null) {
+            return false;
+        }
+        List<ReadyForVerificationEvent> full;
+        synchronized (batch) {
+            batch.verifications.add(event);
+            if (batch.verifications.size() == 1) {
+                List<ReadyForVerificationEvent> scheduled = batch.verifications;
+                timer.schedule(() -> flushIfPending(batch, scheduled), batch.properties.getMaxDelay().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (batch.verifications.size() < batch.properties.getMaxBatchSize()) {
+                return true;
+            }
+            full = batch.take();
+        }
+        dispatch(batch.type, full);
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        batches.values().forEach(batch -> {
+            List<ReadyForVerificationEvent> pending;
+            synchronized (batch) {
+                pending = batch.take();
+            }
+            if (!pending.isEmpty()) {
+                dispatch(batch.type, pending);
+            }
+        });
+    }
+
+    //Skipped when the batch the timer was set for has already been dispatched full
+    private void flushIfPending(PendingBatch batch, List<ReadyForVerificationEvent> scheduled) {
+        List<ReadyForVerificationEvent> pending;
+        synchronized (batch) {
+            if (batch.verifications != scheduled) {
+                return;
+            }
+            pending = batch.take();
+        }
+        dispatch(batch.type, pending);
+    }
+
+    private void dispatch(VerificationType type, List<ReadyForVerificationEvent> verifications) {
+        try {
+            eventPublisher.publishEvent(ReadyForBatchVerificationEvent.builder()
+                    .verificationType(type)
+                    .verifications(verifications)
+                    .build());
+        } catch (RejectedExecutionException e) {
+            //Runner queue is full, the verifications are still SCHEDULED and are verified again from the outbox
+            verifications.forEach(verification -> {
+                cancellationRegistry.complete(verification.payment().id());
+                rejectedVerificationRetry.retry(verification.payment().id(), e);
+            });
+        }
+    }
+
+    private static class PendingBatch {
+        private final VerificationType type;
+        private final VerificationConfigProperties.Batching properties;
+        //Guarded by this
+        private List<ReadyForVerificationEvent> verifications = new ArrayList<>();
+
+        private PendingBatch(VerificationType type, VerificationConfigProperties.Batching properties) {
+            this.type = type;
+            this.properties = properties;
+        }
+
+        private List<ReadyForVerificationEvent> take() {
+            List<ReadyForVerificationEvent> taken = verifications;
+            verifications = new ArrayList<>();
+            return taken;
+        }
+    }
+}
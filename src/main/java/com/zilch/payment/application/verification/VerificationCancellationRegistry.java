@@ -0,0 +1,122 @@
+package com.zilch.payment.application.verification;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Keeps track of verifications of payments in progress, so once a payment is decided
+//its queued verifications are skipped and the running ones are interrupted.
+//A payment is forgotten as soon as all of its verifications are completed.
+@Component
+public class VerificationCancellationRegistry {
+
+    private final Map<String, TrackedPayment> payments = new ConcurrentHashMap<>();
+
+    //Adds to the verifications of the payment still in progress, when it is handed over again before they complete
+    public void track(String paymentId, int verifications) {
+        payments.merge(paymentId, new TrackedPayment(verifications), (tracked, added) -> {
+            synchronized (tracked) {
+                tracked.remaining += added.remaining;
+            }
+            return tracked;
+        });
+    }
+
+    //Tracked verifications that were never handed over to run, they will not complete
+    public void untrack(String paymentId, int verifications) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return;
+        }
+        synchronized (trackedPayment) {
+            trackedPayment.remaining -= verifications;
+            if (trackedPayment.remaining <= 0) {
+                payments.remove(paymentId, trackedPayment);
+            }
+        }
+    }
+
+    //Returns false when the payment is already decided and the verification should not be run
+    public boolean start(String paymentId) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return true;
+        }
+        synchronized (trackedPayment) {
+            if (trackedPayment.cancelled) {
+                return false;
+            }
+            trackedPayment.running.add(Thread.currentThread());
+            return true;
+        }
+    }
+
+    public boolean isCancelled(String paymentId) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return false;
+        }
+        synchronized (trackedPayment) {
+            return trackedPayment.cancelled;
+        }
+    }
+
+    public void complete(String paymentId) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return;
+        }
+        synchronized (trackedPayment) {
+            Thread currentThread = Thread.currentThread();
+            trackedPayment.running.remove(currentThread);
+            if (trackedPayment.interrupted.remove(currentThread)) {
+                //The interruption may arrive after the verifier returned, it must not leak into the next task of a pooled thread
+                Thread.interrupted();
+            }
+            if (--trackedPayment.remaining <= 0) {
+                payments.remove(paymentId, trackedPayment);
+            }
+        }
+    }
+
+    //The verification runs again later, so the payment stays tracked when its current attempt completes
+    public void retry(String paymentId) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return;
+        }
+        synchronized (trackedPayment) {
+            trackedPayment.remaining++;
+        }
+    }
+
+    public void cancel(String paymentId) {
+        TrackedPayment trackedPayment = payments.get(paymentId);
+        if (trackedPayment == null) {
+            return;
+        }
+        synchronized (trackedPayment) {
+            trackedPayment.cancelled = true;
+            trackedPayment.running.forEach(Thread::interrupt);
+            trackedPayment.interrupted.addAll(trackedPayment.running);
+        }
+    }
+
+    int trackedPayments() {
+        return payments.size();
+    }
+
+    private static class TrackedPayment {
+        private final Set<Thread> running = new HashSet<>();
+        private final Set<Thread> interrupted = new HashSet<>();
+        private int remaining;
+        private boolean cancelled;
+
+        private TrackedPayment(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Meters are registered upfront, so recording on the verification hot path does not build tags or look up the registry
+@Component
+public class VerificationMetrics {
+
+    private final Map<VerificationType, Counter> skippedAfterFailure = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> skippedDecidedPayment = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> cacheHits = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> sharedCalls = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> timeSaved = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, DistributionSummary> batchSizes = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> circuitOpen = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> timeouts = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Counter> retries = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, Map<PaymentVerificationStatus, Timer>> verifications = new EnumMap<>(VerificationType.class);
+    private final Timer scheduling;
+    private final Timer analysis;
+
+    public VerificationMetrics(MeterRegistry meterRegistry) {
+        for (VerificationType type : VerificationType.values()) {
+            skippedAfterFailure.put(type, avoidedCallsCounter(meterRegistry, type, "sequential_early_exit"));
+            skippedDecidedPayment.put(type, avoidedCallsCounter(meterRegistry, type, "payment_decided"));
+            cacheHits.put(type, avoidedCallsCounter(meterRegistry, type, "cache_hit"));
+            sharedCalls.put(type, avoidedCallsCounter(meterRegistry, type, "single_flight"));
+            circuitOpen.put(type, avoidedCallsCounter(meterRegistry, type, "circuit_open"));
+            timeouts.put(type, Counter.builder("payment.verification.timeouts")
+                    .description("Verifier calls interrupted after running longer than their timeout")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            retries.put(type, Counter.builder("payment.verification.retries")
+                    .description("Failed verification attempts scheduled to run again")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            timeSaved.put(type, Counter.builder("payment.verification.time.saved")
+                    .description("Verifier call time saved by reusing results of other payments")
+                    .baseUnit("seconds")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            batchSizes.put(type, DistributionSummary.builder("payment.verification.batch.size")
+                    .description("Payments verified by one call of a batch verifier")
+                    .tag("type", type.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Map<PaymentVerificationStatus, Timer> outcomes = new EnumMap<>(PaymentVerificationStatus.class);
+            for (PaymentVerificationStatus status : PaymentVerificationStatus.values()) {
+                if (status == PaymentVerificationStatus.SCHEDULED) {
+                    continue;
+                }
+                outcomes.put(status, Timer.builder("payment.verification.duration")
+                        .description("Verifier call duration by outcome")
+                        .tag("type", type.name())
+                        .tag("outcome", status.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            verifications.put(type, outcomes);
+        }
+        this.scheduling = Timer.builder("payment.verification.scheduling")
+                .description("Time to plan, save and dispatch verifications of a batch of payments")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.analysis = Timer.builder("payment.verification.analysis")
+                .description("Time to record verification results and decide the payment")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void verificationCompleted(VerificationType type, PaymentVerificationStatus outcome, long durationNanos) {
+        verifications.get(type).get(outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void verificationsBatched(VerificationType type, int payments) {
+        batchSizes.get(type).record(payments);
+    }
+
+    public void verificationsScheduled(long durationNanos) {
+        scheduling.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void resultsAnalyzed(long durationNanos) {
+        analysis.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //A SEQUENTIAL verification not launched because an earlier one did not pass
+    public void verificationSkippedAfterFailure(VerificationType type) {
+        skippedAfterFailure.get(type).increment();
+    }
+
+    //A verification not run because its payment had already been decided
+    public void verificationSkippedForDecidedPayment(VerificationType type) {
+        skippedDecidedPayment.get(type).increment();
+    }
+
+    //A verifier result reused from VerificationResultCache, shared when it was taken from a call still in progress
+    public void verificationReused(VerificationType type, boolean shared, long savedNanos) {
+        (shared ? sharedCalls : cacheHits).get(type).increment();
+        timeSaved.get(type).increment(savedNanos / 1_000_000_000.0);
+    }
+
+    //A verifier call failed fast because the circuit breaker of the verifier is open
+    public void verifierCallRejected(VerificationType type) {
+        circuitOpen.get(type).increment();
+    }
+
+    public void verifierTimedOut(VerificationType type) {
+        timeouts.get(type).increment();
+    }
+
+    public void verificationRetried(VerificationType type) {
+        retries.get(type).increment();
+    }
+
+    private static Counter avoidedCallsCounter(MeterRegistry meterRegistry, VerificationType type, String reason) {
+        return Counter.builder("payment.verifications.avoided")
+                .description("Verifier calls avoided")
+                .tag("type", type.name())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
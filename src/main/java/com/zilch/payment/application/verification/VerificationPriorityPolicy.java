@@ -0,0 +1,11 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.payment.Payment;
+
+import java.time.Duration;
+
+//How far ahead of verifications queued at the same time the verifications of a payment start on runner pools
+//with queueOrder PRIORITY. Time in the queue counts as much as head start, which keeps low priority payments from starving
+public interface VerificationPriorityPolicy {
+    Duration headStart(Payment payment);
+}
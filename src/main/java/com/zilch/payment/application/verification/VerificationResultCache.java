@@ -0,0 +1,104 @@
+package com.zilch.payment.application.verification;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+//Results of verifier calls by the key the verifier derives from a payment (PaymentVerifier.cacheKey), per verification type.
+//Verifications with the same key running at the same time share one call (single flight), later ones reuse its result
+//until it expires: PASSED results after ttl, FAILED and ERROR after negativeTtl (not kept by default). Calls that threw are never kept.
+@Component
+public class VerificationResultCache {
+
+    private final Map<VerificationType, AsyncCache<String, CachedResult>> caches = new EnumMap<>(VerificationType.class);
+    private final VerificationMetrics verificationMetrics;
+
+    public VerificationResultCache(VerificationConfigProperties verificationProperties, VerificationMetrics verificationMetrics) {
+        this.verificationMetrics = verificationMetrics;
+        verificationProperties.getResultCache().forEach((type, properties) -> {
+            if (properties.isEnabled()) {
+                caches.put(type, Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxSize())
+                        .expireAfter(new ResultExpiry(properties.getTtl(), properties.getNegativeTtl()))
+                        .buildAsync());
+            }
+        });
+    }
+
+    //call runs the verifier, it is skipped when a result of the same key is cached or being computed
+    public PaymentVerificationStatus verify(PaymentVerifier verifier, Payment payment, Supplier<PaymentVerificationStatus> call) {
+        AsyncCache<String, CachedResult> cache = caches.get(verifier.type());
+        Optional<String> key = cache == null ? Optional.empty() : verifier.cacheKey(payment);
+        if (key.isEmpty()) {
+            return call.get();
+        }
+        CompletableFuture<CachedResult> result = new CompletableFuture<>();
+        CompletableFuture<CachedResult> existing = cache.asMap().putIfAbsent(key.get(), result);
+        if (existing == null) {
+            return callAndComplete(call, result);
+        }
+        boolean shared = !existing.isDone();
+        long startedAt = System.nanoTime();
+        CachedResult cached;
+        try {
+            cached = existing.get();
+        } catch (ExecutionException | CancellationException e) {
+            //The call shared with another payment threw, e.g. it was interrupted when that payment was decided
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the " + verifier.type() + " result of another payment", e);
+        }
+        long waited = System.nanoTime() - startedAt;
+        verificationMetrics.verificationReused(verifier.type(), shared, Math.max(0, cached.durationNanos() - waited));
+        return cached.status();
+    }
+
+    private static PaymentVerificationStatus callAndComplete(Supplier<PaymentVerificationStatus> call, CompletableFuture<CachedResult> result) {
+        long startedAt = System.nanoTime();
+        try {
+            PaymentVerificationStatus status = call.get();
+            result.complete(new CachedResult(status, System.nanoTime() - startedAt));
+            return status;
+        } catch (Throwable e) {
+            //Removes the entry, the next payment with this key calls the verifier again
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private record CachedResult(PaymentVerificationStatus status, long durationNanos) {}
+
+    private record ResultExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, CachedResult> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResult result, long currentTime) {
+            return (result.status() == PaymentVerificationStatus.PASSED ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResult result, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResult result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
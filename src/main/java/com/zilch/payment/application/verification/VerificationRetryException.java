@@ -0,0 +1,17 @@
+package com.zilch.payment.application.verification;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+//A verification attempt failed and is to be run again after delay
+@Getter
+public class VerificationRetryException extends RuntimeException {
+
+    private final Duration delay;
+
+    public VerificationRetryException(String message, Duration delay, Throwable cause) {
+        super(message, cause);
+        this.delay = delay;
+    }
+}
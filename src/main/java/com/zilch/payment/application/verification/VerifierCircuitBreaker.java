@@ -0,0 +1,96 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+
+import java.util.function.LongSupplier;
+
+//Count based circuit breaker of one verifier. CLOSED lets every call through and opens when the failure rate of the last
+//slidingWindowSize calls reaches the threshold. OPEN fails calls fast for openDuration, then HALF_OPEN lets halfOpenCalls
+//trial calls through: all of them succeeding closes the circuit, any failure opens it again.
+class VerifierCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final VerificationConfigProperties.CircuitBreaker properties;
+    private final LongSupplier nanoClock;
+
+    //Guarded by this
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    VerifierCircuitBreaker(VerificationConfigProperties.CircuitBreaker properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= properties.getOpenDuration().toNanos()) {
+            state = State.HALF_OPEN;
+            trialPermits = properties.getHalfOpenCalls();
+            trialSuccesses = 0;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> trialPermits-- > 0;
+        };
+    }
+
+    synchronized void record(boolean failed) {
+        switch (state) {
+            case CLOSED -> {
+                if (windowCalls == window.length) {
+                    windowFailures -= window[windowIndex] ? 1 : 0;
+                } else {
+                    windowCalls++;
+                }
+                window[windowIndex] = failed;
+                windowFailures += failed ? 1 : 0;
+                windowIndex = (windowIndex + 1) % window.length;
+                if (windowCalls >= properties.getMinimumCalls()
+                        && windowFailures >= properties.getFailureRateThreshold() * windowCalls) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> {
+                if (failed) {
+                    open();
+                } else if (++trialSuccesses >= properties.getHalfOpenCalls()) {
+                    state = State.CLOSED;
+                }
+            }
+            //Calls started before the circuit opened
+            case OPEN -> {
+            }
+        }
+    }
+
+    //A call let through that is not recorded, e.g. interrupted because its payment was decided. Its trial permit is
+    //given back, otherwise HALF_OPEN could never collect halfOpenCalls successes and would fail calls for good
+    synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialPermits = Math.min(trialPermits + 1, properties.getHalfOpenCalls() - trialSuccesses);
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+}
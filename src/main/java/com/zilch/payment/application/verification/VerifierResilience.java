@@ -0,0 +1,147 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//Guards calls of the verifiers listed in spring.verification.resilience: a call running longer than timeout is interrupted,
+//calls fail fast while the circuit breaker of the verifier is open, and retryDelay() tells when a failed attempt runs again.
+//Verifiers not listed are called as they are and never retried.
+@Component
+public class VerifierResilience {
+
+    private final Map<VerificationType, VerificationConfigProperties.Resilience> properties = new EnumMap<>(VerificationType.class);
+    private final Map<VerificationType, VerifierCircuitBreaker> circuitBreakers = new EnumMap<>(VerificationType.class);
+    private final VerificationMetrics verificationMetrics;
+    private final ScheduledThreadPoolExecutor deadlines;
+
+    public VerifierResilience(VerificationConfigProperties verificationProperties,
+                              VerificationMetrics verificationMetrics,
+                              MeterRegistry meterRegistry) {
+        this.verificationMetrics = verificationMetrics;
+        this.properties.putAll(verificationProperties.getResilience());
+        properties.forEach((type, resilience) -> {
+            if (resilience.getCircuitBreaker().isEnabled()) {
+                VerifierCircuitBreaker circuitBreaker = new VerifierCircuitBreaker(resilience.getCircuitBreaker(), System::nanoTime);
+                circuitBreakers.put(type, circuitBreaker);
+                Gauge.builder("payment.verifier.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                        .description("Circuit breaker state of the verifier: 0 - closed, 1 - open, 2 - half open")
+                        .tag("type", type.name())
+                        .register(meterRegistry);
+            }
+        });
+        this.deadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "verifier-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //Most calls finish in time, their deadlines must not pile up in the queue
+        deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    public <T> T call(VerificationType type, Supplier<T> call) {
+        VerificationConfigProperties.Resilience resilience = properties.get(type);
+        if (resilience == null) {
+            return call.get();
+        }
+        VerifierCircuitBreaker circuitBreaker = circuitBreakers.get(type);
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            verificationMetrics.verifierCallRejected(type);
+            throw new VerifierUnavailableException(type);
+        }
+        Deadline deadline = new Deadline(Thread.currentThread());
+        ScheduledFuture<?> timeout = deadlines.schedule(deadline::expire, resilience.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        boolean failed = true;
+        boolean counted = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } catch (Throwable e) {
+            if (deadline.expired()) {
+                verificationMetrics.verifierTimedOut(type);
+                throw new VerifierTimeoutException(type, resilience.getTimeout(), e);
+            }
+            //Interrupted by someone else, e.g. the payment was decided, it says nothing about the verifier
+            counted = !(e instanceof InterruptedException);
+            throw e;
+        } finally {
+            timeout.cancel(false);
+            if (deadline.finish()) {
+                //The interruption may arrive after the verifier returned, it must not leak into the next task of a pooled thread
+                Thread.interrupted();
+            }
+            if (circuitBreaker != null) {
+                if (counted) {
+                    circuitBreaker.record(failed);
+                } else {
+                    circuitBreaker.release();
+                }
+            }
+        }
+    }
+
+    //Delay before the next attempt after the given one failed, empty when it is the last one. Attempts count from 1.
+    //Full jitter: the delay is random up to the exponential backoff, so payments failed together are not retried together
+    public Optional<Duration> retryDelay(VerificationType type, int attempt) {
+        VerificationConfigProperties.Resilience resilience = properties.get(type);
+        if (resilience == null || attempt >= resilience.getRetry().getMaxAttempts()) {
+            return Optional.empty();
+        }
+        VerificationConfigProperties.Retry retry = resilience.getRetry();
+        double backoff = Math.min(retry.getMaxBackoff().toNanos(),
+                retry.getInitialBackoff().toNanos() * Math.pow(retry.getMultiplier(), attempt - 1));
+        return Optional.of(Duration.ofNanos(ThreadLocalRandom.current().nextLong((long) backoff + 1)));
+    }
+
+    VerifierCircuitBreaker.State circuitState(VerificationType type) {
+        VerifierCircuitBreaker circuitBreaker = circuitBreakers.get(type);
+        return circuitBreaker == null ? VerifierCircuitBreaker.State.CLOSED : circuitBreaker.state();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    private static class Deadline {
+        private final Thread thread;
+        //Guarded by this
+        private boolean finished;
+        private boolean expired;
+
+        private Deadline(Thread thread) {
+            this.thread = thread;
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        private synchronized boolean expired() {
+            return expired;
+        }
+
+        //Returns true when the call was interrupted because of the deadline
+        private synchronized boolean finish() {
+            finished = true;
+            return expired;
+        }
+    }
+}
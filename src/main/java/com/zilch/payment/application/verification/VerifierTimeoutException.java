@@ -0,0 +1,11 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.verification.enums.VerificationType;
+
+import java.time.Duration;
+
+public class VerifierTimeoutException extends RuntimeException {
+    public VerifierTimeoutException(VerificationType type, Duration timeout, Throwable cause) {
+        super("The " + type + " verifier did not respond within " + timeout, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.verification.enums.VerificationType;
+
+public class VerifierUnavailableException extends RuntimeException {
+    public VerifierUnavailableException(VerificationType type) {
+        super("The " + type + " verifier circuit breaker is open, the call was not attempted");
+    }
+}
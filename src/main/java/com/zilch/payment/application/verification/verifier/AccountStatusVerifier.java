@@ -3,18 +3,23 @@ package com.zilch.payment.application.verification.verifier;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Duration;
+import java.util.Optional;
 
 @Component
+@AllArgsConstructor
 public class AccountStatusVerifier implements PaymentVerifier {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountStatusVerifier.class);
 
+    private final SimulatedWork simulatedWork;
+
     @Override
     public VerificationType type() {
         return VerificationType.ACCOUNT_STATUS_CHECK;
@@ -25,13 +30,29 @@ public class AccountStatusVerifier implements PaymentVerifier {
         return true;
     }
 
+    @Override
+    public Duration expectedCost() {
+        return simulatedWork.mean();
+    }
+
+    @Override
+    public double rejectionProbability() {
+        return 0.01;
+    }
+
+    //Status of the merchant account, the same for all its payments
+    @Override
+    public Optional<String> cacheKey(Payment payment) {
+        return Optional.of(payment.merchant());
+    }
+
     @SneakyThrows
     @Override
     public PaymentVerificationStatus verify(Payment payment) {
         logger.info("Run account status payment verification for {} payment", payment.id());
         //All accounts are fine, but in a real env we can make some api calls here to verify an account in another ms
         //Work simulation
-        Thread.sleep(ThreadLocalRandom.current().nextLong(50, 1001));
+        simulatedWork.perform();
         //An exception can simulate unavailability of some external api
         /*if (new Random().nextBoolean()) {
             throw new RuntimeException("Processing error");
@@ -0,0 +1,18 @@
+package com.zilch.payment.application.verification.verifier;
+
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+
+import java.util.List;
+
+//Verifier backed by a service that takes many payments per call, the runner may collect verifications of its type into batches
+public interface BatchPaymentVerifier extends PaymentVerifier {
+
+    //One status per payment, in the order of payments
+    List<PaymentVerificationStatus> verifyAll(List<Payment> payments);
+
+    @Override
+    default PaymentVerificationStatus verify(Payment payment) {
+        return verifyAll(List.of(payment)).getFirst();
+    }
+}
@@ -3,18 +3,23 @@ package com.zilch.payment.application.verification.verifier;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Duration;
+import java.util.List;
 
 @Component
-public class CreditLimitPaymentVerifier implements PaymentVerifier {
+@AllArgsConstructor
+public class CreditLimitPaymentVerifier implements BatchPaymentVerifier {
 
     private static final Logger logger = LoggerFactory.getLogger(CreditLimitPaymentVerifier.class);
 
+    private final SimulatedWork simulatedWork;
+
     @Override
     public VerificationType type() {
         return VerificationType.CREDIT_LIMIT_CHECK;
@@ -25,13 +30,23 @@ public class CreditLimitPaymentVerifier implements PaymentVerifier {
         return payment.paymentMethod().isPayLaterMethod;
     }
 
+    @Override
+    public Duration expectedCost() {
+        return simulatedWork.mean();
+    }
+
+    @Override
+    public double rejectionProbability() {
+        return 0.05;
+    }
+
     @SneakyThrows
     @Override
-    public PaymentVerificationStatus verify(Payment payment) {
-        logger.info("Run credit limit payment verification for {} payment", payment.id());
-        //Work simulation
-        Thread.sleep(ThreadLocalRandom.current().nextLong(50, 1001));
-        return PaymentVerificationStatus.PASSED;
+    public List<PaymentVerificationStatus> verifyAll(List<Payment> payments) {
+        logger.info("Run credit limit payment verification for {} payments: {}", payments.size(), payments.stream().map(Payment::id).toList());
+        //Work simulation, one call checks all payments
+        simulatedWork.perform(payments.size());
+        return payments.stream().map(payment -> PaymentVerificationStatus.PASSED).toList();
     }
 
 }
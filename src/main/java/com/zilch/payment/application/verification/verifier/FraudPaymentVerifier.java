@@ -1,5 +1,6 @@
 package com.zilch.payment.application.verification.verifier;
 
+import com.zilch.payment.domain.money.Conversion;
 import com.zilch.payment.domain.money.CurrencyConversion;
 import com.zilch.payment.domain.money.Money;
 import com.zilch.payment.domain.payment.Payment;
@@ -13,14 +14,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 @AllArgsConstructor
-public class FraudPaymentVerifier implements PaymentVerifier {
+public class FraudPaymentVerifier implements BatchPaymentVerifier {
 
     private static final Logger logger = LoggerFactory.getLogger(FraudPaymentVerifier.class);
+    //Exchange rates behind every converted fraud check decision, rates can be reloaded at any time
+    private static final Logger ratesAuditLogger = LoggerFactory.getLogger("com.zilch.payment.audit.exchangeRates");
 
     private final static Money CURRENCY_THRESHOLD = Money.builder()
             .currency(Currency.EUR)
@@ -28,6 +32,7 @@ public class FraudPaymentVerifier implements PaymentVerifier {
             .build();
 
     private final CurrencyConversion currencyConversion;
+    private final SimulatedWork simulatedWork;
 
     @Override
     public VerificationType type() {
@@ -37,22 +42,44 @@ public class FraudPaymentVerifier implements PaymentVerifier {
     @Override
     public boolean shouldVerify(Payment payment) {
         if (payment.paymentMethod().isPayLaterMethod) {
-            Money paymentInEur = currencyConversion.convert(payment.money(), Currency.EUR);
-            return paymentInEur.isGreaterThan(CURRENCY_THRESHOLD);
+            Conversion paymentInEur = currencyConversion.conversion(payment.money(), Currency.EUR);
+            boolean overThreshold = paymentInEur.money().isGreaterThan(CURRENCY_THRESHOLD);
+            String required = overThreshold ? "required" : "not required";
+            if (paymentInEur.ratesVersion() != null) {
+                ratesAuditLogger.info("Fraud check {} for {} payment of {} EUR, exchange rates {} of {}", required, payment.id(),
+                        paymentInEur.money().amount(), paymentInEur.ratesVersion(), paymentInEur.ratesTimestamp());
+            } else {
+                //Payment already in EUR, debug only, it runs for every pay later payment
+                logger.debug("Fraud check {} for {} payment of {} EUR", required, payment.id(), paymentInEur.money().amount());
+            }
+            return overThreshold;
         } else {
             return false;
         }
     }
 
+    @Override
+    public Duration expectedCost() {
+        return simulatedWork.mean();
+    }
+
+    @Override
+    public double rejectionProbability() {
+        return 0.5;
+    }
+
     @SneakyThrows
     @Override
-    public PaymentVerificationStatus verify(Payment payment) {
-        logger.info("Run fraud payment verification for {} payment", payment.id());
-        //Work simulation
-        Thread.sleep(ThreadLocalRandom.current().nextLong(50, 1001));
-        return new Random().nextBoolean()
-                ? PaymentVerificationStatus.PASSED
-                : PaymentVerificationStatus.FAILED;
+    public List<PaymentVerificationStatus> verifyAll(List<Payment> payments) {
+        logger.info("Run fraud payment verification for {} payments: {}", payments.size(), payments.stream().map(Payment::id).toList());
+        //Work simulation, one call checks all payments
+        simulatedWork.perform(payments.size());
+        Random random = new Random();
+        return payments.stream()
+                .map(payment -> random.nextBoolean()
+                        ? PaymentVerificationStatus.PASSED
+                        : PaymentVerificationStatus.FAILED)
+                .toList();
     }
 
 }
@@ -4,9 +4,26 @@ import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
 
+import java.time.Duration;
+import java.util.Optional;
+
 public interface PaymentVerifier {
     VerificationType type();
     boolean shouldVerify(Payment payment);
     PaymentVerificationStatus verify(Payment payment);
-}
 
+    //Expected duration of a single verify() call, used to order SEQUENTIAL verifications
+    default Duration expectedCost() {
+        return Duration.ofMillis(500);
+    }
+
+    //Likelihood of verify() not returning PASSED, used to order SEQUENTIAL verifications
+    default double rejectionProbability() {
+        return 0.0;
+    }
+
+    //Payments with equal keys get the same verify() result, so it can be reused between them. Empty when it cannot
+    default Optional<String> cacheKey(Payment payment) {
+        return Optional.empty();
+    }
+}
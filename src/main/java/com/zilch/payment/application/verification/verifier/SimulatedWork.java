@@ -0,0 +1,33 @@
+package com.zilch.payment.application.verification.verifier;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Stands in for the calls verifiers would make to other services, takes a random time
+//between spring.verification.simulatedDelay.min and max, plus perPayment for every payment of a batch call
+@Component
+@AllArgsConstructor
+public class SimulatedWork {
+
+    private final VerificationConfigProperties properties;
+
+    public void perform() throws InterruptedException {
+        VerificationConfigProperties.SimulatedDelay delay = properties.getSimulatedDelay();
+        Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(delay.getMin().toNanos(), delay.getMax().toNanos() + 1)));
+    }
+
+    //One call for all payments, the call overhead is paid once
+    public void perform(int payments) throws InterruptedException {
+        perform();
+        Thread.sleep(properties.getSimulatedDelay().getPerPayment().multipliedBy(payments));
+    }
+
+    public Duration mean() {
+        VerificationConfigProperties.SimulatedDelay delay = properties.getSimulatedDelay();
+        return delay.getMin().plus(delay.getMax()).dividedBy(2);
+    }
+}
@@ -0,0 +1,29 @@
+package com.zilch.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.admission")
+public class AdmissionConfigProperties {
+    //Disabled - every payment is accepted, however long the verification backlog is
+    private boolean enabled = true;
+    //Payments created and not decided yet, the limit adapts between minLimit and maxLimit
+    private int initialLimit = 1000;
+    private int minLimit = 50;
+    private int maxLimit = 20_000;
+    //Payments decided slower than this shrink the limit
+    private Duration targetDecisionLatency = Duration.ofSeconds(5);
+    //Limit is multiplied by this on congestion
+    private double backoffRatio = 0.9;
+    //Verification executor queues filled above this share shed new payments right away
+    private double maxQueueUtilization = 0.8;
+    //Payments not decided within this time stop counting as in flight
+    private Duration decisionTimeout = Duration.ofMinutes(1);
+    //Sent in the Retry-After header of rejected requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -1,13 +1,27 @@
 package com.zilch.payment.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.tracing.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.CompositeTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @EnableAsync
 @Configuration
@@ -17,28 +31,98 @@ public class AsyncThreadPoolsConfig {
     @Autowired
     private ThreadPoolConfigProperties threadPoolProperties;
 
-    @Bean(name = "verificationSchedulerExecutor")
-    public Executor verificationSchedulerExecutor() {
-        return createExecutor(threadPoolProperties.getVerificationScheduler());
+    @Bean(name = "verificationRunnerExecutor")
+    public Executor verificationRunnerExecutor(MeterRegistry meterRegistry, Tracer tracer) {
+        return createExecutor("verificationRunner", threadPoolProperties.getVerificationRunner(), meterRegistry, tracer);
     }
 
-    @Bean(name = "verificationRunnerExecutor")
-    public Executor verificationRunnerExecutor() {
-        return createExecutor(threadPoolProperties.getVerificationRunner());
+    @Bean(destroyMethod = "shutdown")
+    public VerificationBulkheads verificationBulkheads(@Qualifier("verificationRunnerExecutor") Executor verificationRunnerExecutor,
+                                                       MeterRegistry meterRegistry, Tracer tracer) {
+        return new VerificationBulkheads(verificationRunnerExecutor, threadPoolProperties, meterRegistry, tracer);
     }
 
     @Bean(name = "verificationAnalyzerExecutor")
-    public Executor verificationAnalyzerExecutor() {
-        return createExecutor(threadPoolProperties.getVerificationAnalyzer());
+    public Executor verificationAnalyzerExecutor(MeterRegistry meterRegistry, Tracer tracer) {
+        return createExecutor("verificationAnalyzer", threadPoolProperties.getVerificationAnalyzer(), meterRegistry, tracer);
+    }
+
+    @Bean(name = "statusStreamExecutor")
+    public Executor statusStreamExecutor(MeterRegistry meterRegistry, Tracer tracer) {
+        return createExecutor("statusStreams", threadPoolProperties.getStatusStreams(), meterRegistry, tracer);
     }
 
-    private Executor createExecutor(ThreadPoolConfigProperties.ThreadPoolProperties properties) {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    //Pools are tagged with name=<pool> in executor.* metrics (queue size, active threads, task wait and execution time),
+    //traced tasks run in a span named after the pool
+    public static Executor createExecutor(String name, ThreadPoolConfigProperties.ThreadPoolProperties properties,
+                                   MeterRegistry meterRegistry, Tracer tracer) {
+        TaskDecorator taskDecorator = new CompositeTaskDecorator(List.of(
+                new TracingTaskDecorator(name, tracer),
+                new ExecutorMetricsTaskDecorator(name, meterRegistry)));
+        return switch (properties.getMode()) {
+            case PLATFORM -> createPlatformExecutor(name, properties, taskDecorator, meterRegistry);
+            case VIRTUAL -> createVirtualExecutor(properties, taskDecorator);
+        };
+    }
+
+    private static Executor createPlatformExecutor(String name,
+                                                   ThreadPoolConfigProperties.ThreadPoolProperties properties,
+                                                   TaskDecorator taskDecorator,
+                                                   MeterRegistry meterRegistry) {
+        boolean prioritized = properties.getQueueOrder() == ThreadPoolConfigProperties.QueueOrder.PRIORITY
+                && properties.getQueueCapacity() > 0;
+        ThreadPoolTaskExecutor executor = prioritized ? new PriorityThreadPoolTaskExecutor() : new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(properties.getCorePoolSize());
         executor.setMaxPoolSize(properties.getMaxPoolSize());
         executor.setQueueCapacity(properties.getQueueCapacity());
         executor.setThreadNamePrefix(properties.getThreadNamePrefix());
+        executor.setRejectedExecutionHandler(rejectionHandler(properties));
+        //Decorated tasks are what the queue orders, they have to keep the rank of the submitted ones
+        executor.setTaskDecorator(prioritized ? task -> PrioritizedTask.wrap(task, taskDecorator.decorate(task)) : taskDecorator);
         executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
         return executor;
     }
-}
\ No newline at end of file
+
+    //Every task gets its own virtual thread, so a verifier blocked on I/O does not hold a carrier thread.
+    //When the concurrency limit is reached the submitting thread waits for a free slot instead of queueing.
+    private static Executor createVirtualExecutor(ThreadPoolConfigProperties.ThreadPoolProperties properties,
+                                                  TaskDecorator taskDecorator) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(properties.getThreadNamePrefix());
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(properties.getConcurrencyLimit());
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
+    }
+
+    private static class PriorityThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+        @Override
+        protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+            return new PriorityTaskQueue(queueCapacity);
+        }
+    }
+
+    static RejectedExecutionHandler rejectionHandler(ThreadPoolConfigProperties.ThreadPoolProperties properties) {
+        return switch (properties.getRejectionPolicy()) {
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case BLOCK -> blockingHandler(properties.getBlockTimeout().toNanos());
+        };
+    }
+
+    private static RejectedExecutionHandler blockingHandler(long timeoutNanos) {
+        return (task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            try {
+                if (!executor.getQueue().offer(task, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new RejectedExecutionException("Queue still full after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a free queue slot", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.zilch.payment.config;
+
+import com.zilch.payment.domain.payment.enums.Currency;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.exchange-rates")
+public class ExchangeRatesConfigProperties {
+    //CSV file with one "from,to,rate" line per rate, built-in rates are used when not set
+    private Path file;
+    //Pairs missing in the file are converted through this currency
+    private Currency pivot = Currency.USD;
+}
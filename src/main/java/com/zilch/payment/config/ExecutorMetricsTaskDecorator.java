@@ -0,0 +1,41 @@
+package com.zilch.payment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+//Records how long tasks of a pool wait for a thread and how long they run
+public class ExecutorMetricsTaskDecorator implements TaskDecorator {
+
+    private final Timer waitTimer;
+    private final Timer executionTimer;
+
+    public ExecutorMetricsTaskDecorator(String poolName, MeterRegistry meterRegistry) {
+        this.waitTimer = Timer.builder("executor.task.wait")
+                .description("Time from task submission to the start of its execution")
+                .tag("name", poolName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("executor.task.execution")
+                .description("Task execution time")
+                .tag("name", poolName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
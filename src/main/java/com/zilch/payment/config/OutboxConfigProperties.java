@@ -0,0 +1,19 @@
+package com.zilch.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.outbox")
+public class OutboxConfigProperties {
+    //Relay polls the outbox this often, it is also woken up right after payments are committed
+    private Duration pollInterval = Duration.ofMillis(500);
+    //Payments claimed and scheduled at once
+    private int batchSize = 100;
+    //Claimed payments not handed over within this time (e.g. relay crashed) are claimed again
+    private Duration claimTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,13 @@
+package com.zilch.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.payment-batch")
+public class PaymentBatchConfigProperties {
+    //Most payments accepted by one POST /api/payments/batch request
+    private int maxSize = 1000;
+}
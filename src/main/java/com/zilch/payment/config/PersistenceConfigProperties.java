@@ -0,0 +1,34 @@
+package com.zilch.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.persistence")
+public class PersistenceConfigProperties {
+    private WriteBehindProperties writeBehind = new WriteBehindProperties();
+    private CacheProperties cache = new CacheProperties();
+
+    @Data
+    public static class WriteBehindProperties {
+        //Disabled - every status update is its own UPDATE and transaction
+        private boolean enabled = false;
+        //Max time a status update waits in memory before it is flushed
+        private Duration maxDelay = Duration.ofMillis(5);
+        //Buffered updates that trigger a flush before maxDelay elapses
+        private int maxBatchSize = 500;
+    }
+
+    @Data
+    public static class CacheProperties {
+        //On by default, false sends every payment read to the DB
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        //Safety net only, cached payments are updated in place on every status change
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+}
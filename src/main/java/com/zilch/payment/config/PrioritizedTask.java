@@ -0,0 +1,31 @@
+package com.zilch.payment.config;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+//Task of a pool with queueOrder PRIORITY. Queued tasks start in order of rank: submission time minus head start.
+//Waiting ages a task, one queued headStart earlier than a prioritized task still starts before it,
+//so no task is overtaken by tasks submitted later than the largest head start after it.
+public record PrioritizedTask(Runnable task, long rank) implements Runnable {
+
+    //nanoTime values, compared by difference so the order holds when they overflow
+    static final Comparator<Runnable> ORDER = (first, second) -> Long.signum(rankOf(first) - rankOf(second));
+
+    public static PrioritizedTask of(Runnable task, Duration headStart) {
+        return new PrioritizedTask(task, System.nanoTime() - headStart.toNanos());
+    }
+
+    //Wrapper of a submitted task keeping its rank, tasks submitted without one rank as if submitted now
+    static PrioritizedTask wrap(Runnable submitted, Runnable wrapper) {
+        return new PrioritizedTask(wrapper, submitted instanceof PrioritizedTask prioritized ? prioritized.rank : System.nanoTime());
+    }
+
+    private static long rankOf(Runnable task) {
+        return ((PrioritizedTask) task).rank;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+}
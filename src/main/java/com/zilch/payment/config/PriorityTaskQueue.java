@@ -0,0 +1,121 @@
+package com.zilch.payment.config;
+
+import java.util.Collection;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+//Bounded queue of a pool with queueOrder PRIORITY, holds PrioritizedTasks only. PriorityBlockingQueue is unbounded,
+//a pool would never grow past corePoolSize nor reject. Capacity is kept by slots, taken on insert and given back
+//by every method ThreadPoolExecutor removes tasks with.
+class PriorityTaskQueue extends PriorityBlockingQueue<Runnable> {
+
+    private final Semaphore slots;
+
+    PriorityTaskQueue(int capacity) {
+        super(11, PrioritizedTask.ORDER);
+        this.slots = new Semaphore(capacity);
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        return super.offer(task);
+    }
+
+    //Used by the BLOCK rejection policy
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        try {
+            if (!slots.tryAcquire(timeout, unit)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return super.offer(task);
+    }
+
+    @Override
+    public void put(Runnable task) {
+        slots.acquireUninterruptibly();
+        super.offer(task);
+    }
+
+    @Override
+    public boolean add(Runnable task) {
+        if (!offer(task)) {
+            throw new IllegalStateException("Queue full");
+        }
+        return true;
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        Runnable task = super.take();
+        slots.release();
+        return task;
+    }
+
+    @Override
+    public Runnable poll() {
+        return released(super.poll());
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return released(super.poll(timeout, unit));
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        if (!super.remove(task)) {
+            return false;
+        }
+        slots.release();
+        return true;
+    }
+
+    //drainTo(Collection) delegates here
+    @Override
+    public int drainTo(Collection<? super Runnable> collection, int maxElements) {
+        int drained = super.drainTo(collection, maxElements);
+        slots.release(drained);
+        return drained;
+    }
+
+    //Used by ThreadPoolExecutor.purge()
+    @Override
+    public boolean removeIf(Predicate<? super Runnable> filter) {
+        boolean removed = false;
+        for (Object task : toArray()) {
+            if (filter.test((Runnable) task)) {
+                removed |= remove(task);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            //Drained
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return slots.availablePermits();
+    }
+
+    private Runnable released(Runnable task) {
+        if (task != null) {
+            slots.release();
+        }
+        return task;
+    }
+}
@@ -0,0 +1,21 @@
+package com.zilch.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.status-updates")
+public class StatusUpdatesConfigProperties {
+    //Long-poll wait when the client does not ask for a timeout
+    private Duration defaultWaitTimeout = Duration.ofSeconds(5);
+    //Longest long-poll wait a client can ask for
+    private Duration maxWaitTimeout = Duration.ofSeconds(30);
+    //Event streams of payments still not decided are closed after this time
+    private Duration streamTimeout = Duration.ofMinutes(5);
+    //Events waiting to be sent to one stream, further events of a client that lags behind are dropped
+    private int streamBufferSize = 32;
+}
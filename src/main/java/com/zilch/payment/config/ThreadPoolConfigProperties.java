@@ -1,22 +1,60 @@
 package com.zilch.payment.config;
 
+import com.zilch.payment.domain.verification.enums.VerificationType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "spring.threadpools")
 public class ThreadPoolConfigProperties {
-    private ThreadPoolProperties verificationScheduler = new ThreadPoolProperties();
     private ThreadPoolProperties verificationRunner = new ThreadPoolProperties();
     private ThreadPoolProperties verificationAnalyzer = new ThreadPoolProperties();
+    //Sends payment status events to event streams, off the threads publishing them
+    private ThreadPoolProperties statusStreams = new ThreadPoolProperties();
+    //Verification types with a pool of their own, the other types run on verificationRunner
+    private Map<VerificationType, ThreadPoolProperties> verificationBulkheads = new EnumMap<>(VerificationType.class);
 
     @Data
-    public class ThreadPoolProperties {
+    public static class ThreadPoolProperties {
+        private ExecutorMode mode = ExecutorMode.PLATFORM;
+        //PLATFORM mode sizing
         private int corePoolSize;
         private int maxPoolSize;
         private int queueCapacity;
+        //PLATFORM mode, order in which queued tasks start
+        private QueueOrder queueOrder = QueueOrder.FIFO;
+        //What happens to a task submitted when all threads are busy and the queue is full
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+        //BLOCK policy, longest time the submitter waits for a free queue slot
+        private Duration blockTimeout = Duration.ofSeconds(1);
+        //VIRTUAL mode sizing, max number of tasks running at once (-1 means unbounded)
+        private int concurrencyLimit = -1;
         private String threadNamePrefix;
     }
-}
\ No newline at end of file
+
+    public enum ExecutorMode {
+        PLATFORM, VIRTUAL
+    }
+
+    public enum QueueOrder {
+        FIFO,
+        //Tasks start in order of submission time minus their head start, see PrioritizedTask
+        PRIORITY
+    }
+
+    //Applies to PLATFORM mode only, VIRTUAL mode submitters always wait for a free slot
+    public enum RejectionPolicy {
+        //Submitter gets TaskRejectedException, payments that cannot be verified now are retried through the outbox
+        ABORT,
+        //Submitter runs the task itself, which slows down what it submits
+        CALLER_RUNS,
+        //Submitter waits up to blockTimeout for a free queue slot, then gets TaskRejectedException
+        BLOCK
+    }
+}
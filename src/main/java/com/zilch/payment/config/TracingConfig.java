@@ -0,0 +1,19 @@
+package com.zilch.payment.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    //Finished spans are written in OTLP JSON to the io.opentelemetry.exporter.logging.otlp logger, one line per batch,
+    //so traces can be inspected or replayed into any OTLP collector without running one next to the service
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.tracing", name = "log-export", havingValue = "true")
+    public SpanExporter otlpJsonLoggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
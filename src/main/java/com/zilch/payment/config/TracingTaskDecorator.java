@@ -0,0 +1,61 @@
+package com.zilch.payment.config;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+//Carries the trace and logging context of the submitting thread over to the pool thread. A traced task runs in its
+//own span named after the pool, so a trace shows every hop of a payment and the time it spent there.
+public class TracingTaskDecorator implements TaskDecorator {
+
+    private final String poolName;
+    private final Tracer tracer;
+
+    public TracingTaskDecorator(String poolName, Tracer tracer) {
+        this.poolName = poolName;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        TraceContext parent = tracer.currentTraceContext().context();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            try {
+                if (parent == null) {
+                    task.run();
+                } else {
+                    runInSpan(task, parent);
+                }
+            } finally {
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private void runInSpan(Runnable task, TraceContext parent) {
+        Span span = tracer.spanBuilder().setParent(parent).name(poolName).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static void setMdc(Map<String, String> mdc) {
+        if (mdc == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.zilch.payment.config;
+
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Executors the verifications run on. Types listed in spring.threadpools.verificationBulkheads get a pool of their own,
+//so a slow verifier fills only its own threads and queue, the other types share the verificationRunner pool.
+//Every bulkhead reports the tasks it holds and rejects, tagged with the pool name.
+public class VerificationBulkheads {
+
+    private static final String SHARED_POOL = "verificationRunner";
+
+    private final Bulkhead shared;
+    private final Map<VerificationType, Bulkhead> bulkheads = new EnumMap<>(VerificationType.class);
+
+    public VerificationBulkheads(Executor sharedExecutor,
+                                 ThreadPoolConfigProperties threadPoolProperties,
+                                 MeterRegistry meterRegistry,
+                                 Tracer tracer) {
+        this.shared = new Bulkhead(SHARED_POOL, sharedExecutor, threadPoolProperties.getVerificationRunner(), meterRegistry);
+        threadPoolProperties.getVerificationBulkheads().forEach((type, properties) -> {
+            String name = SHARED_POOL + "-" + type.name();
+            Executor executor = AsyncThreadPoolsConfig.createExecutor(name, properties, meterRegistry, tracer);
+            bulkheads.put(type, new Bulkhead(name, executor, properties, meterRegistry));
+        });
+    }
+
+    //Throws RejectedExecutionException when the bulkhead of the type is full
+    public Executor executor(VerificationType type) {
+        return bulkheads.getOrDefault(type, shared);
+    }
+
+    //Tasks get headStart over tasks queued at the same time on bulkheads with queueOrder PRIORITY, FIFO bulkheads ignore it
+    public Executor executor(VerificationType type, Duration headStart) {
+        Executor executor = executor(type);
+        return task -> executor.execute(PrioritizedTask.of(task, headStart));
+    }
+
+    //Pools of the types with a bulkhead of their own, the shared pool is the verificationRunnerExecutor bean
+    public Collection<Executor> dedicatedExecutors() {
+        return bulkheads.values().stream().map(bulkhead -> bulkhead.executor).toList();
+    }
+
+    //The shared pool is a bean of its own and is shut down by the context
+    public void shutdown() {
+        bulkheads.values().forEach(bulkhead -> {
+            if (bulkhead.executor instanceof ThreadPoolTaskExecutor pool) {
+                pool.shutdown();
+            } else if (bulkhead.executor instanceof SimpleAsyncTaskExecutor virtual) {
+                virtual.close();
+            }
+        });
+    }
+
+    private static class Bulkhead implements Executor {
+        private final Executor executor;
+        //Tasks queued or running, in VIRTUAL mode also submitters waiting for a free slot
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejected;
+
+        private Bulkhead(String name, Executor executor, ThreadPoolConfigProperties.ThreadPoolProperties properties,
+                         MeterRegistry meterRegistry) {
+            this.executor = executor;
+            this.rejected = Counter.builder("payment.verification.bulkhead.rejected")
+                    .description("Verification tasks rejected because the bulkhead was full")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            Gauge.builder("payment.verification.bulkhead.inflight", inFlight, AtomicInteger::get)
+                    .description("Verification tasks queued or running in the bulkhead")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            int capacity = capacity(properties);
+            //Unbounded VIRTUAL bulkheads never saturate
+            if (capacity > 0) {
+                Gauge.builder("payment.verification.bulkhead.saturation", inFlight, tasks -> (double) tasks.get() / capacity)
+                        .description("Share of the bulkhead capacity in use, 1 means new tasks wait or are rejected")
+                        .tag("name", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            inFlight.incrementAndGet();
+            try {
+                executor.execute(PrioritizedTask.wrap(task, () -> {
+                    try {
+                        task.run();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet();
+                if (e instanceof RejectedExecutionException) {
+                    rejected.increment();
+                }
+                throw e;
+            }
+        }
+
+        private static int capacity(ThreadPoolConfigProperties.ThreadPoolProperties properties) {
+            return switch (properties.getMode()) {
+                case PLATFORM -> properties.getMaxPoolSize() + properties.getQueueCapacity();
+                case VIRTUAL -> properties.getConcurrencyLimit();
+            };
+        }
+    }
+}
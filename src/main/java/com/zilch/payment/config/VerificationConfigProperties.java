@@ -0,0 +1,113 @@
+package com.zilch.payment.config;
+
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.verification")
+public class VerificationConfigProperties {
+    private VerificationMode mode = VerificationMode.EVENTS;
+    private Map<PaymentMethod, VerificationStrategy> strategies = new EnumMap<>(PaymentMethod.class);
+    private SimulatedDelay simulatedDelay = new SimulatedDelay();
+    private Map<VerificationType, ResultCache> resultCache = new EnumMap<>(VerificationType.class);
+    private Map<VerificationType, Batching> batching = new EnumMap<>(VerificationType.class);
+    private Map<VerificationType, Resilience> resilience = new EnumMap<>(VerificationType.class);
+    private Priority priority = new Priority();
+
+    public VerificationStrategy strategyFor(PaymentMethod paymentMethod) {
+        return strategies.getOrDefault(paymentMethod, VerificationStrategy.PARALLEL);
+    }
+
+    //Time every verifier call takes, see SimulatedWork
+    @Data
+    public static class SimulatedDelay {
+        private Duration min = Duration.ofMillis(50);
+        private Duration max = Duration.ofMillis(1000);
+        //Added for every payment of a batch call
+        private Duration perPayment = Duration.ofMillis(2);
+    }
+
+    //Reuse of verifier results between payments with the same cache key, see VerificationResultCache
+    @Data
+    public static class ResultCache {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+        //How long FAILED and ERROR results are kept, by default they are not
+        private Duration negativeTtl = Duration.ZERO;
+    }
+
+    //Verifications of BatchPaymentVerifier types collected into one verifier call, see VerificationBatcher
+    @Data
+    public static class Batching {
+        private boolean enabled = true;
+        private int maxBatchSize = 50;
+        //Longest time a verification waits for others to fill its batch
+        private Duration maxDelay = Duration.ofMillis(5);
+    }
+
+    //Timeout, retries and circuit breaker of verifier calls, see VerifierResilience
+    @Data
+    public static class Resilience {
+        //A call running longer is interrupted and fails
+        private Duration timeout = Duration.ofSeconds(3);
+        private Retry retry = new Retry();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    }
+
+    @Data
+    public static class Retry {
+        //Including the first one, 1 - no retries
+        private int maxAttempts = 3;
+        //Upper bound of the random delay before the second attempt, multiplied by multiplier for every next one
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private double multiplier = 2.0;
+        private Duration maxBackoff = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        //Share of failed calls among the last slidingWindowSize ones that opens the circuit
+        private double failureRateThreshold = 0.5;
+        private int slidingWindowSize = 50;
+        //Calls needed in the window before the failure rate is looked at
+        private int minimumCalls = 20;
+        //Time calls fail fast before trial calls are let through
+        private Duration openDuration = Duration.ofSeconds(10);
+        //Trial calls that have to succeed to close the circuit, any failure opens it again
+        private int halfOpenCalls = 5;
+    }
+
+    //Head start of verifications on runner pools with queueOrder PRIORITY, see ConfiguredVerificationPriorityPolicy
+    @Data
+    public static class Priority {
+        private boolean enabled = true;
+        private Map<PaymentMethod, Duration> paymentMethods = new EnumMap<>(PaymentMethod.class);
+        //Added for payments of at least largeAmount EUR
+        private BigDecimal largeAmount = new BigDecimal("1000");
+        private Duration largeAmountHeadStart = Duration.ZERO;
+        //By merchant name, for merchants on a faster service tier
+        private Map<String, Duration> merchants = new HashMap<>();
+        //Cap of the sum, no verification waits behind ones queued more than maxHeadStart after it
+        private Duration maxHeadStart = Duration.ofSeconds(5);
+    }
+
+    public enum VerificationMode {
+        //One ReadyForVerificationEvent per verification, every result is analyzed separately
+        EVENTS,
+        //Verifications of a payment run concurrently, results are combined in memory and written once
+        COORDINATED
+    }
+}
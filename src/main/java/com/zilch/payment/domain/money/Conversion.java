@@ -0,0 +1,14 @@
+package com.zilch.payment.domain.money;
+
+import java.time.Instant;
+
+//Converted money with the version and timestamp of the exchange rates used, null when no conversion was needed
+public record Conversion(
+        Money money,
+        String ratesVersion,
+        Instant ratesTimestamp
+) {
+    public static Conversion unconverted(Money money) {
+        return new Conversion(money, null, null);
+    }
+}
@@ -3,5 +3,9 @@ package com.zilch.payment.domain.money;
 import com.zilch.payment.domain.payment.enums.Currency;
 
 public interface CurrencyConversion {
-    Money convert(Money from, Currency targetCurrency);
+    Conversion conversion(Money from, Currency targetCurrency);
+
+    default Money convert(Money from, Currency targetCurrency) {
+        return conversion(from, targetCurrency).money();
+    }
 }
@@ -0,0 +1,24 @@
+package com.zilch.payment.domain.payment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+//Payments waiting to be handed over to verification
+public interface PaymentOutbox {
+    //traceContext of the request creating the payments is handed over to verification with them, it may be null
+    void add(List<String> paymentIds, String traceContext);
+    //Adds payments that are not in the outbox yet and releases the ones already in it, also when they are claimed:
+    //the claim may have been taken before the payment needed verifying again
+    void addIfAbsent(List<String> paymentIds);
+    //Oldest available payments, hidden from other claims until claimTimeout elapses or they are released
+    PaymentOutboxClaim claim(int limit, Duration claimTimeout);
+    void release(List<String> paymentIds);
+    //Trace contexts of the given payments by payment id, payments added without one are left out
+    Map<String, String> traceContexts(List<String> paymentIds);
+    //Removes the given payments of the claim, rows released or claimed again since are kept
+    void remove(PaymentOutboxClaim claim, List<String> paymentIds);
+    //Adds payments created before the given time that are not decided and not in the outbox yet, returns how many
+    int addUnfinishedPayments(Instant createdBefore);
+}
@@ -0,0 +1,17 @@
+package com.zilch.payment.domain.payment;
+
+import java.util.List;
+
+//Payments claimed from the outbox together, rows are removed only while they are still held by claimId
+public record PaymentOutboxClaim(
+        String claimId,
+        List<String> paymentIds
+) {
+    public static PaymentOutboxClaim empty() {
+        return new PaymentOutboxClaim(null, List.of());
+    }
+
+    public boolean isEmpty() {
+        return paymentIds.isEmpty();
+    }
+}
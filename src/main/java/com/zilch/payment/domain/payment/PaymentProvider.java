@@ -2,10 +2,14 @@ package com.zilch.payment.domain.payment;
 
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface PaymentProvider {
     Payment save(Payment payment);
+    List<Payment> saveAll(List<Payment> payments);
     Optional<Payment> getById(String id);
+    //Payments found, in the order of ids
+    List<Payment> getAllByIds(List<String> ids);
     void setPaymentStatus(String paymentId, PaymentStatus paymentStatus);
 }
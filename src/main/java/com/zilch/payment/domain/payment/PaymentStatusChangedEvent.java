@@ -0,0 +1,8 @@
+package com.zilch.payment.domain.payment;
+
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+
+public record PaymentStatusChangedEvent(
+        String paymentId,
+        PaymentStatus paymentStatus
+) {}
@@ -0,0 +1,8 @@
+package com.zilch.payment.domain.payment;
+
+import java.util.List;
+
+//Payments created together by one batch request
+public record PaymentsCreatedEvent(
+        List<Payment> payments
+) {}
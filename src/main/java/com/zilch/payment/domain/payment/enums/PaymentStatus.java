@@ -1,5 +1,15 @@
 package com.zilch.payment.domain.payment.enums;
 
 public enum PaymentStatus {
-    NEW, VERIFYING, ACCEPTED, REJECTED
+    NEW(false),
+    VERIFYING(false),
+    ACCEPTED(true),
+    REJECTED(true);
+
+    //The payment is decided, its status will not change anymore
+    public final boolean isTerminal;
+
+    PaymentStatus(boolean isTerminal) {
+        this.isTerminal = isTerminal;
+    }
 }
@@ -4,7 +4,7 @@ import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
 import lombok.Builder;
 
-@Builder
+@Builder(toBuilder = true)
 public record PaymentVerification(
         Long id,
         String paymentId,
@@ -2,7 +2,14 @@ package com.zilch.payment.domain.verification;
 
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 
+import java.util.List;
+import java.util.Map;
+
 public interface PaymentVerificationProvider {
     PaymentVerification save(PaymentVerification paymentVerification);
-    void updateStatus(Long id, PaymentVerificationStatus paymentVerificationStatus);
+    List<PaymentVerification> saveAll(List<PaymentVerification> paymentVerifications);
+    //Verification id to status of all verifications of the payment
+    Map<Long, PaymentVerificationStatus> getStatuses(String paymentId);
+    void updateStatus(String paymentId, Long id, PaymentVerificationStatus paymentVerificationStatus);
+    void updateStatuses(String paymentId, Map<Long, PaymentVerificationStatus> paymentVerificationStatuses);
 }
@@ -1,5 +1,5 @@
 package com.zilch.payment.domain.verification.enums;
 
 public enum PaymentVerificationStatus {
-    SCHEDULED, PASSED, FAILED, ERROR
+    SCHEDULED, PASSED, FAILED, ERROR, CANCELLED
 }
@@ -0,0 +1,8 @@
+package com.zilch.payment.domain.verification.enums;
+
+public enum VerificationStrategy {
+    //All verifications of a payment are launched at once
+    PARALLEL,
+    //Verifications run one by one, the most likely to reject per unit of cost first, stopping on the first failure
+    SEQUENTIAL
+}
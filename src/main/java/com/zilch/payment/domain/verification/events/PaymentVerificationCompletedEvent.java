@@ -1,11 +1,13 @@
 package com.zilch.payment.domain.verification.events;
 
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
 import lombok.Builder;
 
 @Builder
 public record PaymentVerificationCompletedEvent(
         Long verificationId,
         String paymentId,
+        VerificationType verificationType,
         PaymentVerificationStatus verificationResult
 ) {}
@@ -0,0 +1,13 @@
+package com.zilch.payment.domain.verification.events;
+
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import lombok.Builder;
+
+@Builder
+public record PaymentVerificationStatusChangedEvent(
+        String paymentId,
+        Long verificationId,
+        VerificationType verificationType,
+        PaymentVerificationStatus verificationStatus
+) {}
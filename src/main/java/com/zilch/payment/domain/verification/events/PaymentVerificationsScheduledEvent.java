@@ -0,0 +1,15 @@
+package com.zilch.payment.domain.verification.events;
+
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record PaymentVerificationsScheduledEvent(
+        Payment payment,
+        List<PaymentVerification> paymentVerifications,
+        VerificationStrategy strategy
+) {}
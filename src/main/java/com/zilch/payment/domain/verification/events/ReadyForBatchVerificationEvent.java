@@ -0,0 +1,13 @@
+package com.zilch.payment.domain.verification.events;
+
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import lombok.Builder;
+
+import java.util.List;
+
+//Verifications of one type collected to be verified in a single verifier call
+@Builder
+public record ReadyForBatchVerificationEvent(
+        VerificationType verificationType,
+        List<ReadyForVerificationEvent> verifications
+) {}
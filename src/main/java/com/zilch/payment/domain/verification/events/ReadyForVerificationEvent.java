@@ -4,8 +4,22 @@ import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import lombok.Builder;
 
-@Builder
+import java.util.List;
+
+@Builder(toBuilder = true)
 public record ReadyForVerificationEvent(
         Payment payment,
-        PaymentVerification paymentVerification
-) {}
+        PaymentVerification paymentVerification,
+        //Verifications to run one by one after this one passes, empty for PARALLEL strategy
+        List<PaymentVerification> nextVerifications,
+        //Counts from 1, later attempts retry a failed verification
+        int attempt
+) {
+    public List<PaymentVerification> nextVerifications() {
+        return nextVerifications == null ? List.of() : nextVerifications;
+    }
+
+    public int attempt() {
+        return Math.max(attempt, 1);
+    }
+}
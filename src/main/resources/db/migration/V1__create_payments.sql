@@ -0,0 +1,30 @@
+CREATE TABLE payments (
+    id                VARCHAR(255)             NOT NULL,
+    amount            NUMERIC(38, 2),
+    currency          VARCHAR(255),
+    payment_method    VARCHAR(255),
+    merchant          VARCHAR(255),
+    payment_status    VARCHAR(255),
+    created_date      TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_updated_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_payments PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE payments_verifications_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE payments_verifications (
+    id                  BIGINT                   NOT NULL,
+    payment_id          VARCHAR(255)             NOT NULL,
+    verification_type   VARCHAR(255),
+    verification_status VARCHAR(255),
+    created_date        TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_updated_date   TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_payments_verifications PRIMARY KEY (id),
+    CONSTRAINT fk_payments_verifications_payment FOREIGN KEY (payment_id) REFERENCES payments (id)
+);
+
+-- Every payment read loads its verifications by payment_id
+CREATE INDEX idx_payments_verifications_payment_id ON payments_verifications (payment_id);
+-- Scans of verifications in a status, oldest first (e.g. stuck SCHEDULED ones)
+CREATE INDEX idx_payments_verifications_status_created ON payments_verifications (verification_status, created_date);
+CREATE INDEX idx_payments_status_created ON payments (payment_status, created_date);
@@ -0,0 +1,13 @@
+-- Payments waiting to be handed over to verification, written in the same transaction as the payment.
+-- No foreign key: rows of deleted payments are dropped by the relay.
+CREATE TABLE payments_outbox (
+    payment_id   VARCHAR(255)             NOT NULL,
+    created_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Claimed rows are hidden from other relays until the claim times out
+    available_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    claim_id     VARCHAR(255),
+    CONSTRAINT pk_payments_outbox PRIMARY KEY (payment_id)
+);
+
+-- Relay reads available rows, oldest first
+CREATE INDEX idx_payments_outbox_available_at ON payments_outbox (available_at);
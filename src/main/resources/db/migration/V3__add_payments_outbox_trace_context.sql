@@ -0,0 +1,2 @@
+-- W3C traceparent of the request that created the payment, verification spans continue its trace
+ALTER TABLE payments_outbox ADD COLUMN trace_context VARCHAR(64);
@@ -61,6 +61,10 @@ public class PaymentFlowTest {
         await().atMost(3, TimeUnit.SECONDS).until(() -> {
             PaymentDetailsResponse retrievedResponse =
                     restTemplate.getForEntity("/api/payments/" + paymentId, PaymentDetailsResponse.class).getBody();
+            //Payment is handed over to verification by the outbox relay after it is committed, so it can still be NEW
+            if (retrievedResponse.paymentStatus() == PaymentStatus.NEW) {
+                return false;
+            }
             assertThat(retrievedResponse.paymentStatus()).isEqualTo(PaymentStatus.VERIFYING);
             return retrievedResponse.verifications() != null && !retrievedResponse.verifications().isEmpty();
         });
@@ -77,9 +81,12 @@ public class PaymentFlowTest {
         });
     }
 
+    //Payment status is written by the analyzer right after the last verification status
     private void checkPaymentStatusIsUpdated(String paymentId) {
-        PaymentDetailsResponse payment =
-                restTemplate.getForEntity("/api/payments/" + paymentId, PaymentDetailsResponse.class).getBody();
-        assertThat(payment.paymentStatus()).isIn(PaymentStatus.ACCEPTED, PaymentStatus.REJECTED);
+        await().atMost(1, TimeUnit.SECONDS).untilAsserted(() -> {
+            PaymentDetailsResponse payment =
+                    restTemplate.getForEntity("/api/payments/" + paymentId, PaymentDetailsResponse.class).getBody();
+            assertThat(payment.paymentStatus()).isIn(PaymentStatus.ACCEPTED, PaymentStatus.REJECTED);
+        });
     }
 }
@@ -0,0 +1,44 @@
+package com.zilch.payment;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+import java.util.List;
+
+//OpenTelemetry tracer that keeps finished spans in memory
+public class TestTracing {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public TestTracing() {
+        io.opentelemetry.api.trace.Tracer otelTracer = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()
+                .get("test");
+        this.tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> {});
+        this.propagator = new OtelPropagator(ContextPropagators.create(W3CTraceContextPropagator.getInstance()), otelTracer);
+    }
+
+    public Tracer tracer() {
+        return tracer;
+    }
+
+    public Propagator propagator() {
+        return propagator;
+    }
+
+    public List<SpanData> finishedSpans() {
+        return exporter.getFinishedSpanItems();
+    }
+}
@@ -1,14 +1,20 @@
 package com.zilch.payment.adapter.inboud.api;
 
 import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentRequest;
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentResult;
 import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
+import com.zilch.payment.adapter.outbound.persistance.PaymentOutboxRepository;
 import com.zilch.payment.adapter.outbound.persistance.PaymentRepository;
 import com.zilch.payment.adapter.outbound.persistance.PaymentVerificationRepository;
 import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentProvider;
 import com.zilch.payment.domain.payment.enums.Currency;
 import com.zilch.payment.domain.payment.enums.PaymentMethod;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,8 +23,12 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -37,7 +47,11 @@ import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.awaitility.Awaitility.await;
 
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+//Spans of every payment, the trace assertions must not depend on sampling
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.tracing.sampling.probability=1.0")
+//Metrics export, with it the Prometheus endpoint, and tracing are disabled in tests by default
+@AutoConfigureObservability
+@Import(PaymentControllerIntegrationTests.InMemoryTracingConfig.class)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class PaymentControllerIntegrationTests {
 
@@ -50,6 +64,15 @@ class PaymentControllerIntegrationTests {
     @Autowired
     private PaymentVerificationRepository verificationRepository;
 
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Autowired
+    private PaymentProvider paymentProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
     private static final BigDecimal AMOUNT = BigDecimal.valueOf(100.00).setScale(2, RoundingMode.HALF_UP);
     private static final Currency CURRENCY = Currency.USD;
     private static final String MERCHANT = "Test Merchant";
@@ -57,8 +80,12 @@ class PaymentControllerIntegrationTests {
 
     @BeforeEach
     void setUp() {
-        verificationRepository.deleteAll();
-        paymentRepository.deleteAll();
+        //Payments of the previous test may still get verifications from the outbox relay in between the deletes
+        await().atMost(5, TimeUnit.SECONDS).ignoreExceptions().untilAsserted(() -> {
+            outboxRepository.deleteAll();
+            verificationRepository.deleteAll();
+            paymentRepository.deleteAll();
+        });
     }
 
     @Test
@@ -84,7 +111,7 @@ class PaymentControllerIntegrationTests {
 
         // Wait for payment verifications to appear
         await().atMost(2, TimeUnit.SECONDS).until(() ->
-                !paymentRepository.findById(paymentId).orElseThrow().toPayment().paymentVerifications().isEmpty()
+                !paymentProvider.getById(paymentId).orElseThrow().paymentVerifications().isEmpty()
         );
 
         // When - Retrieve payment
@@ -118,7 +145,7 @@ class PaymentControllerIntegrationTests {
                 .atMost(5, TimeUnit.SECONDS)
                 .pollInterval(500, TimeUnit.MILLISECONDS)
                 .until(() -> {
-                    Payment payment = paymentRepository.findById(paymentId).orElseThrow().toPayment();
+                    Payment payment = paymentProvider.getById(paymentId).orElseThrow();
                     return payment.paymentVerifications().stream()
                             .allMatch(v -> v.verificationStatus() != PaymentVerificationStatus.SCHEDULED);
                 });
@@ -137,6 +164,131 @@ class PaymentControllerIntegrationTests {
                 });
     }
 
+    @Test
+    @DisplayName("Should respond to long-poll once payment is decided")
+    void shouldRespondToLongPollOncePaymentIsDecided() {
+        // Given
+        InitializePaymentRequest request = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, MERCHANT);
+        String paymentId = restTemplate.postForEntity("/api/payments", request, PaymentDetailsResponse.class).getBody().id();
+
+        // When
+        ResponseEntity<PaymentDetailsResponse> response = restTemplate.getForEntity(
+                "/api/payments/" + paymentId + "?waitFor=terminal&timeout=10s",
+                PaymentDetailsResponse.class
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().paymentStatus()).isIn(PaymentStatus.ACCEPTED, PaymentStatus.REJECTED);
+    }
+
+    @Test
+    @DisplayName("Should expose payment lifecycle metrics for Prometheus")
+    void shouldExposeLifecycleMetricsForPrometheus() {
+        // Given
+        InitializePaymentRequest request = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, MERCHANT);
+        String paymentId = restTemplate.postForEntity("/api/payments", request, PaymentDetailsResponse.class).getBody().id();
+        restTemplate.getForEntity("/api/payments/" + paymentId + "?waitFor=terminal&timeout=10s", PaymentDetailsResponse.class);
+
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("payment_creation_seconds_count{request=\"single\"")
+                .contains("payment_decision_seconds_bucket")
+                .contains("payment_verification_duration_seconds_count")
+                .contains("executor_task_wait_seconds_count{name=\"verificationRunner\"");
+    }
+
+    @Test
+    @DisplayName("Should trace payment from the create request through scheduler, runner and analyzer")
+    void shouldTracePaymentThroughVerificationPipeline() {
+        // Given
+        InitializePaymentRequest request = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, MERCHANT);
+
+        // When
+        String paymentId = restTemplate.postForEntity("/api/payments", request, PaymentDetailsResponse.class).getBody().id();
+
+        // Then
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            List<SpanData> spans = spanExporter.getFinishedSpanItems();
+            List<SpanData> schedules = spans.stream()
+                    .filter(span -> span.getName().equals("payment.verification.schedule"))
+                    .filter(span -> paymentId.equals(span.getAttributes().get(AttributeKey.stringKey("payment.id"))))
+                    .toList();
+            assertThat(schedules).hasSize(1);
+            String traceId = schedules.getFirst().getTraceId();
+            assertThat(spans).filteredOn(span -> span.getTraceId().equals(traceId))
+                    .extracting(SpanData::getName)
+                    .contains("http post /api/payments")
+                    .contains("verificationRunner", "verificationAnalyzer");
+        });
+    }
+
+    @Test
+    @DisplayName("Should return 404 to long-poll of unknown payment")
+    void shouldReturnNotFoundToLongPollOfUnknownPayment() {
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/payments/unknown?waitFor=terminal", String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should stream payment events until payment is decided")
+    void shouldStreamPaymentEventsUntilPaymentIsDecided() {
+        // Given
+        InitializePaymentRequest request = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, MERCHANT);
+        String paymentId = restTemplate.postForEntity("/api/payments", request, PaymentDetailsResponse.class).getBody().id();
+
+        // When - the stream is closed by the server once the payment is decided
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/payments/" + paymentId + "/events", String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("event:payment\n");
+        assertThat(response.getBody()).containsAnyOf("\"paymentStatus\":\"ACCEPTED\"", "\"paymentStatus\":\"REJECTED\"");
+    }
+
+    @Test
+    @DisplayName("Should create valid payments of batch and report invalid ones in order")
+    void shouldCreateBatchOfPayments() {
+        // Given
+        InitializePaymentRequest valid = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, MERCHANT);
+        InitializePaymentRequest invalid = new InitializePaymentRequest(AMOUNT, CURRENCY, PAYMENT_METHOD, "");
+
+        // When
+        ResponseEntity<InitializePaymentResult[]> response = restTemplate.postForEntity(
+                "/api/payments/batch",
+                List.of(valid, invalid, valid),
+                InitializePaymentResult[].class
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(InitializePaymentResult::status).containsExactly(
+                InitializePaymentResult.Status.CREATED, InitializePaymentResult.Status.INVALID, InitializePaymentResult.Status.CREATED);
+        assertThat(response.getBody()[1].errors()).containsExactly("Merchant should be provided");
+        assertThat(paymentRepository.count()).isEqualTo(2);
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(List.of(response.getBody()[0], response.getBody()[2]))
+                .allSatisfy(result -> assertThat(paymentProvider.getById(result.payment().id()).orElseThrow().paymentStatus())
+                        .isIn(PaymentStatus.ACCEPTED, PaymentStatus.REJECTED)));
+    }
+
+    @Test
+    @DisplayName("Should not accept empty batch")
+    void shouldNotAcceptEmptyBatch() {
+        // When
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/payments/batch", List.of(), String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Batch should contain from 1 to 1000 payments");
+    }
+
     @Test
     @DisplayName("Should handle concurrent payment requests")
     void shouldHandleConcurrentPaymentRequests() throws Exception {
@@ -235,4 +387,13 @@ class PaymentControllerIntegrationTests {
                 )
         );
     }
+
+    @TestConfiguration
+    static class InMemoryTracingConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
 }
@@ -2,8 +2,16 @@ package com.zilch.payment.adapter.inboud.api;
 
 import com.zilch.payment.PaymentFactory;
 import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentRequest;
+import com.zilch.payment.adapter.inboud.api.dto.InitializePaymentResult;
 import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
 import com.zilch.payment.application.PaymentService;
+import com.zilch.payment.application.admission.PaymentAdmission;
+import com.zilch.payment.application.admission.PaymentAdmissionRejectedException;
+import com.zilch.payment.config.AdmissionConfigProperties;
+import com.zilch.payment.config.PaymentBatchConfigProperties;
+import com.zilch.payment.config.StatusUpdatesConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.domain.payment.FuturePaymentDetails;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.PaymentNotFoundException;
 import com.zilch.payment.domain.payment.enums.Currency;
@@ -14,15 +22,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.validation.Validation;
+
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,11 +48,31 @@ public class PaymentControllerTests {
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private PaymentStatusSubscriptions paymentStatusSubscriptions;
+
+    @Mock
+    private VerificationBulkheads verificationBulkheads;
+
+    private final StatusUpdatesConfigProperties statusUpdatesProperties = new StatusUpdatesConfigProperties();
+
+    private final PaymentBatchConfigProperties paymentBatchProperties = new PaymentBatchConfigProperties();
+
+    private final AdmissionConfigProperties admissionProperties = new AdmissionConfigProperties();
+
     private PaymentController paymentController;
 
     @BeforeEach
     public void setUp() {
-        paymentController = new PaymentController(paymentService);
+        admissionProperties.setEnabled(false);
+        createController();
+    }
+
+    private void createController() {
+        PaymentAdmission paymentAdmission = new PaymentAdmission(admissionProperties, Runnable::run, Runnable::run, verificationBulkheads,
+                new SimpleMeterRegistry());
+        paymentController = new PaymentController(paymentService, paymentAdmission, paymentStatusSubscriptions, statusUpdatesProperties,
+                paymentBatchProperties, Validation.buildDefaultValidatorFactory().getValidator());
     }
 
     @Test
@@ -107,6 +145,22 @@ public class PaymentControllerTests {
         verify(paymentService).initializePayment(any());
     }
 
+    @Test
+    @DisplayName("Should not initialize payment when too many payments are in verification")
+    public void testInitializePayment_AdmissionRejected() {
+        // Given
+        admissionProperties.setEnabled(true);
+        admissionProperties.setInitialLimit(1);
+        createController();
+        when(paymentService.initializePayment(any())).thenReturn(PaymentFactory.createPayment(null));
+        paymentController.initializePayment(validRequest("first"));
+
+        // When & Then
+        assertThatThrownBy(() -> paymentController.initializePayment(validRequest("second")))
+                .isInstanceOf(PaymentAdmissionRejectedException.class);
+        verify(paymentService).initializePayment(any());
+    }
+
     @Test
     @DisplayName("Should throw exception when payment not found")
     public void testGetPayment_ExceptionThrown() {
@@ -119,4 +173,117 @@ public class PaymentControllerTests {
                 .isInstanceOf(PaymentNotFoundException.class);
         verify(paymentService).retrieveById(paymentId);
     }
+
+    @Test
+    @DisplayName("Should wait for payment decision with default timeout when none requested")
+    public void testAwaitPaymentDecision_DefaultTimeout() {
+        // When
+        paymentController.awaitPaymentDecision("payment-id", null);
+
+        // Then
+        verify(paymentStatusSubscriptions).awaitDecision("payment-id", statusUpdatesProperties.getDefaultWaitTimeout());
+    }
+
+    @Test
+    @DisplayName("Should cap requested wait timeout")
+    public void testAwaitPaymentDecision_TimeoutCapped() {
+        // When
+        paymentController.awaitPaymentDecision("payment-id", "10m");
+
+        // Then
+        verify(paymentStatusSubscriptions).awaitDecision("payment-id", statusUpdatesProperties.getMaxWaitTimeout());
+    }
+
+    @Test
+    @DisplayName("Should wait for payment decision with requested timeout")
+    public void testAwaitPaymentDecision_RequestedTimeout() {
+        // When
+        paymentController.awaitPaymentDecision("payment-id", "1500ms");
+
+        // Then
+        verify(paymentStatusSubscriptions).awaitDecision("payment-id", Duration.ofMillis(1500));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid wait timeout")
+    public void testAwaitPaymentDecision_InvalidTimeout() {
+        // When & Then
+        assertThatThrownBy(() -> paymentController.awaitPaymentDecision("payment-id", "soon"))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(paymentStatusSubscriptions);
+    }
+
+    @Test
+    @DisplayName("Should stream payment events with configured timeout")
+    public void testStreamPaymentEvents() {
+        // When
+        paymentController.streamPaymentEvents("payment-id");
+
+        // Then
+        verify(paymentStatusSubscriptions).stream("payment-id", statusUpdatesProperties.getStreamTimeout());
+    }
+
+    @Test
+    @DisplayName("Should create valid payments of batch together and return results in request order")
+    @SuppressWarnings("unchecked")
+    public void testInitializePayments_MixedBatch() {
+        // Given
+        InitializePaymentRequest first = validRequest("first-merchant");
+        InitializePaymentRequest invalid = InitializePaymentRequest.builder()
+                .amount(BigDecimal.ZERO)
+                .paymentMethod(PaymentMethod.PAY_NOW)
+                .merchant("invalid-merchant")
+                .build();
+        InitializePaymentRequest second = validRequest("second-merchant");
+        when(paymentService.initializePayments(any())).thenAnswer(invocation -> ((List<FuturePaymentDetails>) invocation.getArgument(0))
+                .stream()
+                .map(FuturePaymentDetails::toNewPayment)
+                .toList());
+
+        // When
+        List<InitializePaymentResult> results = paymentController.initializePayments(Arrays.asList(first, invalid, second, null));
+
+        // Then
+        ArgumentCaptor<List<FuturePaymentDetails>> created = ArgumentCaptor.forClass(List.class);
+        verify(paymentService).initializePayments(created.capture());
+        assertThat(created.getValue()).containsExactly(first.toFuturePaymentDetails(), second.toFuturePaymentDetails());
+        assertThat(results).extracting(InitializePaymentResult::status).containsExactly(
+                InitializePaymentResult.Status.CREATED, InitializePaymentResult.Status.INVALID,
+                InitializePaymentResult.Status.CREATED, InitializePaymentResult.Status.INVALID);
+        assertThat(results.get(0).payment().merchant()).isEqualTo("first-merchant");
+        assertThat(results.get(1).payment()).isNull();
+        assertThat(results.get(1).errors()).containsExactly("Amount must be higher than 0", "Currency is required");
+        assertThat(results.get(2).payment().merchant()).isEqualTo("second-merchant");
+        assertThat(results.get(3).errors()).containsExactly("Payment should be provided");
+    }
+
+    @Test
+    @DisplayName("Should reject batch larger than max size")
+    public void testInitializePayments_BatchTooLarge() {
+        // Given
+        paymentBatchProperties.setMaxSize(1);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentController.initializePayments(List.of(validRequest("first"), validRequest("second"))))
+                .isInstanceOf(InvalidPaymentBatchException.class);
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @DisplayName("Should reject empty batch")
+    public void testInitializePayments_EmptyBatch() {
+        // When & Then
+        assertThatThrownBy(() -> paymentController.initializePayments(List.of()))
+                .isInstanceOf(InvalidPaymentBatchException.class);
+        verifyNoInteractions(paymentService);
+    }
+
+    private static InitializePaymentRequest validRequest(String merchant) {
+        return InitializePaymentRequest.builder()
+                .amount(new BigDecimal("150.00"))
+                .currency(Currency.EUR)
+                .paymentMethod(PaymentMethod.PAY_NOW)
+                .merchant(merchant)
+                .build();
+    }
 }
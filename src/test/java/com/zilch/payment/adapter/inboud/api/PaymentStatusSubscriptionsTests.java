@@ -0,0 +1,202 @@
+package com.zilch.payment.adapter.inboud.api;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.adapter.inboud.api.dto.PaymentDetailsResponse;
+import com.zilch.payment.application.PaymentService;
+import com.zilch.payment.config.StatusUpdatesConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentNotFoundException;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStatusSubscriptionsTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Payment VERIFYING_PAYMENT = PaymentFactory.createPayment(builder -> builder.paymentStatus(PaymentStatus.VERIFYING));
+    private static final Payment ACCEPTED_PAYMENT = VERIFYING_PAYMENT.toBuilder().paymentStatus(PaymentStatus.ACCEPTED).build();
+
+    @Mock
+    private PaymentService paymentService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatusUpdatesConfigProperties statusUpdatesProperties = new StatusUpdatesConfigProperties();
+    //Send tasks handed over to the stream executor, run by the test
+    private final List<Runnable> sendTasks = new ArrayList<>();
+
+    private PaymentStatusSubscriptions subscriptions;
+
+    @BeforeEach
+    void setUp() {
+        subscriptions = new PaymentStatusSubscriptions(paymentService, statusUpdatesProperties, sendTasks::add, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Respond at once when payment is already decided")
+    void awaitDecision_whenPaymentDecided_thenRespondAtOnce() {
+        // Given
+        when(paymentService.retrieveById(ACCEPTED_PAYMENT.id())).thenReturn(ACCEPTED_PAYMENT);
+
+        // When
+        DeferredResult<PaymentDetailsResponse> result = subscriptions.awaitDecision(ACCEPTED_PAYMENT.id(), TIMEOUT);
+
+        // Then
+        assertThat(result.hasResult()).isTrue();
+        assertThat(((PaymentDetailsResponse) result.getResult()).paymentStatus()).isEqualTo(PaymentStatus.ACCEPTED);
+        assertThat(subscriptions.waiters(ACCEPTED_PAYMENT.id())).isZero();
+    }
+
+    @Test
+    @DisplayName("Wait without reading payment until it is decided")
+    void awaitDecision_whenPaymentVerifying_thenWaitForDecision() {
+        // Given
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(VERIFYING_PAYMENT);
+        DeferredResult<PaymentDetailsResponse> first = subscriptions.awaitDecision(VERIFYING_PAYMENT.id(), TIMEOUT);
+        DeferredResult<PaymentDetailsResponse> second = subscriptions.awaitDecision(VERIFYING_PAYMENT.id(), TIMEOUT);
+        subscriptions.onVerificationStatusChanged(PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(VERIFYING_PAYMENT.id())
+                .verificationType(VerificationType.FRAUD_CHECK)
+                .verificationStatus(PaymentVerificationStatus.PASSED)
+                .build());
+        assertThat(first.hasResult()).isFalse();
+        assertThat(subscriptions.waiters(VERIFYING_PAYMENT.id())).isEqualTo(2);
+        assertThat(meterRegistry.get("payment.status.waiters").gauge().value()).isEqualTo(2);
+        verify(paymentService, times(2)).retrieveById(VERIFYING_PAYMENT.id());
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(ACCEPTED_PAYMENT);
+
+        // When
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent(VERIFYING_PAYMENT.id(), PaymentStatus.ACCEPTED));
+
+        // Then
+        assertThat(((PaymentDetailsResponse) first.getResult()).paymentStatus()).isEqualTo(PaymentStatus.ACCEPTED);
+        assertThat(((PaymentDetailsResponse) second.getResult()).paymentStatus()).isEqualTo(PaymentStatus.ACCEPTED);
+        assertThat(subscriptions.waiters(VERIFYING_PAYMENT.id())).isZero();
+        //One read shared by all waiters
+        verify(paymentService, times(3)).retrieveById(VERIFYING_PAYMENT.id());
+    }
+
+    @Test
+    @DisplayName("Keep waiting on status changes which do not decide payment")
+    void onPaymentStatusChanged_whenStatusNotTerminal_thenKeepWaiting() {
+        // Given
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(VERIFYING_PAYMENT);
+        DeferredResult<PaymentDetailsResponse> result = subscriptions.awaitDecision(VERIFYING_PAYMENT.id(), TIMEOUT);
+
+        // When
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent(VERIFYING_PAYMENT.id(), PaymentStatus.VERIFYING));
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent("other-payment", PaymentStatus.REJECTED));
+
+        // Then
+        assertThat(result.hasResult()).isFalse();
+        assertThat(subscriptions.waiters(VERIFYING_PAYMENT.id())).isEqualTo(1);
+        verify(paymentService, times(1)).retrieveById(any());
+    }
+
+    @Test
+    @DisplayName("Do not keep waiter of unknown payment")
+    void awaitDecision_whenPaymentNotFound_thenThrowException() {
+        // Given
+        when(paymentService.retrieveById("unknown")).thenThrow(new PaymentNotFoundException("unknown"));
+
+        // When & Then
+        assertThatThrownBy(() -> subscriptions.awaitDecision("unknown", TIMEOUT))
+                .isInstanceOf(PaymentNotFoundException.class);
+        assertThat(subscriptions.waiters("unknown")).isZero();
+    }
+
+    @Test
+    @DisplayName("Close event stream once payment is decided")
+    void stream_whenPaymentDecided_thenCloseStream() {
+        // Given
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(VERIFYING_PAYMENT);
+        subscriptions.stream(VERIFYING_PAYMENT.id(), TIMEOUT);
+        assertThat(subscriptions.streams(VERIFYING_PAYMENT.id())).isEqualTo(1);
+
+        // When
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent(VERIFYING_PAYMENT.id(), PaymentStatus.REJECTED));
+
+        // Then
+        assertThat(subscriptions.streams(VERIFYING_PAYMENT.id())).isZero();
+        verify(paymentService, times(1)).retrieveById(VERIFYING_PAYMENT.id());
+    }
+
+    @Test
+    @DisplayName("Do not keep event stream of decided payment")
+    void stream_whenPaymentAlreadyDecided_thenDoNotKeepStream() {
+        // Given
+        when(paymentService.retrieveById(ACCEPTED_PAYMENT.id())).thenReturn(ACCEPTED_PAYMENT);
+
+        // When
+        subscriptions.stream(ACCEPTED_PAYMENT.id(), TIMEOUT);
+
+        // Then
+        assertThat(subscriptions.streams(ACCEPTED_PAYMENT.id())).isZero();
+    }
+
+    @Test
+    @DisplayName("Hand stream events over to the stream executor instead of sending them on the publishing thread")
+    void onVerificationStatusChanged_whenStreamOpen_thenSendOnStreamExecutor() {
+        // Given
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(VERIFYING_PAYMENT);
+        subscriptions.stream(VERIFYING_PAYMENT.id(), TIMEOUT);
+
+        // When
+        subscriptions.onVerificationStatusChanged(verificationStatusChanged());
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent(VERIFYING_PAYMENT.id(), PaymentStatus.ACCEPTED));
+
+        // Then
+        //Snapshot and both events are sent in order by one task
+        assertThat(sendTasks).hasSize(1);
+        sendTasks.getFirst().run();
+        assertThat(subscriptions.streams(VERIFYING_PAYMENT.id())).isZero();
+        assertThat(meterRegistry.get("payment.status.stream.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Drop events of a stream lagging behind, but keep the event closing it")
+    void onVerificationStatusChanged_whenStreamLagsBehind_thenDropEvents() {
+        // Given
+        statusUpdatesProperties.setStreamBufferSize(2);
+        when(paymentService.retrieveById(VERIFYING_PAYMENT.id())).thenReturn(VERIFYING_PAYMENT);
+        subscriptions.stream(VERIFYING_PAYMENT.id(), TIMEOUT);
+
+        // When - the snapshot and the first event fill the buffer
+        for (int i = 0; i < 4; i++) {
+            subscriptions.onVerificationStatusChanged(verificationStatusChanged());
+        }
+        subscriptions.onPaymentStatusChanged(new PaymentStatusChangedEvent(VERIFYING_PAYMENT.id(), PaymentStatus.REJECTED));
+
+        // Then
+        assertThat(meterRegistry.get("payment.status.stream.dropped").counter().count()).isEqualTo(3);
+        assertThat(subscriptions.streams(VERIFYING_PAYMENT.id())).isZero();
+        assertThat(sendTasks).hasSize(1);
+        sendTasks.getFirst().run();
+    }
+
+    private static PaymentVerificationStatusChangedEvent verificationStatusChanged() {
+        return PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(VERIFYING_PAYMENT.id())
+                .verificationType(VerificationType.FRAUD_CHECK)
+                .verificationStatus(PaymentVerificationStatus.PASSED)
+                .build();
+    }
+}
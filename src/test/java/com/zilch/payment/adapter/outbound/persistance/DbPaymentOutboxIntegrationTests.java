@@ -0,0 +1,160 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.verification.PaymentVerificationOutboxRelay;
+import com.zilch.payment.domain.payment.PaymentOutboxClaim;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Own database, relays of other test contexts would claim the rows
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:outboxdb")
+@ActiveProfiles("h2")
+class DbPaymentOutboxIntegrationTests {
+
+    @Autowired
+    private DbPaymentOutbox dbPaymentOutbox;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @MockitoBean
+    private PaymentVerificationOutboxRelay paymentVerificationOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        paymentOutboxRepository.deleteAll();
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Claimed payments are hidden from other claims until released")
+    void testClaimAndRelease() {
+        //given
+        dbPaymentOutbox.add(List.of("first", "second", "third"), null);
+
+        //when
+        List<String> claimed = dbPaymentOutbox.claim(2, Duration.ofMinutes(1)).paymentIds();
+        List<String> claimedNext = dbPaymentOutbox.claim(2, Duration.ofMinutes(1)).paymentIds();
+        dbPaymentOutbox.release(claimed);
+        List<String> claimedAfterRelease = dbPaymentOutbox.claim(2, Duration.ofMinutes(1)).paymentIds();
+
+        //then
+        assertThat(claimed).containsExactly("first", "second");
+        assertThat(claimedNext).containsExactly("third");
+        assertThat(claimedAfterRelease).containsExactlyInAnyOrder("first", "second");
+    }
+
+    @Test
+    @DisplayName("Claims time out")
+    void testClaimTimeout() {
+        //given
+        dbPaymentOutbox.add(List.of("first"), null);
+        dbPaymentOutbox.claim(1, Duration.ZERO);
+
+        //when
+        List<String> claimed = dbPaymentOutbox.claim(1, Duration.ofMinutes(1)).paymentIds();
+
+        //then
+        assertThat(claimed).containsExactly("first");
+    }
+
+    @Test
+    @DisplayName("Removed payments are not claimed")
+    void testRemove() {
+        //given
+        dbPaymentOutbox.add(List.of("first", "second"), null);
+        PaymentOutboxClaim claim = dbPaymentOutbox.claim(2, Duration.ZERO);
+
+        //when
+        dbPaymentOutbox.remove(claim, List.of("first"));
+
+        //then
+        assertThat(dbPaymentOutbox.claim(2, Duration.ofMinutes(1)).paymentIds()).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("Payment sent back to the outbox while claimed is released and not removed with the claim")
+    void testAddIfAbsentWhileClaimed() {
+        //given
+        dbPaymentOutbox.add(List.of("first"), null);
+        PaymentOutboxClaim claim = dbPaymentOutbox.claim(1, Duration.ofMinutes(1));
+
+        //when
+        dbPaymentOutbox.addIfAbsent(List.of("first"));
+        dbPaymentOutbox.remove(claim, List.of("first"));
+
+        //then
+        assertThat(dbPaymentOutbox.claim(1, Duration.ofMinutes(1)).paymentIds()).containsExactly("first");
+    }
+
+    @Test
+    @DisplayName("Trace context is kept for payments added with one")
+    void testTraceContexts() {
+        //given
+        String traceContext = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+        dbPaymentOutbox.add(List.of("first"), traceContext);
+        dbPaymentOutbox.add(List.of("second"), null);
+
+        //when
+        Map<String, String> traceContexts = dbPaymentOutbox.traceContexts(List.of("first", "second", "third"));
+
+        //then
+        assertThat(traceContexts).containsExactly(Map.entry("first", traceContext));
+    }
+
+    @Test
+    @DisplayName("Payments already in the outbox are not added twice")
+    void testAddIfAbsent() {
+        //given
+        dbPaymentOutbox.add(List.of("first"), null);
+
+        //when
+        dbPaymentOutbox.addIfAbsent(List.of("first", "second"));
+
+        //then
+        assertThat(paymentOutboxRepository.findAll()).extracting(PaymentOutboxEntity::getPaymentId)
+                .containsExactlyInAnyOrder("first", "second");
+    }
+
+    @Test
+    @DisplayName("Only undecided payments not in the outbox yet are recovered")
+    void testAddUnfinishedPayments() {
+        //given
+        String newPayment = savePayment(PaymentStatus.NEW);
+        String verifyingPayment = savePayment(PaymentStatus.VERIFYING);
+        savePayment(PaymentStatus.ACCEPTED);
+        savePayment(PaymentStatus.REJECTED);
+        String paymentInOutbox = savePayment(PaymentStatus.NEW);
+        dbPaymentOutbox.add(List.of(paymentInOutbox), null);
+
+        //when
+        int recovered = dbPaymentOutbox.addUnfinishedPayments(Instant.now());
+
+        //then
+        assertThat(recovered).isEqualTo(2);
+        assertThat(dbPaymentOutbox.claim(10, Duration.ofMinutes(1)).paymentIds())
+                .containsExactlyInAnyOrder(newPayment, verifyingPayment, paymentInOutbox);
+    }
+
+    private String savePayment(PaymentStatus paymentStatus) {
+        return paymentRepository.save(PaymentEntity.fromPayment(PaymentFactory.createPayment(builder -> builder
+                .id(null)
+                .paymentStatus(paymentStatus)))).getId();
+    }
+}
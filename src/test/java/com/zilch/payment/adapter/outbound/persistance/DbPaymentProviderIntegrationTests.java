@@ -3,12 +3,15 @@ package com.zilch.payment.adapter.outbound.persistance;
 import com.zilch.payment.PaymentFactory;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.VerificationType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +26,9 @@ class DbPaymentProviderIntegrationTests {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private DbPaymentVerificationProvider dbPaymentVerificationProvider;
+
     @Test
     @DisplayName("Test save payment")
     void testSave() {
@@ -62,6 +68,42 @@ class DbPaymentProviderIntegrationTests {
         assertThat(result.get().paymentStatus()).isEqualTo(payment.paymentStatus());
     }
 
+    @Test
+    @DisplayName("Test get payment by id with its verifications")
+    void testGetByIdWithVerifications() {
+        //given
+        String paymentId = paymentRepository.save(PaymentEntity.fromPayment(PaymentFactory.createPayment(builder -> builder.id(null)))).getId();
+        List<PaymentVerification> verifications = dbPaymentVerificationProvider.saveAll(List.of(
+                PaymentFactory.createPaymentVerification(builder -> builder.paymentId(paymentId)),
+                PaymentFactory.createPaymentVerification(builder -> builder.paymentId(paymentId).verificationType(VerificationType.ACCOUNT_STATUS_CHECK))));
+
+        //when
+        Optional<Payment> result = dbPaymentProvider.getById(paymentId);
+
+        //then
+        assertThat(result).isPresent();
+        assertThat(result.get().paymentVerifications()).containsExactlyInAnyOrderElementsOf(verifications);
+    }
+
+    @Test
+    @DisplayName("Test get payments by ids with their verifications")
+    void testGetAllByIds() {
+        //given
+        String firstId = paymentRepository.save(PaymentEntity.fromPayment(PaymentFactory.createPayment(builder -> builder.id(null)))).getId();
+        String secondId = paymentRepository.save(PaymentEntity.fromPayment(PaymentFactory.createPayment(builder -> builder.id(null)))).getId();
+        List<PaymentVerification> verifications = dbPaymentVerificationProvider.saveAll(List.of(
+                PaymentFactory.createPaymentVerification(builder -> builder.paymentId(secondId)),
+                PaymentFactory.createPaymentVerification(builder -> builder.paymentId(secondId).verificationType(VerificationType.ACCOUNT_STATUS_CHECK))));
+
+        //when
+        List<Payment> result = dbPaymentProvider.getAllByIds(List.of(secondId, "unexistingpaymentid", firstId));
+
+        //then
+        assertThat(result).extracting(Payment::id).containsExactly(secondId, firstId);
+        assertThat(result.get(0).paymentVerifications()).containsExactlyInAnyOrderElementsOf(verifications);
+        assertThat(result.get(1).paymentVerifications()).isEmpty();
+    }
+
     @Test
     @DisplayName("Test update payment status")
     void testSetPaymentStatus() {
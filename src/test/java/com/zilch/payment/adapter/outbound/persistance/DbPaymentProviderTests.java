@@ -1,17 +1,25 @@
 package com.zilch.payment.adapter.outbound.persistance;
 
 import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.PersistenceConfigProperties;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -23,6 +31,12 @@ class DbPaymentProviderTests {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private StatusWriteBehindBuffer writeBehindBuffer;
+
+    @Spy
+    private PaymentCache paymentCache = new PaymentCache(new PersistenceConfigProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private DbPaymentProvider dbPaymentProvider;
 
@@ -43,6 +57,22 @@ class DbPaymentProviderTests {
         verify(paymentRepository).save(any(PaymentEntity.class));
     }
 
+    @Test
+    @DisplayName("Given valid payments, when saving all, then repository should save them together")
+    void givenValidPayments_whenSavingAll_thenRepositoryShouldSaveThemTogether() {
+        // Given
+        Payment second = PaymentFactory.createPayment(paymentBuilder -> paymentBuilder.paymentVerifications(Collections.emptyList()));
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<Payment> savedPayments = dbPaymentProvider.saveAll(List.of(PAYMENT, second));
+
+        // Then
+        assertThat(savedPayments).containsExactly(PAYMENT, second);
+        verify(paymentRepository).saveAll(argThat((List<PaymentEntity> entities) -> entities.size() == 2));
+        verify(paymentRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Given repository throws exception, when saving, then exception should be propagated")
     void givenRepositoryThrowsException_whenSaving_thenExceptionShouldBePropagated() {
@@ -59,7 +89,7 @@ class DbPaymentProviderTests {
     @DisplayName("Given existing payment id, when retrieving, then return corresponding payment")
     void givenExistingPaymentId_whenRetrieving_thenReturnCorrespondingPayment() {
         // Given
-        when(paymentRepository.findById(PAYMENT.id())).thenReturn(Optional.of(PaymentEntity.fromPayment(PAYMENT)));
+        when(paymentRepository.findPaymentRows(PAYMENT.id())).thenReturn(List.of(paymentRow(PAYMENT)));
 
         // When
         Optional<Payment> retrievedPayment = dbPaymentProvider.getById(PAYMENT.id());
@@ -72,7 +102,7 @@ class DbPaymentProviderTests {
     @DisplayName("Given non-existing payment id, when retrieving, then return empty optional")
     void givenNonExistingPaymentId_whenRetrieving_thenReturnEmptyOptional() {
         // Given
-        when(paymentRepository.findById("unexistingpaymentid")).thenReturn(Optional.empty());
+        when(paymentRepository.findPaymentRows("unexistingpaymentid")).thenReturn(List.of());
 
         // When
         Optional<Payment> retrievedPayment = dbPaymentProvider.getById("unexistingpaymentid");
@@ -93,6 +123,84 @@ class DbPaymentProviderTests {
 
         // Then
         verify(paymentRepository).updatePaymentStatus(paymentId, PaymentStatus.ACCEPTED);
+        verify(paymentCache).updatePaymentStatus(paymentId, PaymentStatus.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Given write-behind enabled, when updating status, then status should be buffered")
+    void givenWriteBehindEnabled_whenUpdating_thenStatusShouldBeBuffered() {
+        // Given
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+
+        // When
+        dbPaymentProvider.setPaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+
+        // Then
+        verify(writeBehindBuffer).setPaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    @DisplayName("Given write-behind enabled, when retrieving, then return payment with buffered statuses")
+    void givenWriteBehindEnabled_whenRetrieving_thenReturnPaymentWithBufferedStatuses() {
+        // Given
+        Payment bufferedPayment = PAYMENT.toBuilder().paymentStatus(PaymentStatus.ACCEPTED).build();
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        when(paymentRepository.findPaymentRows(PAYMENT.id())).thenReturn(List.of(paymentRow(PAYMENT)));
+        when(writeBehindBuffer.readPayment(any())).thenAnswer(invocation -> invocation.<Supplier<Optional<Payment>>>getArgument(0).get()
+                .map(payment -> payment.equals(PAYMENT) ? bufferedPayment : payment));
+
+        // When
+        Optional<Payment> retrievedPayment = dbPaymentProvider.getById(PAYMENT.id());
+
+        // Then
+        assertThat(retrievedPayment).contains(bufferedPayment);
+    }
+
+    @Test
+    @DisplayName("Given payment with verifications, when retrieving, then return payment with all its verifications")
+    void givenPaymentWithVerifications_whenRetrieving_thenReturnPaymentWithAllVerifications() {
+        // Given
+        PaymentVerification first = PaymentFactory.createPaymentVerification(builder -> builder.paymentId(PAYMENT.id()));
+        PaymentVerification second = PaymentFactory.createPaymentVerification(builder -> builder
+                .paymentId(PAYMENT.id())
+                .verificationType(VerificationType.ACCOUNT_STATUS_CHECK)
+                .verificationStatus(PaymentVerificationStatus.PASSED));
+        when(paymentRepository.findPaymentRows(PAYMENT.id())).thenReturn(List.of(
+                verificationRow(PAYMENT, first), verificationRow(PAYMENT, second)));
+
+        // When
+        Optional<Payment> retrievedPayment = dbPaymentProvider.getById(PAYMENT.id());
+
+        // Then
+        assertThat(retrievedPayment).contains(PAYMENT.toBuilder().paymentVerifications(List.of(first, second)).build());
     }
-}
 
+    @Test
+    @DisplayName("Given payment ids, when retrieving all, then read payments not cached in one query and keep the order of ids")
+    void givenPaymentIds_whenRetrievingAll_thenReadNotCachedInOneQueryInOrderOfIds() {
+        // Given
+        Payment other = PaymentFactory.createPayment(builder -> builder.id("other").paymentVerifications(Collections.emptyList()));
+        when(paymentRepository.findPaymentRows(PAYMENT.id())).thenReturn(List.of(paymentRow(PAYMENT)));
+        dbPaymentProvider.getById(PAYMENT.id());
+        when(paymentRepository.findPaymentRowsByIds(List.of("unexistingpaymentid", other.id()))).thenReturn(List.of(paymentRow(other)));
+
+        // When
+        List<Payment> retrievedPayments = dbPaymentProvider.getAllByIds(List.of("unexistingpaymentid", other.id(), PAYMENT.id()));
+
+        // Then
+        assertThat(retrievedPayments).containsExactly(other, PAYMENT);
+        verify(paymentRepository).findPaymentRowsByIds(any());
+    }
+
+    private static PaymentRow paymentRow(Payment payment) {
+        return new PaymentRow(payment.id(), payment.money().amount(), payment.money().currency(), payment.paymentMethod(),
+                payment.merchant(), payment.paymentStatus(), null, null, null);
+    }
+
+    private static PaymentRow verificationRow(Payment payment, PaymentVerification verification) {
+        return new PaymentRow(payment.id(), payment.money().amount(), payment.money().currency(), payment.paymentMethod(),
+                payment.merchant(), payment.paymentStatus(),
+                verification.id(), verification.verificationType(), verification.verificationStatus());
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,11 +24,14 @@ class DbPaymentVerificationProviderIntegrationTests {
     @Autowired
     private PaymentVerificationRepository paymentVerificationRepository;
 
+    @Autowired
+    private PaymentRepository paymentRepository;
+
     @Test
     @DisplayName("Test save payment verification")
     void testSave() {
         // Given
-        PaymentVerification paymentVerification = PaymentFactory.createPaymentVerification(null);
+        PaymentVerification paymentVerification = PaymentFactory.createPaymentVerification(builder -> builder.paymentId(savePayment()));
 
         // When
         PaymentVerification result = dbPaymentVerificationProvider.save(paymentVerification);
@@ -39,20 +43,41 @@ class DbPaymentVerificationProviderIntegrationTests {
         assertThat(result.verificationStatus()).isEqualTo(paymentVerification.verificationStatus());
     }
 
+    @Test
+    @DisplayName("Test save all payment verifications")
+    void testSaveAll() {
+        // Given
+        PaymentVerification first = PaymentFactory.createPaymentVerification(builder -> builder.paymentId(savePayment()));
+        PaymentVerification second = PaymentFactory.createPaymentVerification(builder -> builder.paymentId(first.paymentId()));
+
+        // When
+        List<PaymentVerification> result = dbPaymentVerificationProvider.saveAll(List.of(first, second));
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(PaymentVerification::id).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(paymentVerificationRepository.findAllById(result.stream().map(PaymentVerification::id).toList())).hasSize(2);
+    }
+
     @Test
     @DisplayName("Test update payment verification status")
     void testUpdateStatus() {
         // Given
-        PaymentVerification paymentVerification = PaymentFactory.createPaymentVerification(null);
+        PaymentVerification paymentVerification = PaymentFactory.createPaymentVerification(builder -> builder.paymentId(savePayment()));
         PaymentVerificationEntity paymentVerificationEntity = PaymentVerificationEntity.fromPaymentVerification(paymentVerification);
         Long verificationId = paymentVerificationRepository.save(paymentVerificationEntity).getId();
 
         // When
-        dbPaymentVerificationProvider.updateStatus(verificationId, PaymentVerificationStatus.PASSED);
+        dbPaymentVerificationProvider.updateStatus(paymentVerification.paymentId(), verificationId, PaymentVerificationStatus.PASSED);
 
         // Then
         Optional<PaymentVerificationEntity> updatedEntity = paymentVerificationRepository.findById(verificationId);
         assertThat(updatedEntity).isPresent();
         assertThat(updatedEntity.get().getVerificationStatus()).isEqualTo(PaymentVerificationStatus.PASSED);
     }
+
+    //Verifications reference an existing payment
+    private String savePayment() {
+        return paymentRepository.save(PaymentEntity.fromPayment(PaymentFactory.createPayment(builder -> builder.id(null)))).getId();
+    }
 }
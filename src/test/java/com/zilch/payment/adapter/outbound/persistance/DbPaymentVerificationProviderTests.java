@@ -1,6 +1,7 @@
 package com.zilch.payment.adapter.outbound.persistance;
 
 import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +11,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -19,6 +25,12 @@ class DbPaymentVerificationProviderTests {
     @Mock
     private PaymentVerificationRepository paymentVerificationRepository;
 
+    @Mock
+    private StatusWriteBehindBuffer writeBehindBuffer;
+
+    @Mock
+    private PaymentCache paymentCache;
+
     @InjectMocks
     private DbPaymentVerificationProvider dbPaymentVerificationProvider;
 
@@ -64,9 +76,96 @@ class DbPaymentVerificationProviderTests {
         doNothing().when(paymentVerificationRepository).updatePaymentVerificationStatus(verificationId, PaymentVerificationStatus.PASSED);
 
         // When
-        dbPaymentVerificationProvider.updateStatus(verificationId, PaymentVerificationStatus.PASSED);
+        dbPaymentVerificationProvider.updateStatus(PAYMENT_VERIFICATION.paymentId(), verificationId, PaymentVerificationStatus.PASSED);
 
         // Then
         verify(paymentVerificationRepository).updatePaymentVerificationStatus(verificationId, PaymentVerificationStatus.PASSED);
+        verify(paymentCache).updateVerificationStatuses(PAYMENT_VERIFICATION.paymentId(), Map.of(verificationId, PaymentVerificationStatus.PASSED));
+    }
+
+    @Test
+    @DisplayName("Given statuses of several verifications, when updating statuses, then repository should update them grouped by status")
+    void givenSeveralVerificationStatuses_whenUpdatingStatuses_thenRepositoryShouldUpdateGroupedByStatus() {
+        // Given
+        Map<Long, PaymentVerificationStatus> statuses = Map.of(
+                1L, PaymentVerificationStatus.PASSED,
+                2L, PaymentVerificationStatus.FAILED
+        );
+
+        // When
+        dbPaymentVerificationProvider.updateStatuses(PAYMENT_VERIFICATION.paymentId(), statuses);
+
+        // Then
+        verify(paymentVerificationRepository).updatePaymentVerificationStatuses(List.of(1L), PaymentVerificationStatus.PASSED);
+        verify(paymentVerificationRepository).updatePaymentVerificationStatuses(List.of(2L), PaymentVerificationStatus.FAILED);
+        verifyNoMoreInteractions(paymentVerificationRepository);
+        verify(paymentCache).updateVerificationStatuses(PAYMENT_VERIFICATION.paymentId(), statuses);
+    }
+
+    @Test
+    @DisplayName("Given several payment verifications, when saving all, then repository should save them at once")
+    void givenSeveralPaymentVerifications_whenSavingAll_thenRepositoryShouldSaveThemAtOnce() {
+        // Given
+        PaymentVerification otherVerification = PaymentFactory.createPaymentVerification(null);
+        when(paymentVerificationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<PaymentVerification> result = dbPaymentVerificationProvider.saveAll(List.of(PAYMENT_VERIFICATION, otherVerification));
+
+        // Then
+        verify(paymentVerificationRepository).saveAll(argThat((List<PaymentVerificationEntity> entities) -> entities.size() == 2));
+        verifyNoMoreInteractions(paymentVerificationRepository);
+        assertThat(result).extracting(PaymentVerification::paymentId)
+                .containsExactly(PAYMENT_VERIFICATION.paymentId(), otherVerification.paymentId());
+        verify(paymentCache).invalidate(PAYMENT_VERIFICATION.paymentId());
+        verify(paymentCache).invalidate(otherVerification.paymentId());
+    }
+
+    @Test
+    @DisplayName("Given write-behind enabled, when updating statuses, then statuses should be buffered")
+    void givenWriteBehindEnabled_whenUpdatingStatuses_thenStatusesShouldBeBuffered() {
+        // Given
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+
+        // When
+        dbPaymentVerificationProvider.updateStatus(PAYMENT_VERIFICATION.paymentId(), 1L, PaymentVerificationStatus.PASSED);
+        dbPaymentVerificationProvider.updateStatuses(PAYMENT_VERIFICATION.paymentId(), Map.of(2L, PaymentVerificationStatus.FAILED));
+
+        // Then
+        verify(writeBehindBuffer).setVerificationStatus(1L, PaymentVerificationStatus.PASSED);
+        verify(writeBehindBuffer).setVerificationStatus(2L, PaymentVerificationStatus.FAILED);
+        verifyNoInteractions(paymentVerificationRepository);
+    }
+
+    @Test
+    @DisplayName("Given payment id, when getting statuses, then return statuses of its verifications")
+    void givenPaymentId_whenGettingStatuses_thenReturnStatusesOfItsVerifications() {
+        // Given
+        when(paymentVerificationRepository.findStatusesByPaymentId(PAYMENT_VERIFICATION.paymentId())).thenReturn(List.of(
+                new VerificationStatusRow(1L, PaymentVerificationStatus.PASSED),
+                new VerificationStatusRow(2L, PaymentVerificationStatus.SCHEDULED)));
+
+        // When
+        Map<Long, PaymentVerificationStatus> statuses = dbPaymentVerificationProvider.getStatuses(PAYMENT_VERIFICATION.paymentId());
+
+        // Then
+        assertThat(statuses).containsExactlyInAnyOrderEntriesOf(Map.of(
+                1L, PaymentVerificationStatus.PASSED,
+                2L, PaymentVerificationStatus.SCHEDULED));
+    }
+
+    @Test
+    @DisplayName("Given cached payment, when getting statuses, then return statuses without querying repository")
+    void givenCachedPayment_whenGettingStatuses_thenReturnStatusesWithoutQueryingRepository() {
+        // Given
+        Payment payment = PaymentFactory.createPayment(builder -> builder.paymentVerifications(List.of(PAYMENT_VERIFICATION)));
+        when(paymentCache.getIfPresent(payment.id())).thenReturn(Optional.of(payment));
+
+        // When
+        Map<Long, PaymentVerificationStatus> statuses = dbPaymentVerificationProvider.getStatuses(payment.id());
+
+        // Then
+        assertThat(statuses).containsExactlyEntriesOf(Map.of(PAYMENT_VERIFICATION.id(), PAYMENT_VERIFICATION.verificationStatus()));
+        verifyNoInteractions(paymentVerificationRepository);
     }
 }
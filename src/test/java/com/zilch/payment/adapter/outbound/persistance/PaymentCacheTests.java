@@ -0,0 +1,141 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.PersistenceConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentCacheTests {
+
+    private static final Payment PAYMENT = PaymentFactory.createPayment(null);
+    private static final PaymentVerification VERIFICATION = PAYMENT.paymentVerifications().get(0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private PaymentCache paymentCache;
+
+    @BeforeEach
+    void setUp() {
+        PersistenceConfigProperties properties = new PersistenceConfigProperties();
+        properties.getCache().setEnabled(true);
+        paymentCache = new PaymentCache(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Load payment once and serve next reads from memory")
+    void get_whenPaymentCached_thenDoNotLoadAgain() {
+        // When
+        paymentCache.get(PAYMENT.id(), this::load);
+        Optional<Payment> result = paymentCache.get(PAYMENT.id(), this::load);
+
+        // Then
+        assertThat(result).contains(PAYMENT);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Do not cache missing payment")
+    void get_whenPaymentMissing_thenDoNotCache() {
+        // When
+        paymentCache.get("missing", id -> Optional.empty());
+
+        // Then
+        assertThat(paymentCache.getIfPresent("missing")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Update cached payment and verification statuses in place")
+    void update_whenPaymentCached_thenUpdateInPlace() {
+        // Given
+        paymentCache.get(PAYMENT.id(), this::load);
+
+        // When
+        paymentCache.updateVerificationStatuses(PAYMENT.id(), Map.of(VERIFICATION.id(), PaymentVerificationStatus.FAILED));
+        paymentCache.updatePaymentStatus(PAYMENT.id(), PaymentStatus.REJECTED);
+
+        // Then
+        Payment cached = paymentCache.get(PAYMENT.id(), this::load).orElseThrow();
+        assertThat(cached.paymentStatus()).isEqualTo(PaymentStatus.REJECTED);
+        assertThat(cached.paymentVerifications()).singleElement()
+                .extracting(PaymentVerification::verificationStatus).isEqualTo(PaymentVerificationStatus.FAILED);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Apply change to cached payment only after the transaction commits")
+    void update_whenTransactionActive_thenApplyAfterCommit() {
+        // Given
+        paymentCache.get(PAYMENT.id(), this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            paymentCache.updatePaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+
+            // Then
+            assertThat(paymentCache.getIfPresent(PAYMENT.id())).get()
+                    .extracting(Payment::paymentStatus).isEqualTo(PAYMENT.paymentStatus());
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertThat(paymentCache.getIfPresent(PAYMENT.id())).get()
+                    .extracting(Payment::paymentStatus).isEqualTo(PaymentStatus.ACCEPTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Load payment again after invalidation")
+    void invalidate_whenPaymentCached_thenLoadAgain() {
+        // Given
+        paymentCache.get(PAYMENT.id(), this::load);
+
+        // When
+        paymentCache.invalidate(PAYMENT.id());
+        paymentCache.get(PAYMENT.id(), this::load);
+
+        // Then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Load only payments not cached and do not cache them")
+    void getAll_whenSomePaymentsCached_thenLoadMissingOnesOnly() {
+        // Given
+        Payment other = PaymentFactory.createPayment(builder -> builder.id("other"));
+        paymentCache.get(PAYMENT.id(), this::load);
+        List<List<String>> loadedIds = new ArrayList<>();
+
+        // When
+        List<Payment> result = paymentCache.getAll(List.of(PAYMENT.id(), other.id()), ids -> {
+            loadedIds.add(ids);
+            return List.of(other);
+        });
+
+        // Then
+        assertThat(result).containsExactlyInAnyOrder(PAYMENT, other);
+        assertThat(loadedIds).containsExactly(List.of(other.id()));
+        assertThat(paymentCache.getIfPresent(other.id())).isEmpty();
+    }
+
+    private Optional<Payment> load(String paymentId) {
+        loads.incrementAndGet();
+        return Optional.of(PAYMENT);
+    }
+}
@@ -0,0 +1,58 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.persistence.writeBehind.enabled=true")
+@ActiveProfiles("h2")
+class StatusWriteBehindBufferIntegrationTests {
+
+    @Autowired
+    private DbPaymentProvider dbPaymentProvider;
+
+    @Autowired
+    private DbPaymentVerificationProvider dbPaymentVerificationProvider;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentVerificationRepository paymentVerificationRepository;
+
+    @Autowired
+    private StatusWriteBehindBuffer writeBehindBuffer;
+
+    @Test
+    @DisplayName("Test buffered statuses are visible at once and written on flush")
+    void testSetStatusesAndFlush() {
+        // Given
+        Payment payment = dbPaymentProvider.save(PaymentFactory.createPayment(builder -> builder.id(null)));
+        PaymentVerification verification = dbPaymentVerificationProvider.save(
+                PaymentFactory.createPaymentVerification(builder -> builder.paymentId(payment.id())));
+
+        // When
+        dbPaymentVerificationProvider.updateStatus(payment.id(), verification.id(), PaymentVerificationStatus.PASSED);
+        dbPaymentProvider.setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+
+        // Then
+        Payment bufferedPayment = dbPaymentProvider.getById(payment.id()).orElseThrow();
+        assertThat(bufferedPayment.paymentStatus()).isEqualTo(PaymentStatus.ACCEPTED);
+        assertThat(bufferedPayment.paymentVerifications()).singleElement()
+                .extracting(PaymentVerification::verificationStatus).isEqualTo(PaymentVerificationStatus.PASSED);
+
+        writeBehindBuffer.flush();
+        assertThat(paymentRepository.findById(payment.id()).orElseThrow().getPaymentStatus()).isEqualTo(PaymentStatus.ACCEPTED);
+        assertThat(paymentVerificationRepository.findById(verification.id()).orElseThrow().getVerificationStatus())
+                .isEqualTo(PaymentVerificationStatus.PASSED);
+    }
+}
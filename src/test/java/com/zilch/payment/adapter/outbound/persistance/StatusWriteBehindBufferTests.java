@@ -0,0 +1,162 @@
+package com.zilch.payment.adapter.outbound.persistance;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.PersistenceConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusWriteBehindBufferTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StatusWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        PersistenceConfigProperties properties = new PersistenceConfigProperties();
+        properties.getWriteBehind().setEnabled(true);
+        //Long enough to flush only when the test asks for it
+        properties.getWriteBehind().setMaxDelay(Duration.ofMinutes(1));
+        properties.getWriteBehind().setMaxBatchSize(3);
+        buffer = new StatusWriteBehindBuffer(properties, jdbcTemplate, transactionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Write only the latest status of every row in one transaction")
+    void flush_whenSameRowUpdatedTwice_thenWriteLatestStatusOnce() {
+        // Given
+        buffer.setVerificationStatus(1L, PaymentVerificationStatus.ERROR);
+        buffer.setVerificationStatus(1L, PaymentVerificationStatus.PASSED);
+        buffer.setPaymentStatus("payment-1", PaymentStatus.ACCEPTED);
+
+        // When
+        buffer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> verificationRows = ArgumentCaptor.captor();
+        verify(jdbcTemplate).batchUpdate(contains("payments_verifications"), verificationRows.capture());
+        assertThat(verificationRows.getValue()).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly("PASSED", row[1], 1L));
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE payments SET"), anyList());
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("payment.status.writebehind.batch.size").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("payment.status.writebehind.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Read buffered statuses before they are flushed")
+    void overlay_whenStatusesBuffered_thenApplyThem() {
+        // Given
+        Payment payment = PaymentFactory.createPayment(null);
+        PaymentVerification verification = payment.paymentVerifications().get(0);
+        buffer.setVerificationStatus(verification.id(), PaymentVerificationStatus.FAILED);
+        buffer.setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+
+        // When
+        Payment result = buffer.overlay(payment);
+
+        // Then
+        assertThat(result.paymentStatus()).isEqualTo(PaymentStatus.REJECTED);
+        assertThat(result.paymentVerifications()).singleElement()
+                .extracting(PaymentVerification::verificationStatus).isEqualTo(PaymentVerificationStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Apply statuses flushed while the DB read was running")
+    void readPayment_whenFlushCommittedDuringDbRead_thenApplyFlushedStatuses() throws Exception {
+        // Given
+        Payment payment = PaymentFactory.createPayment(null);
+        buffer.setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
+        CountDownLatch committed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            committed.countDown();
+            return null;
+        }).when(transactionManager).commit(any());
+        List<CompletableFuture<Void>> flush = new ArrayList<>();
+
+        // When
+        Optional<Payment> result = buffer.readPayment(() -> {
+            flush.add(CompletableFuture.runAsync(buffer::flush));
+            try {
+                assertThat(committed.await(1, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            //Read from the DB before the flush committed
+            return Optional.of(payment);
+        });
+
+        // Then
+        assertThat(result).get().extracting(Payment::paymentStatus).isEqualTo(PaymentStatus.ACCEPTED);
+        flush.get(0).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Keep updates buffered when flush fails, without overwriting newer ones")
+    void flush_whenWriteFails_thenRetryWithNextBatch() {
+        // Given
+        buffer.setPaymentStatus("payment-1", PaymentStatus.VERIFYING);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("Database error"));
+        buffer.flush();
+        buffer.setPaymentStatus("payment-1", PaymentStatus.ACCEPTED);
+        reset(jdbcTemplate);
+
+        // When
+        buffer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> paymentRows = ArgumentCaptor.captor();
+        verify(jdbcTemplate).batchUpdate(anyString(), paymentRows.capture());
+        assertThat(paymentRows.getValue()).singleElement()
+                .satisfies(row -> assertThat(row[0]).isEqualTo("ACCEPTED"));
+    }
+
+    @Test
+    @DisplayName("Flush before max delay when max batch size is reached")
+    void setVerificationStatus_whenMaxBatchSizeReached_thenFlush() {
+        // When
+        buffer.setVerificationStatus(1L, PaymentVerificationStatus.PASSED);
+        buffer.setVerificationStatus(2L, PaymentVerificationStatus.PASSED);
+        buffer.setVerificationStatus(3L, PaymentVerificationStatus.PASSED);
+
+        // Then
+        verify(jdbcTemplate, timeout(1000)).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 3));
+    }
+}
@@ -0,0 +1,129 @@
+package com.zilch.payment.adapter.outbound.rates;
+
+import com.zilch.payment.application.ExchangeRates;
+import com.zilch.payment.config.ExchangeRatesConfigProperties;
+import com.zilch.payment.domain.payment.enums.Currency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class FileExchangeRateProviderTests {
+
+    private static final String RATES = """
+            #from,to,rate
+            USD,EUR,0.92
+            USD,GBP,0.78
+            """;
+
+    @TempDir
+    private Path directory;
+
+    private final ExchangeRatesConfigProperties properties = new ExchangeRatesConfigProperties();
+
+    private FileExchangeRateProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties.setFile(directory.resolve("rates.csv"));
+        Files.writeString(properties.getFile(), RATES);
+        provider = new FileExchangeRateProvider(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.shutdown();
+    }
+
+    @Test
+    @DisplayName("Load rates from file and derive missing pairs through the pivot currency")
+    void exchangeRates_whenStarted_thenLoadFile() {
+        // When
+        ExchangeRates rates = provider.exchangeRates();
+
+        // Then
+        assertThat(rates.rate(Currency.USD, Currency.EUR)).isEqualByComparingTo("0.92");
+        assertThat(rates.rate(Currency.EUR, Currency.GBP)).isEqualByComparingTo("0.847826");
+        assertThat(rates.version()).hasSize(12);
+        assertThat(rates.timestamp()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Swap in new rates with a new version when the file is replaced")
+    void exchangeRates_whenFileReplaced_thenReload() throws IOException {
+        // Given
+        ExchangeRates initial = provider.exchangeRates();
+        Path update = directory.resolve("rates.csv.tmp");
+        Files.writeString(update, RATES.replace("0.92", "0.95"));
+
+        // When
+        Files.move(update, properties.getFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Then
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(provider.exchangeRates().rate(Currency.USD, Currency.EUR)).isEqualByComparingTo("0.95"));
+        assertThat(provider.exchangeRates().version()).isNotEqualTo(initial.version());
+        assertThat(initial.rate(Currency.USD, Currency.EUR)).isEqualByComparingTo("0.92");
+    }
+
+    @Test
+    @DisplayName("Keep current rates when the file cannot be parsed")
+    void reload_whenFileInvalid_thenKeepRates() throws IOException {
+        // Given
+        ExchangeRates initial = provider.exchangeRates();
+        Files.writeString(properties.getFile(), "USD,EUR,abc\n");
+
+        // When
+        provider.reload();
+
+        // Then
+        assertThat(provider.exchangeRates()).isSameAs(initial);
+    }
+
+    @Test
+    @DisplayName("Keep current rates when the file does not cover all currency pairs")
+    void reload_whenRatesIncomplete_thenKeepRates() throws IOException {
+        // Given
+        ExchangeRates initial = provider.exchangeRates();
+        Files.writeString(properties.getFile(), "USD,EUR,0.95\n");
+
+        // When
+        provider.reload();
+
+        // Then
+        assertThat(provider.exchangeRates()).isSameAs(initial);
+    }
+
+    @Test
+    @DisplayName("Fail to start without the rates file")
+    void constructor_whenFileMissing_thenThrow() {
+        // Given
+        properties.setFile(directory.resolve("missing.csv"));
+
+        // When & Then
+        assertThatThrownBy(() -> new FileExchangeRateProvider(properties)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @DisplayName("Parse rates and report the line of an invalid one")
+    void parse_whenLineInvalid_thenThrowWithLineNumber() {
+        // When & Then
+        assertThat(FileExchangeRateProvider.parse(RATES).get(Currency.USD).get(Currency.GBP)).isEqualByComparingTo(new BigDecimal("0.78"));
+        assertThatThrownBy(() -> FileExchangeRateProvider.parse("USD,EUR,0.92\n\nUSD,XYZ,1.1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid exchange rate on line 3: USD,XYZ,1.1");
+    }
+}
@@ -1,5 +1,6 @@
 package com.zilch.payment.application;
 
+import com.zilch.payment.domain.money.Conversion;
 import com.zilch.payment.domain.money.Money;
 import com.zilch.payment.domain.payment.enums.Currency;
 import org.junit.jupiter.api.DisplayName;
@@ -11,6 +12,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -18,6 +21,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class CurrencyConverterServiceTests {
 
+    private static final Instant RATES_TIMESTAMP = Instant.parse("2026-01-01T00:00:00Z");
+
     @Mock
     private CurrencyConverterService.ExchangeRateProvider exchangeRateProvider;
 
@@ -51,7 +56,7 @@ public class CurrencyConverterServiceTests {
                 .build();
         Currency targetCurrency = Currency.EUR;
         BigDecimal rate = BigDecimal.valueOf(0.85);
-        when(exchangeRateProvider.getExchangeRate(Currency.USD, Currency.EUR)).thenReturn(rate);
+        when(exchangeRateProvider.exchangeRates()).thenReturn(exchangeRates(rate));
 
         // When
         Money result = currencyConverterService.convert(money, targetCurrency);
@@ -60,7 +65,6 @@ public class CurrencyConverterServiceTests {
         BigDecimal expectedAmount = money.amount().multiply(rate).setScale(2, RoundingMode.HALF_UP);
         assertThat(result.amount()).as("Converted amount should be multiplied by rate and rounded correctly").isEqualTo(expectedAmount);
         assertThat(result.currency()).as("Currency should be updated to target currency").isEqualTo(targetCurrency);
-        verify(exchangeRateProvider).getExchangeRate(Currency.USD, Currency.EUR);
     }
 
     @Test
@@ -73,7 +77,7 @@ public class CurrencyConverterServiceTests {
                 .build();
         Currency targetCurrency = Currency.EUR;
         BigDecimal rate = BigDecimal.valueOf(1.2345);
-        when(exchangeRateProvider.getExchangeRate(Currency.USD, Currency.EUR)).thenReturn(rate);
+        when(exchangeRateProvider.exchangeRates()).thenReturn(exchangeRates(rate));
 
         // When
         Money result = currencyConverterService.convert(money, targetCurrency);
@@ -82,7 +86,6 @@ public class CurrencyConverterServiceTests {
         BigDecimal expectedAmount = money.amount().multiply(rate).setScale(2, RoundingMode.HALF_UP);
         assertThat(result.amount()).as("Amount should be rounded using HALF_UP to two decimals").isEqualTo(expectedAmount);
         assertThat(result.currency()).as("Currency should be converted to the target currency").isEqualTo(targetCurrency);
-        verify(exchangeRateProvider).getExchangeRate(Currency.USD, Currency.EUR);
     }
 
     @Test
@@ -95,7 +98,7 @@ public class CurrencyConverterServiceTests {
                 .build();
         Currency targetCurrency = Currency.EUR;
         BigDecimal rate = BigDecimal.valueOf(0.9);
-        when(exchangeRateProvider.getExchangeRate(Currency.USD, Currency.EUR)).thenReturn(rate);
+        when(exchangeRateProvider.exchangeRates()).thenReturn(exchangeRates(rate));
 
         // When
         Money result = currencyConverterService.convert(money, targetCurrency);
@@ -104,6 +107,28 @@ public class CurrencyConverterServiceTests {
         BigDecimal expectedAmount = money.amount().multiply(rate).setScale(2, RoundingMode.HALF_UP);
         assertThat(result.amount()).as("Negative amount should be converted correctly").isEqualTo(expectedAmount);
         assertThat(result.currency()).as("Currency should be converted to the target currency").isEqualTo(targetCurrency);
-        verify(exchangeRateProvider).getExchangeRate(Currency.USD, Currency.EUR);
+    }
+
+    @Test
+    @DisplayName("Should record version and timestamp of the rates used for conversion")
+    public void testConversion_RecordsRatesVersion() {
+        // Given
+        Money money = Money.builder()
+                .amount(BigDecimal.valueOf(100.00))
+                .currency(Currency.USD)
+                .build();
+        when(exchangeRateProvider.exchangeRates()).thenReturn(exchangeRates(BigDecimal.valueOf(0.9)));
+
+        // When
+        Conversion result = currencyConverterService.conversion(money, Currency.EUR);
+
+        // Then
+        assertThat(result.ratesVersion()).isEqualTo("test");
+        assertThat(result.ratesTimestamp()).isEqualTo(RATES_TIMESTAMP);
+        assertThat(result.money().currency()).isEqualTo(Currency.EUR);
+    }
+
+    private static ExchangeRates exchangeRates(BigDecimal usdToEur) {
+        return ExchangeRates.of("test", RATES_TIMESTAMP, Map.of(Currency.USD, Map.of(Currency.EUR, usdToEur)), Currency.USD);
     }
 }
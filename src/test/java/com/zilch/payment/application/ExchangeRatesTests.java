@@ -0,0 +1,58 @@
+package com.zilch.payment.application;
+
+import com.zilch.payment.domain.payment.enums.Currency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExchangeRatesTests {
+
+    private static final Instant TIMESTAMP = Instant.parse("2026-01-01T00:00:00Z");
+
+    @ParameterizedTest
+    @CsvSource({
+            "USD, EUR, 0.92",
+            "EUR, USD, 1.086957",
+            "USD, GBP, 0.781250",
+            "GBP, EUR, 1.177600",
+            "EUR, GBP, 0.849185",
+            "GBP, GBP, 1"
+    })
+    @DisplayName("Should derive missing rates from the opposite rate and through the pivot currency")
+    void rate_whenNotQuoted_thenDerive(Currency from, Currency to, BigDecimal expectedRate) {
+        // Given
+        ExchangeRates rates = ExchangeRates.of("v1", TIMESTAMP, Map.of(
+                Currency.USD, Map.of(Currency.EUR, BigDecimal.valueOf(0.92)),
+                Currency.GBP, Map.of(Currency.USD, BigDecimal.valueOf(1.28))
+        ), Currency.USD);
+
+        // When & Then
+        assertThat(rates.rate(from, to)).isEqualByComparingTo(expectedRate);
+        assertThat(rates.isComplete()).isTrue();
+        assertThat(rates.version()).isEqualTo("v1");
+        assertThat(rates.timestamp()).isEqualTo(TIMESTAMP);
+    }
+
+    @Test
+    @DisplayName("Should fail when rate cannot be derived")
+    void rate_whenUnknown_thenThrow() {
+        // Given
+        ExchangeRates rates = ExchangeRates.of("v1", TIMESTAMP, Map.of(
+                Currency.USD, Map.of(Currency.EUR, BigDecimal.valueOf(0.92))
+        ), Currency.USD);
+
+        // When & Then
+        assertThat(rates.isComplete()).isFalse();
+        assertThatThrownBy(() -> rates.rate(Currency.GBP, Currency.EUR))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Exchange rate not found for GBP to EUR");
+    }
+}
@@ -0,0 +1,89 @@
+package com.zilch.payment.application;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentLifecycleMetricsTests {
+
+    private static final Payment PAYMENT = PaymentFactory.createPayment(null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentLifecycleMetrics metrics = new PaymentLifecycleMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("Record creation, time spent in every status and time to decision")
+    void onPaymentStatusChanged_whenDecided_thenRecordLifecycle() {
+        // Given
+        metrics.paymentsCreated(List.of(PAYMENT), System.nanoTime());
+
+        // When
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.VERIFYING));
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.ACCEPTED));
+
+        // Then
+        assertThat(meterRegistry.get("payment.created").counter().count()).isEqualTo(1);
+        assertThat(timer("payment.creation", "request", "single").count()).isEqualTo(1);
+        assertThat(timer("payment.status.duration", "status", "NEW").count()).isEqualTo(1);
+        assertThat(timer("payment.status.duration", "status", "VERIFYING").count()).isEqualTo(1);
+        assertThat(timer("payment.decision", "status", "ACCEPTED").count()).isEqualTo(1);
+        assertThat(timer("payment.decision", "status", "REJECTED").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Count time in VERIFYING once when payment is resumed")
+    void onPaymentStatusChanged_whenVerifyingAgain_thenCountOnce() {
+        // Given
+        metrics.paymentsCreated(List.of(PAYMENT), System.nanoTime());
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.VERIFYING));
+
+        // When
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.VERIFYING));
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.REJECTED));
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.REJECTED));
+
+        // Then
+        assertThat(timer("payment.status.duration", "status", "VERIFYING").count()).isEqualTo(1);
+        assertThat(timer("payment.decision", "status", "REJECTED").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Record batch creation once and track every payment of the batch")
+    void paymentsCreated_whenBatch_thenTrackEveryPayment() {
+        // Given
+        Payment other = PaymentFactory.createPayment(builder -> builder.id("other-payment-id"));
+
+        // When
+        metrics.paymentsCreated(List.of(PAYMENT, other), System.nanoTime());
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.ACCEPTED));
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent(other.id(), PaymentStatus.ACCEPTED));
+
+        // Then
+        assertThat(meterRegistry.get("payment.created").counter().count()).isEqualTo(2);
+        assertThat(timer("payment.creation", "request", "batch").count()).isEqualTo(1);
+        assertThat(timer("payment.decision", "status", "ACCEPTED").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ignore status changes of payments not created by this instance")
+    void onPaymentStatusChanged_whenUnknownPayment_thenIgnore() {
+        // When
+        metrics.onPaymentStatusChanged(new PaymentStatusChangedEvent("unknown", PaymentStatus.ACCEPTED));
+
+        // Then
+        assertThat(timer("payment.decision", "status", "ACCEPTED").count()).isZero();
+    }
+
+    private Timer timer(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).timer();
+    }
+}
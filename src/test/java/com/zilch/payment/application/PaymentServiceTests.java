@@ -4,7 +4,9 @@ import com.zilch.payment.domain.money.Money;
 import com.zilch.payment.domain.payment.FuturePaymentDetails;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.PaymentCreatedEvent;
+import com.zilch.payment.domain.payment.PaymentOutbox;
 import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentsCreatedEvent;
 import com.zilch.payment.domain.payment.enums.Currency;
 import com.zilch.payment.domain.payment.enums.PaymentMethod;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
@@ -18,6 +20,7 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,14 +33,23 @@ class PaymentServiceTests {
     @Mock
     private PaymentProvider paymentProvider;
 
+    @Mock
+    private PaymentOutbox paymentOutbox;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private PaymentLifecycleMetrics paymentLifecycleMetrics;
+
+    @Mock
+    private PaymentTracing paymentTracing;
+
     @InjectMocks
     private PaymentService paymentService;
 
     @Test
-    @DisplayName("When initializing payment, should properly initialize payment and publish event")
+    @DisplayName("When initializing payment, should save it with its outbox row and publish event")
     void initializePayment_ShouldSaveAndPublishEvent() {
         // Given
         BigDecimal amount = new BigDecimal("100.50");
@@ -60,16 +72,54 @@ class PaymentServiceTests {
                 .paymentVerifications(Collections.emptyList())
                 .build();
 
-        when(paymentProvider.save(any(Payment.class))).thenReturn(newPayment);
+        Payment savedPayment = newPayment.toBuilder().id("new-payment-id").build();
+
+        when(paymentProvider.save(any(Payment.class))).thenReturn(savedPayment);
+        when(paymentTracing.currentContext()).thenReturn("trace-context");
 
         // When
         Payment result = paymentService.initializePayment(futurePaymentDetails);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result).isEqualTo(newPayment);
+        assertThat(result).isEqualTo(savedPayment);
         verify(paymentProvider).save(newPayment);
+        verify(paymentOutbox).add(List.of("new-payment-id"), "trace-context");
         verify(eventPublisher).publishEvent(any(PaymentCreatedEvent.class));
+        verify(paymentLifecycleMetrics).paymentsCreated(eq(List.of(savedPayment)), anyLong());
+    }
+
+    @Test
+    @DisplayName("When initializing payments, should save them together and publish one event")
+    void initializePayments_ShouldSaveAllAndPublishOneEvent() {
+        // Given
+        FuturePaymentDetails first = futurePaymentDetails("FirstMerchant");
+        FuturePaymentDetails second = futurePaymentDetails("SecondMerchant");
+        List<Payment> newPayments = List.of(first.toNewPayment(), second.toNewPayment());
+        when(paymentProvider.saveAll(newPayments)).thenReturn(newPayments);
+
+        // When
+        List<Payment> result = paymentService.initializePayments(List.of(first, second));
+
+        // Then
+        assertThat(result).isEqualTo(newPayments);
+        verify(paymentProvider).saveAll(newPayments);
+        verify(paymentProvider, never()).save(any());
+        verify(paymentOutbox).add(newPayments.stream().map(Payment::id).toList(), null);
+        verify(eventPublisher).publishEvent(new PaymentsCreatedEvent(newPayments));
+        verify(paymentLifecycleMetrics).paymentsCreated(eq(newPayments), anyLong());
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("When initializing no payments, should neither save nor publish")
+    void initializePayments_ShouldDoNothing_WhenEmpty() {
+        // When
+        List<Payment> result = paymentService.initializePayments(List.of());
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(paymentProvider, paymentOutbox, eventPublisher);
     }
 
     @Test
@@ -102,4 +152,13 @@ class PaymentServiceTests {
                 .hasMessage("Could not find payment by invalid id");
         verify(paymentProvider).getById(paymentId);
     }
-}
\ No newline at end of file
+
+    private static FuturePaymentDetails futurePaymentDetails(String merchant) {
+        return FuturePaymentDetails.builder()
+                .amount(new BigDecimal("10.00"))
+                .currency(Currency.GBP)
+                .paymentMethod(PaymentMethod.PAY_NOW)
+                .merchant(merchant)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.zilch.payment.application;
+
+import com.zilch.payment.TestTracing;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentTracingTests {
+
+    private final TestTracing testTracing = new TestTracing();
+    private final PaymentTracing paymentTracing = new PaymentTracing(testTracing.tracer(), testTracing.propagator());
+
+    @Test
+    @DisplayName("Continue the trace of the given context in a span of the payment")
+    void inPaymentSpan_whenParentContextGiven_thenContinueItsTrace() {
+        // Given
+        String parentContext = inSpan("request", paymentTracing::currentContext);
+        AtomicReference<String> loggedPaymentId = new AtomicReference<>();
+
+        // When
+        paymentTracing.inPaymentSpan("schedule", "payment-id", parentContext, () -> loggedPaymentId.set(MDC.get("paymentId")));
+
+        // Then
+        SpanData request = testTracing.finishedSpans().get(0);
+        SpanData schedule = testTracing.finishedSpans().get(1);
+        assertThat(schedule.getName()).isEqualTo("schedule");
+        assertThat(schedule.getTraceId()).isEqualTo(request.getTraceId());
+        assertThat(schedule.getParentSpanId()).isEqualTo(request.getSpanId());
+        assertThat(schedule.getAttributes().get(AttributeKey.stringKey("payment.id"))).isEqualTo("payment-id");
+        assertThat(loggedPaymentId).hasValue("payment-id");
+        assertThat(MDC.get("paymentId")).isNull();
+    }
+
+    @Test
+    @DisplayName("Start a new trace when payment has no trace context")
+    void inPaymentSpan_whenNoContext_thenStartTrace() {
+        // When
+        paymentTracing.inPaymentSpan("schedule", "payment-id", null, () -> {});
+
+        // Then
+        assertThat(testTracing.finishedSpans()).singleElement()
+                .satisfies(span -> assertThat(span.getParentSpanContext().isValid()).isFalse());
+    }
+
+    @Test
+    @DisplayName("End the span with the error when action fails")
+    void inPaymentSpan_whenActionFails_thenRecordError() {
+        // When & Then
+        assertThatThrownBy(() -> paymentTracing.inPaymentSpan("schedule", "payment-id", null, () -> {
+            throw new IllegalStateException("Database error");
+        })).hasMessage("Database error");
+        assertThat(testTracing.finishedSpans()).singleElement()
+                .satisfies(span -> assertThat(span.getEvents()).anyMatch(event -> event.getName().equals("exception")));
+    }
+
+    @Test
+    @DisplayName("No trace context outside of a span or without tracing")
+    void currentContext_whenNotTraced_thenNull() {
+        assertThat(paymentTracing.currentContext()).isNull();
+        assertThat(new PaymentTracing(Tracer.NOOP, Propagator.NOOP).currentContext()).isNull();
+    }
+
+    private <T> T inSpan(String name, Supplier<T> action) {
+        Span span = testTracing.tracer().nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = testTracing.tracer().withSpan(span)) {
+            return action.get();
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.zilch.payment.domain.payment.enums.Currency;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.math.BigDecimal;
 
@@ -28,4 +29,14 @@ class StaticRateCurrencyProviderTests {
         assertThat(rate).isEqualByComparingTo(expectedRate);
     }
 
+    @ParameterizedTest
+    @EnumSource(Currency.class)
+    @DisplayName("Should return a rate for every currency pair")
+    void testGetExchangeRateForAllPairs(Currency from) {
+        for (Currency to : Currency.values()) {
+            assertThat(provider.getExchangeRate(from, to)).isPositive();
+        }
+        assertThat(provider.getExchangeRate(from, from)).isEqualByComparingTo(BigDecimal.ONE);
+    }
+
 }
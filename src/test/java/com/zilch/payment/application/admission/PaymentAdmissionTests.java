@@ -0,0 +1,233 @@
+package com.zilch.payment.application.admission;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.AdmissionConfigProperties;
+import com.zilch.payment.config.ThreadPoolConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentAdmissionTests {
+
+    private final AdmissionConfigProperties properties = new AdmissionConfigProperties();
+
+    private PaymentAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        properties.setInitialLimit(2);
+        properties.setMinLimit(1);
+        properties.setTargetDecisionLatency(Duration.ofSeconds(5));
+        admission = admission(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Admit payments up to the limit and reject the rest without creating them")
+    void admit_whenLimitReached_thenReject() {
+        // Given
+        admission.admit(() -> PaymentFactory.createPayment(null));
+        admission.admit(() -> PaymentFactory.createPayment(null));
+
+        // When & Then
+        assertThatThrownBy(() -> admission.admit(() -> {
+            throw new AssertionError("Should not be created");
+        }))
+                .isInstanceOf(PaymentAdmissionRejectedException.class)
+                .extracting("retryAfter").isEqualTo(properties.getRetryAfter());
+        assertThat(admission.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Free the slot of a decided payment and grow the limit when it was decided in time")
+    void onPaymentStatusChanged_whenDecidedInTime_thenFreeSlotAndIncreaseLimit() {
+        // Given
+        Payment payment = admission.admit(() -> PaymentFactory.createPayment(null));
+        admission.admit(() -> PaymentFactory.createPayment(null));
+
+        // When
+        admission.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.ACCEPTED));
+
+        // Then
+        assertThat(admission.inFlight()).isEqualTo(1);
+        assertThat(admission.limit()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Keep the slot when payment is not decided yet")
+    void onPaymentStatusChanged_whenNotTerminal_thenKeepSlot() {
+        // Given
+        Payment payment = admission.admit(() -> PaymentFactory.createPayment(null));
+
+        // When
+        admission.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.VERIFYING));
+
+        // Then
+        assertThat(admission.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Shrink the limit when payment is decided later than the target latency")
+    void onPaymentStatusChanged_whenDecidedLate_thenDecreaseLimit() {
+        // Given
+        properties.setInitialLimit(10);
+        properties.setTargetDecisionLatency(Duration.ZERO);
+        admission = admission(Runnable::run);
+        Payment payment = admission.admit(() -> PaymentFactory.createPayment(null));
+
+        // When
+        admission.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.REJECTED));
+
+        // Then
+        assertThat(admission.limit()).isEqualTo(9);
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Free the slot of a payment decided before its creation returned")
+    void admit_whenDecidedBeforeCreationReturns_thenFreeSlot() {
+        // Given
+        Payment payment = PaymentFactory.createPayment(null);
+
+        // When
+        admission.admit(() -> {
+            //Verified and decided right after the commit, before admission registered the payment
+            admission.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.ACCEPTED));
+            return payment;
+        });
+
+        // Then
+        assertThat(admission.inFlight()).isZero();
+        assertThat(admission.limit()).isEqualTo(2);
+        admission.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.ACCEPTED));
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Give the reservation back when payments cannot be created")
+    void admitAll_whenCreationFails_thenReleaseReservation() {
+        // When & Then
+        assertThatThrownBy(() -> admission.admitAll(2, () -> {
+            throw new IllegalStateException("Database error");
+        })).hasMessage("Database error");
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Admit batch larger than the limit when nothing else is in flight")
+    void admitAll_whenBatchLargerThanLimitAndNothingInFlight_thenAdmit() {
+        // When
+        List<Payment> payments = admission.admitAll(3, () -> List.of(
+                PaymentFactory.createPayment(null), PaymentFactory.createPayment(null), PaymentFactory.createPayment(null)));
+
+        // Then
+        assertThat(payments).hasSize(3);
+        assertThat(admission.inFlight()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Reject payments while verification queue is filled above the threshold")
+    void admit_whenQueueCongested_thenReject() {
+        // Given
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        admission = admission(executor);
+
+        try {
+            // When & Then
+            assertThatThrownBy(() -> admission.admit(() -> PaymentFactory.createPayment(null)))
+                    .isInstanceOf(PaymentAdmissionRejectedException.class)
+                    .hasMessageContaining("queues are full");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Admit every payment when admission control is disabled")
+    void admit_whenDisabled_thenAdmitOverLimit() {
+        // Given
+        properties.setEnabled(false);
+        properties.setInitialLimit(1);
+        admission = admission(Runnable::run);
+
+        // When
+        admission.admit(() -> PaymentFactory.createPayment(null));
+        admission.admit(() -> PaymentFactory.createPayment(null));
+
+        // Then
+        assertThat(admission.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Reject payments while the queue of a verification bulkhead is filled above the threshold")
+    void admit_whenBulkheadQueueCongested_thenReject() {
+        // Given
+        ThreadPoolConfigProperties.ThreadPoolProperties fraudCheck = new ThreadPoolConfigProperties.ThreadPoolProperties();
+        fraudCheck.setCorePoolSize(1);
+        fraudCheck.setMaxPoolSize(1);
+        fraudCheck.setQueueCapacity(2);
+        ThreadPoolConfigProperties threadPoolProperties = new ThreadPoolConfigProperties();
+        threadPoolProperties.getVerificationBulkheads().put(VerificationType.FRAUD_CHECK, fraudCheck);
+        VerificationBulkheads bulkheads = new VerificationBulkheads(Runnable::run, threadPoolProperties, new SimpleMeterRegistry(), Tracer.NOOP);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            bulkheads.executor(VerificationType.FRAUD_CHECK).execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        admission = admission(Runnable::run, bulkheads);
+
+        try {
+            // When & Then
+            assertThatThrownBy(() -> admission.admit(() -> PaymentFactory.createPayment(null)))
+                    .isInstanceOf(PaymentAdmissionRejectedException.class)
+                    .hasMessageContaining("queues are full");
+        } finally {
+            release.countDown();
+            bulkheads.shutdown();
+        }
+    }
+
+    private PaymentAdmission admission(Executor runnerExecutor) {
+        return admission(runnerExecutor, new VerificationBulkheads(Runnable::run, new ThreadPoolConfigProperties(),
+                new SimpleMeterRegistry(), Tracer.NOOP));
+    }
+
+    private PaymentAdmission admission(Executor runnerExecutor, VerificationBulkheads bulkheads) {
+        return new PaymentAdmission(properties, runnerExecutor, Runnable::run, bulkheads, new SimpleMeterRegistry());
+    }
+}
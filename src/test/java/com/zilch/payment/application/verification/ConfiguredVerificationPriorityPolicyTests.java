@@ -0,0 +1,112 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.money.CurrencyConversion;
+import com.zilch.payment.domain.money.Money;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConfiguredVerificationPriorityPolicyTests {
+
+    private static final Money LARGE_AMOUNT = Money.builder().amount(new BigDecimal("1500")).currency(Currency.GBP).build();
+
+    @Mock
+    private CurrencyConversion currencyConversion;
+
+    private final VerificationConfigProperties properties = new VerificationConfigProperties();
+
+    private ConfiguredVerificationPriorityPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        VerificationConfigProperties.Priority priority = properties.getPriority();
+        priority.getPaymentMethods().put(PaymentMethod.PAY_NOW, Duration.ofSeconds(2));
+        priority.setLargeAmount(new BigDecimal("1000"));
+        priority.setLargeAmountHeadStart(Duration.ofMillis(500));
+        priority.getMerchants().put("Premium Merchant", Duration.ofSeconds(1));
+        priority.setMaxHeadStart(Duration.ofSeconds(3));
+        policy = new ConfiguredVerificationPriorityPolicy(properties, currencyConversion);
+    }
+
+    @Test
+    @DisplayName("Give head start by payment method")
+    void headStart_byPaymentMethod() {
+        // Given
+        when(currencyConversion.convert(any(), eq(Currency.EUR))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When & Then
+        assertThat(policy.headStart(payment(PaymentMethod.PAY_NOW, "Test Merchant"))).isEqualTo(Duration.ofSeconds(2));
+        assertThat(policy.headStart(payment(PaymentMethod.PAY_OVER_6_MONTHS, "Test Merchant"))).isZero();
+    }
+
+    @Test
+    @DisplayName("Add head start for amounts at least largeAmount in EUR")
+    void headStart_whenLargeAmount_thenAdd() {
+        // Given
+        when(currencyConversion.convert(LARGE_AMOUNT, Currency.EUR))
+                .thenReturn(Money.builder().amount(new BigDecimal("1750")).currency(Currency.EUR).build());
+        Payment payment = PaymentFactory.createPayment(builder -> builder
+                .paymentMethod(PaymentMethod.PAY_OVER_3_MONTHS)
+                .money(LARGE_AMOUNT));
+
+        // When & Then
+        assertThat(policy.headStart(payment)).isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    @DisplayName("Cap head start of method, amount and merchant at maxHeadStart")
+    void headStart_whenSumOverMax_thenCap() {
+        // Given
+        when(currencyConversion.convert(LARGE_AMOUNT, Currency.EUR))
+                .thenReturn(Money.builder().amount(new BigDecimal("1750")).currency(Currency.EUR).build());
+        Payment payment = PaymentFactory.createPayment(builder -> builder
+                .paymentMethod(PaymentMethod.PAY_NOW)
+                .merchant("Premium Merchant")
+                .money(LARGE_AMOUNT));
+
+        // When & Then
+        assertThat(policy.headStart(payment)).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    @DisplayName("Leave amount out when it cannot be converted to EUR")
+    void headStart_whenConversionFails_thenIgnoreAmount() {
+        // Given
+        when(currencyConversion.convert(any(), eq(Currency.EUR))).thenThrow(new IllegalArgumentException("No rate"));
+
+        // When & Then
+        assertThat(policy.headStart(payment(PaymentMethod.PAY_NOW, "Premium Merchant"))).isEqualTo(Duration.ofSeconds(3));
+        assertThat(policy.headStart(payment(PaymentMethod.PAY_OVER_3_MONTHS, "Test Merchant"))).isZero();
+    }
+
+    @Test
+    @DisplayName("Give no head start when priority is disabled")
+    void headStart_whenDisabled_thenZero() {
+        // Given
+        properties.getPriority().setEnabled(false);
+
+        // When & Then
+        assertThat(policy.headStart(payment(PaymentMethod.PAY_NOW, "Premium Merchant"))).isZero();
+        verifyNoInteractions(currencyConversion);
+    }
+
+    private static Payment payment(PaymentMethod paymentMethod, String merchant) {
+        return PaymentFactory.createPayment(builder -> builder.paymentMethod(paymentMethod).merchant(merchant));
+    }
+}
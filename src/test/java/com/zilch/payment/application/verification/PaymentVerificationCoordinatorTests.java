@@ -0,0 +1,277 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.ThreadPoolConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentStatus;
+import com.zilch.payment.domain.verification.PaymentVerification;
+import com.zilch.payment.domain.verification.PaymentVerificationProvider;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
+import com.zilch.payment.domain.verification.events.PaymentVerificationsScheduledEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentVerificationCoordinatorTests {
+
+    private static final Payment PAYMENT = PaymentFactory.createPayment(null);
+    private static final PaymentVerification ACCOUNT_VERIFICATION = PaymentFactory.createPaymentVerification(builder -> builder
+            .paymentId(PAYMENT.id())
+            .verificationType(VerificationType.ACCOUNT_STATUS_CHECK));
+    private static final PaymentVerification FRAUD_VERIFICATION = PaymentFactory.createPaymentVerification(builder -> builder
+            .paymentId(PAYMENT.id())
+            .verificationType(VerificationType.FRAUD_CHECK));
+    private static final PaymentVerificationsScheduledEvent EVENT = PaymentVerificationsScheduledEvent.builder()
+            .payment(PAYMENT)
+            .paymentVerifications(List.of(ACCOUNT_VERIFICATION, FRAUD_VERIFICATION))
+            .build();
+
+    @Mock
+    private PaymentVerificationRunner paymentVerificationRunner;
+
+    @Mock
+    private PaymentProvider paymentProvider;
+
+    @Mock
+    private PaymentVerificationProvider paymentVerificationProvider;
+
+    @Mock
+    private VerificationCancellationRegistry cancellationRegistry;
+
+    @Mock
+    private VerificationMetrics verificationMetrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RejectedVerificationRetry rejectedVerificationRetry;
+
+    private final VerificationBulkheads verificationBulkheads =
+            new VerificationBulkheads(Runnable::run, new ThreadPoolConfigProperties(), new SimpleMeterRegistry(), Tracer.NOOP);
+
+    private PaymentVerificationCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new PaymentVerificationCoordinator(
+                paymentVerificationRunner, paymentProvider, paymentVerificationProvider, verificationBulkheads, payment -> Duration.ZERO,
+                Runnable::run, cancellationRegistry,
+                verificationMetrics, eventPublisher, rejectedVerificationRetry);
+    }
+
+    @Test
+    @DisplayName("Write all results once and accept payment when all verifications passed")
+    void coordinate_whenAllVerificationsPassed_thenAcceptPayment() {
+        // Given
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        coordinator.coordinate(EVENT).join();
+
+        // Then
+        verify(paymentVerificationProvider).updateStatuses(PAYMENT.id(), Map.of(
+                ACCOUNT_VERIFICATION.id(), PaymentVerificationStatus.PASSED,
+                FRAUD_VERIFICATION.id(), PaymentVerificationStatus.PASSED));
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+        verify(paymentProvider, never()).getById(anyString());
+        verify(eventPublisher).publishEvent(PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(PAYMENT.id())
+                .verificationId(FRAUD_VERIFICATION.id())
+                .verificationType(VerificationType.FRAUD_CHECK)
+                .verificationStatus(PaymentVerificationStatus.PASSED)
+                .build());
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.ACCEPTED));
+        verifyNoInteractions(cancellationRegistry);
+    }
+
+    @Test
+    @DisplayName("Reject payment when any verification failed")
+    void coordinate_whenVerificationFailed_thenRejectPayment() {
+        // Given
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.FAILED);
+
+        // When
+        coordinator.coordinate(EVENT).join();
+
+        // Then
+        verify(paymentVerificationProvider).updateStatuses(PAYMENT.id(), Map.of(
+                ACCOUNT_VERIFICATION.id(), PaymentVerificationStatus.PASSED,
+                FRAUD_VERIFICATION.id(), PaymentVerificationStatus.FAILED));
+        verify(cancellationRegistry).cancel(PAYMENT.id());
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.REJECTED);
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(PAYMENT.id(), PaymentStatus.REJECTED));
+    }
+
+    @Test
+    @DisplayName("Record ERROR and reject payment when verifier throws exception")
+    void coordinate_whenVerifierThrowsException_thenRecordErrorAndRejectPayment() {
+        // Given
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenThrow(new RuntimeException("Verification error"));
+
+        // When
+        coordinator.coordinate(EVENT).join();
+
+        // Then
+        verify(paymentVerificationProvider).updateStatuses(PAYMENT.id(), Map.of(
+                ACCOUNT_VERIFICATION.id(), PaymentVerificationStatus.PASSED,
+                FRAUD_VERIFICATION.id(), PaymentVerificationStatus.ERROR));
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.REJECTED);
+        verify(paymentProvider, never()).setPaymentStatus(anyString(), eq(PaymentStatus.ACCEPTED));
+        verify(paymentVerificationProvider, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Run sequential verifications one by one and skip the rest after failure")
+    void coordinate_whenSequentialVerificationFailed_thenSkipRemaining() {
+        // Given
+        PaymentVerificationsScheduledEvent event = PaymentVerificationsScheduledEvent.builder()
+                .payment(PAYMENT)
+                .paymentVerifications(List.of(FRAUD_VERIFICATION, ACCOUNT_VERIFICATION))
+                .strategy(VerificationStrategy.SEQUENTIAL)
+                .build();
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.FAILED);
+
+        // When
+        coordinator.coordinate(event).join();
+
+        // Then
+        verify(paymentVerificationRunner, never()).verify(eq(PAYMENT), eq(ACCOUNT_VERIFICATION), anyInt());
+        verify(cancellationRegistry).complete(PAYMENT.id());
+        verify(verificationMetrics).verificationSkippedAfterFailure(VerificationType.ACCOUNT_STATUS_CHECK);
+        verify(paymentVerificationProvider).updateStatuses(PAYMENT.id(), Map.of(
+                FRAUD_VERIFICATION.id(), PaymentVerificationStatus.FAILED,
+                ACCOUNT_VERIFICATION.id(), PaymentVerificationStatus.CANCELLED));
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.REJECTED);
+    }
+
+    @Test
+    @DisplayName("Accept payment when all sequential verifications passed")
+    void coordinate_whenAllSequentialVerificationsPassed_thenAcceptPayment() {
+        // Given
+        PaymentVerificationsScheduledEvent event = PaymentVerificationsScheduledEvent.builder()
+                .payment(PAYMENT)
+                .paymentVerifications(List.of(FRAUD_VERIFICATION, ACCOUNT_VERIFICATION))
+                .strategy(VerificationStrategy.SEQUENTIAL)
+                .build();
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        coordinator.coordinate(event).join();
+
+        // Then
+        verify(verificationMetrics, never()).verificationSkippedAfterFailure(any());
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Retry payment through the outbox when results cannot be recorded")
+    void coordinate_whenRecordingResultsFails_thenRetryPayment() {
+        // Given
+        IllegalStateException failure = new IllegalStateException("Database error");
+        when(paymentVerificationRunner.verify(eq(PAYMENT), any(), eq(1))).thenReturn(PaymentVerificationStatus.PASSED);
+        doThrow(failure).when(paymentVerificationProvider).updateStatuses(eq(PAYMENT.id()), any());
+
+        // When
+        coordinator.coordinate(EVENT).exceptionally(e -> null).join();
+
+        // Then
+        verify(rejectedVerificationRetry).retryFailed(PAYMENT.id(), failure);
+        verify(paymentProvider, never()).setPaymentStatus(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Retry payment through the outbox when results cannot be handed to the analyzer")
+    void coordinate_whenAnalyzerRejects_thenRetryPayment() {
+        // Given
+        TaskRejectedException rejection = new TaskRejectedException("Analyzer queue is full");
+        coordinator = new PaymentVerificationCoordinator(
+                paymentVerificationRunner, paymentProvider, paymentVerificationProvider, verificationBulkheads, payment -> Duration.ZERO, task -> {
+                    throw rejection;
+                }, cancellationRegistry, verificationMetrics, eventPublisher, rejectedVerificationRetry);
+        when(paymentVerificationRunner.verify(eq(PAYMENT), any(), eq(1))).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        coordinator.coordinate(EVENT).exceptionally(e -> null).join();
+
+        // Then
+        verify(rejectedVerificationRetry).retry(PAYMENT.id(), rejection);
+        verifyNoInteractions(paymentVerificationProvider);
+    }
+
+    @Test
+    @DisplayName("Run failed verification again after the retry delay and decide on the result of the next attempt")
+    void coordinate_whenAttemptRetried_thenDecideOnNextAttempt() {
+        // Given
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenThrow(
+                new VerificationRetryException("Attempt failed", Duration.ofMillis(10), new RuntimeException("Service unavailable")));
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 2)).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        coordinator.coordinate(EVENT).join();
+
+        // Then
+        verify(verificationMetrics).verificationRetried(VerificationType.FRAUD_CHECK);
+        verify(paymentProvider).setPaymentStatus(PAYMENT.id(), PaymentStatus.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Retry payment through the outbox instead of rejecting it when its next attempt cannot be queued")
+    void coordinate_whenNextAttemptRejected_thenRetryPayment() {
+        // Given
+        TaskRejectedException rejection = new TaskRejectedException("Bulkhead is full");
+        AtomicInteger submitted = new AtomicInteger();
+        ThreadPoolConfigProperties threadPoolProperties = new ThreadPoolConfigProperties();
+        VerificationBulkheads rejectingRetries = new VerificationBulkheads(task -> {
+            if (submitted.incrementAndGet() > 2) {
+                throw rejection;
+            }
+            task.run();
+        }, threadPoolProperties, new SimpleMeterRegistry(), Tracer.NOOP);
+        coordinator = new PaymentVerificationCoordinator(
+                paymentVerificationRunner, paymentProvider, paymentVerificationProvider, rejectingRetries, payment -> Duration.ZERO,
+                Runnable::run, cancellationRegistry, verificationMetrics, eventPublisher, rejectedVerificationRetry);
+        when(paymentVerificationRunner.verify(PAYMENT, ACCOUNT_VERIFICATION, 1)).thenReturn(PaymentVerificationStatus.PASSED);
+        when(paymentVerificationRunner.verify(PAYMENT, FRAUD_VERIFICATION, 1)).thenThrow(
+                new VerificationRetryException("Attempt failed", Duration.ofMillis(10), new RuntimeException("Service unavailable")));
+
+        // When
+        coordinator.coordinate(EVENT).exceptionally(e -> null).join();
+
+        // Then
+        verify(rejectedVerificationRetry).retry(PAYMENT.id(), rejection);
+        verify(cancellationRegistry).complete(PAYMENT.id());
+        verify(cancellationRegistry, never()).cancel(anyString());
+        verifyNoInteractions(paymentVerificationProvider);
+        verify(paymentProvider, never()).setPaymentStatus(anyString(), any());
+    }
+}
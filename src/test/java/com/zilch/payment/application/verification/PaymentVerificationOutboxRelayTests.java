@@ -0,0 +1,166 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.OutboxConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.payment.PaymentOutbox;
+import com.zilch.payment.domain.payment.PaymentOutboxClaim;
+import com.zilch.payment.domain.payment.PaymentProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentVerificationOutboxRelayTests {
+
+    private static final Payment FIRST = PaymentFactory.createPayment(null);
+    private static final Payment SECOND = PaymentFactory.createPayment(null);
+    private static final Payment THIRD = PaymentFactory.createPayment(null);
+
+    @Mock
+    private PaymentOutbox paymentOutbox;
+
+    @Mock
+    private PaymentProvider paymentProvider;
+
+    @Mock
+    private PaymentVerificationScheduler paymentVerificationScheduler;
+
+    private final OutboxConfigProperties properties = new OutboxConfigProperties();
+
+    private PaymentVerificationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setPollInterval(Duration.ofHours(1));
+        relay = new PaymentVerificationOutboxRelay(
+                paymentOutbox, paymentProvider, paymentVerificationScheduler, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        relay.shutdown();
+    }
+
+    @Test
+    @DisplayName("Schedule claimed payments and remove them from the outbox batch by batch")
+    void drain_whenPaymentsClaimed_thenScheduleAndRemoveThem() {
+        // Given
+        when(paymentOutbox.claim(2, properties.getClaimTimeout()))
+                .thenReturn(claim(FIRST.id(), SECOND.id()))
+                .thenReturn(claim(THIRD.id()));
+        mockPayments(FIRST, SECOND);
+        mockPayments(THIRD);
+        when(paymentVerificationScheduler.schedule(any(), any())).thenReturn(List.of());
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(paymentVerificationScheduler).schedule(List.of(FIRST, SECOND), Map.of());
+        verify(paymentOutbox).remove(claim(FIRST.id(), SECOND.id()), List.of(FIRST.id(), SECOND.id()));
+        verify(paymentVerificationScheduler).schedule(List.of(THIRD), Map.of());
+        verify(paymentOutbox).remove(claim(THIRD.id()), List.of(THIRD.id()));
+        verify(paymentOutbox, times(2)).claim(anyInt(), any());
+        verify(paymentOutbox, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("Release deferred payments and stop until the next poll when executors are full")
+    void drain_whenSchedulingDeferred_thenReleaseAndBackOff() {
+        // Given
+        when(paymentOutbox.claim(2, properties.getClaimTimeout())).thenReturn(claim(FIRST.id(), SECOND.id()));
+        mockPayments(FIRST, SECOND);
+        when(paymentVerificationScheduler.schedule(List.of(FIRST, SECOND), Map.of())).thenReturn(List.of(SECOND));
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(paymentOutbox).remove(claim(FIRST.id(), SECOND.id()), List.of(FIRST.id()));
+        verify(paymentOutbox).release(List.of(SECOND.id()));
+        verify(paymentOutbox).claim(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Continue traces of the requests that created the payments")
+    void drain_whenTraceContextsStored_thenPassThemToScheduler() {
+        // Given
+        Map<String, String> traceContexts = Map.of(FIRST.id(), "trace-context");
+        when(paymentOutbox.claim(2, properties.getClaimTimeout())).thenReturn(claim(FIRST.id()));
+        when(paymentOutbox.traceContexts(List.of(FIRST.id()))).thenReturn(traceContexts);
+        mockPayments(FIRST);
+        when(paymentVerificationScheduler.schedule(List.of(FIRST), traceContexts)).thenReturn(List.of());
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(paymentOutbox).remove(claim(FIRST.id()), List.of(FIRST.id()));
+    }
+
+    @Test
+    @DisplayName("Remove outbox rows of payments that no longer exist")
+    void drain_whenPaymentMissing_thenRemoveItsRow() {
+        // Given
+        when(paymentOutbox.claim(2, properties.getClaimTimeout())).thenReturn(claim(FIRST.id()));
+        when(paymentProvider.getAllByIds(List.of(FIRST.id()))).thenReturn(List.of());
+        when(paymentVerificationScheduler.schedule(List.of(), Map.of())).thenReturn(List.of());
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(paymentOutbox).remove(claim(FIRST.id()), List.of(FIRST.id()));
+    }
+
+    @Test
+    @DisplayName("Keep claimed payments in the outbox when they cannot be scheduled")
+    void drain_whenSchedulingFails_thenKeepPaymentsClaimed() {
+        // Given
+        when(paymentOutbox.claim(2, properties.getClaimTimeout())).thenReturn(claim(FIRST.id()));
+        mockPayments(FIRST);
+        when(paymentVerificationScheduler.schedule(List.of(FIRST), Map.of())).thenThrow(new RuntimeException("Database error"));
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(paymentOutbox, never()).remove(any(), any());
+        verify(paymentOutbox, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("Add unfinished payments to the outbox on start")
+    void start_thenRecoverUnfinishedPayments() {
+        // When
+        relay.start();
+
+        // Then
+        verify(paymentOutbox).addUnfinishedPayments(any(Instant.class));
+    }
+
+    private static PaymentOutboxClaim claim(String... paymentIds) {
+        return new PaymentOutboxClaim("claim-id", List.of(paymentIds));
+    }
+
+    //Payments of one claim
+    private void mockPayments(Payment... payments) {
+        when(paymentProvider.getAllByIds(Arrays.stream(payments).map(Payment::id).toList())).thenReturn(List.of(payments));
+    }
+}
@@ -1,16 +1,15 @@
 package com.zilch.payment.application.verification;
 
 import com.zilch.payment.PaymentFactory;
-import com.zilch.payment.domain.money.Money;
-import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.payment.PaymentNotFoundException;
 import com.zilch.payment.domain.payment.PaymentProvider;
-import com.zilch.payment.domain.payment.enums.Currency;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.PaymentVerificationProvider;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.PaymentVerificationStatusChangedEvent;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,13 +18,13 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
-import static java.util.Arrays.asList;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -62,6 +61,15 @@ class PaymentVerificationResultAnalyzerTests {
     @Mock
     private PaymentVerificationProvider paymentVerificationProvider;
 
+    @Mock
+    private VerificationCancellationRegistry cancellationRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VerificationMetrics verificationMetrics;
+
     @InjectMocks
     private PaymentVerificationResultAnalyzer listener;
 
@@ -75,17 +83,17 @@ class PaymentVerificationResultAnalyzerTests {
                 .verificationResult(PaymentVerificationStatus.PASSED)
                 .build();
 
-        Payment payment = createPaymentWithVerifications(
-                asList(PAYMENT_VERIFICATION_PASSED_1, PAYMENT_VERIFICATION_PASSED_2));
-        when(paymentProvider.getById(payment.id())).thenReturn(Optional.of(payment));
+        when(paymentVerificationProvider.getStatuses(PAYMENT_ID))
+                .thenReturn(statusesOf(PAYMENT_VERIFICATION_PASSED_1, PAYMENT_VERIFICATION_PASSED_2));
 
         // When
         listener.processPaymentVerificationResult(event);
 
         // Then
         verify(paymentVerificationProvider)
-                .updateStatus(PAYMENT_VERIFICATION_PASSED_2.id(), PaymentVerificationStatus.PASSED);
+                .updateStatus(PAYMENT_ID, PAYMENT_VERIFICATION_PASSED_2.id(), PaymentVerificationStatus.PASSED);
         verify(paymentProvider).setPaymentStatus(PAYMENT_ID, PaymentStatus.ACCEPTED);
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(PAYMENT_ID, PaymentStatus.ACCEPTED));
     }
 
     @Test
@@ -98,18 +106,17 @@ class PaymentVerificationResultAnalyzerTests {
                 .verificationResult(PaymentVerificationStatus.PASSED)
                 .build();
 
-        Payment payment = createPaymentWithVerifications(
-                asList(PAYMENT_VERIFICATION_PASSED_1, PAYMENT_VERIFICATION_PASSED_2, PAYMENT_VERIFICATION_SCHEDULED));
-        when(paymentProvider.getById(payment.id())).thenReturn(Optional.of(payment));
-        when(paymentProvider.getById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentVerificationProvider.getStatuses(PAYMENT_ID))
+                .thenReturn(statusesOf(PAYMENT_VERIFICATION_PASSED_1, PAYMENT_VERIFICATION_PASSED_2, PAYMENT_VERIFICATION_SCHEDULED));
 
         // When
         listener.processPaymentVerificationResult(event);
 
         // Then
         verify(paymentVerificationProvider)
-                .updateStatus(PAYMENT_VERIFICATION_PASSED_2.id(), PaymentVerificationStatus.PASSED);
+                .updateStatus(PAYMENT_ID, PAYMENT_VERIFICATION_PASSED_2.id(), PaymentVerificationStatus.PASSED);
         verify(paymentProvider, never()).setPaymentStatus(anyString(), any());
+        verify(eventPublisher, never()).publishEvent(any(PaymentStatusChangedEvent.class));
     }
 
     @ParameterizedTest
@@ -123,18 +130,41 @@ class PaymentVerificationResultAnalyzerTests {
                 .verificationResult(status)
                 .build();
 
-        Payment payment = createPaymentWithVerifications(
-                asList(PAYMENT_VERIFICATION_PASSED_1, PAYMENT_VERIFICATION_PASSED_2, PAYMENT_VERIFICATION_FAILED));
-        when(paymentProvider.getById(payment.id())).thenReturn(Optional.of(payment));
-        when(paymentProvider.getById(PAYMENT_ID)).thenReturn(Optional.of(payment));
 
         // When
         listener.processPaymentVerificationResult(event);
 
         // Then
         verify(paymentVerificationProvider)
-                .updateStatus(PAYMENT_VERIFICATION_FAILED.id(), status);
+                .updateStatus(PAYMENT_ID, PAYMENT_VERIFICATION_FAILED.id(), status);
         verify(paymentProvider).setPaymentStatus(PAYMENT_ID, PaymentStatus.REJECTED);
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(PAYMENT_ID, PaymentStatus.REJECTED));
+        verify(cancellationRegistry).cancel(PAYMENT_ID);
+        verify(paymentVerificationProvider, never()).getStatuses(anyString());
+    }
+
+    @Test
+    @DisplayName("Only record cancelled verification without reloading payment")
+    void processPaymentVerificationResult_whenVerificationCancelled_thenOnlyUpdateVerificationStatus() {
+        // Given
+        PaymentVerificationCompletedEvent event = PaymentVerificationCompletedEvent.builder()
+                .verificationId(PAYMENT_VERIFICATION_SCHEDULED.id())
+                .paymentId(PAYMENT_ID)
+                .verificationResult(PaymentVerificationStatus.CANCELLED)
+                .build();
+
+        // When
+        listener.processPaymentVerificationResult(event);
+
+        // Then
+        verify(paymentVerificationProvider)
+                .updateStatus(PAYMENT_ID, PAYMENT_VERIFICATION_SCHEDULED.id(), PaymentVerificationStatus.CANCELLED);
+        verify(eventPublisher).publishEvent(PaymentVerificationStatusChangedEvent.builder()
+                .paymentId(PAYMENT_ID)
+                .verificationId(PAYMENT_VERIFICATION_SCHEDULED.id())
+                .verificationStatus(PaymentVerificationStatus.CANCELLED)
+                .build());
+        verifyNoInteractions(paymentProvider, cancellationRegistry);
     }
 
     @Test
@@ -146,17 +176,15 @@ class PaymentVerificationResultAnalyzerTests {
                 .paymentId(PAYMENT_ID)
                 .verificationResult(PaymentVerificationStatus.PASSED)
                 .build();
-        when(paymentProvider.getById(PAYMENT_ID)).thenReturn(Optional.empty());
+        when(paymentVerificationProvider.getStatuses(PAYMENT_ID)).thenReturn(Map.of());
 
         // When & Then
         assertThatThrownBy(() -> listener.processPaymentVerificationResult(event))
                 .isInstanceOf(PaymentNotFoundException.class);
     }
 
-    private static Payment createPaymentWithVerifications(List<PaymentVerification> paymentVerificationList) {
-        return PaymentFactory.createPayment(builder -> builder
-                .id(PAYMENT_ID)
-                .money(Money.builder().amount(BigDecimal.valueOf(200.0)).currency(Currency.EUR).build())
-                .paymentVerifications(paymentVerificationList));
+    private static Map<Long, PaymentVerificationStatus> statusesOf(PaymentVerification... paymentVerifications) {
+        return Arrays.stream(paymentVerifications)
+                .collect(Collectors.toMap(PaymentVerification::id, PaymentVerification::verificationStatus));
     }
 }
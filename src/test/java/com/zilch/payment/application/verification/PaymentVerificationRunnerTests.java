@@ -1,12 +1,18 @@
 package com.zilch.payment.application.verification;
 
 import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.verification.verifier.BatchPaymentVerifier;
 import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.PrioritizedTask;
+import com.zilch.payment.config.ThreadPoolConfigProperties;
+import com.zilch.payment.config.VerificationBulkheads;
+import com.zilch.payment.config.VerificationConfigProperties;
 import com.zilch.payment.domain.payment.Payment;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
 import com.zilch.payment.domain.verification.enums.VerificationType;
 import com.zilch.payment.domain.verification.events.PaymentVerificationCompletedEvent;
+import com.zilch.payment.domain.verification.events.ReadyForBatchVerificationEvent;
 import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,10 +21,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,12 +58,27 @@ public class PaymentVerificationRunnerTests {
     @Mock
     private PaymentVerifier paymentVerifier;
 
+    private final VerificationCancellationRegistry cancellationRegistry = new VerificationCancellationRegistry();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final VerificationConfigProperties properties = new VerificationConfigProperties();
+
+    @Mock
+    private RejectedVerificationRetry rejectedVerificationRetry;
+
+    @Mock
+    private VerificationBatcher verificationBatcher;
+
+    @Mock
+    private BatchPaymentVerifier batchPaymentVerifier;
+
     private PaymentVerificationRunner runner;
 
     @BeforeEach
     void setUp() {
         when(paymentVerifier.type()).thenReturn(VerificationType.FRAUD_CHECK);
-        runner = new PaymentVerificationRunner(List.of(paymentVerifier), eventPublisher);
+        runner = runner(List.of(paymentVerifier));
     }
 
     @Test
@@ -71,7 +98,61 @@ public class PaymentVerificationRunnerTests {
 
         assertThat(publishedEvent.verificationId()).isEqualTo(PAYMENT_VERIFICATION.id());
         assertThat(publishedEvent.paymentId()).isEqualTo(PAYMENT_VERIFICATION.paymentId());
+        assertThat(publishedEvent.verificationType()).isEqualTo(PAYMENT_VERIFICATION.verificationType());
         assertThat(publishedEvent.verificationResult()).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(meterRegistry.get("payment.verification.duration")
+                .tag("type", "FRAUD_CHECK").tag("outcome", "PASSED").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Run verification on the bulkhead of its type with the head start of its payment")
+    void onReadyForVerification_thenRunOnBulkhead() {
+        // Given
+        List<Runnable> submitted = new ArrayList<>();
+        runner = runner(List.of(paymentVerifier), submitted::add);
+        when(paymentVerifier.verify(PAYMENT)).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        runner.onReadyForVerification(EVENT);
+        long submittedBefore = System.nanoTime();
+        verifyNoInteractions(eventPublisher);
+        submitted.forEach(Runnable::run);
+
+        // Then
+        assertThat(submitted).singleElement().isInstanceOfSatisfying(PrioritizedTask.class, task ->
+                assertThat(submittedBefore - task.rank()).isGreaterThanOrEqualTo(Duration.ofSeconds(1).toNanos()));
+        verify(eventPublisher).publishEvent(any(PaymentVerificationCompletedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Let the publisher handle a verification rejected by a full bulkhead")
+    void onReadyForVerification_whenBulkheadFull_thenThrow() {
+        // Given
+        TaskRejectedException rejection = new TaskRejectedException("Bulkhead is full");
+        runner = runner(List.of(paymentVerifier), task -> {
+            throw rejection;
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> runner.onReadyForVerification(EVENT)).isSameAs(rejection);
+        verify(paymentVerifier, never()).verify(any());
+        assertThat(meterRegistry.get("payment.verification.bulkhead.rejected")
+                .tag("name", "verificationRunner").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Retry payment through the outbox when its result cannot be handed to the analyzer")
+    void testRunVerification_resultRejected_thenRetry() {
+        // Given
+        TaskRejectedException rejection = new TaskRejectedException("Analyzer queue is full");
+        when(paymentVerifier.verify(PAYMENT)).thenReturn(PaymentVerificationStatus.PASSED);
+        doThrow(rejection).when(eventPublisher).publishEvent(any(PaymentVerificationCompletedEvent.class));
+
+        // When
+        runner.runVerification(EVENT);
+
+        // Then
+        verify(rejectedVerificationRetry).retry(PAYMENT.id(), rejection);
     }
 
     @Test
@@ -93,6 +174,8 @@ public class PaymentVerificationRunnerTests {
         assertThat(publishedEvent.verificationId()).isEqualTo(PAYMENT_VERIFICATION.id());
         assertThat(publishedEvent.paymentId()).isEqualTo(PAYMENT_VERIFICATION.paymentId());
         assertThat(publishedEvent.verificationResult()).isEqualTo(PaymentVerificationStatus.ERROR);
+        assertThat(meterRegistry.get("payment.verification.duration")
+                .tag("type", "FRAUD_CHECK").tag("outcome", "ERROR").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -113,4 +196,235 @@ public class PaymentVerificationRunnerTests {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Cannot find verifier for: ACCOUNT_STATUS_CHECK");
     }
+
+    @Test
+    @DisplayName("Skip verification when payment is already decided")
+    void testRunVerification_paymentAlreadyDecided() {
+        // Given
+        cancellationRegistry.track(PAYMENT.id(), 2);
+        cancellationRegistry.cancel(PAYMENT.id());
+
+        // When
+        runner.runVerification(EVENT);
+
+        // Then
+        verify(paymentVerifier, never()).verify(any());
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        assertThat(captor.getValue().verificationResult()).isEqualTo(PaymentVerificationStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Record verification as cancelled when interrupted because payment was decided")
+    void testRunVerification_interruptedWhenPaymentDecided() {
+        // Given
+        cancellationRegistry.track(PAYMENT.id(), 2);
+        when(paymentVerifier.verify(PAYMENT)).thenAnswer(invocation -> {
+            cancellationRegistry.cancel(PAYMENT.id());
+            Thread.sleep(1000);
+            return PaymentVerificationStatus.PASSED;
+        });
+
+        // When
+        runner.runVerification(EVENT);
+
+        // Then
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        assertThat(captor.getValue().verificationResult()).isEqualTo(PaymentVerificationStatus.CANCELLED);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Launch next sequential verification when previous one passed")
+    void testRunVerification_sequentialPassed_thenLaunchNext() {
+        // Given
+        PaymentVerification next = PaymentFactory.createPaymentVerification(builder -> builder
+                .paymentId(PAYMENT.id())
+                .verificationType(VerificationType.ACCOUNT_STATUS_CHECK));
+        ReadyForVerificationEvent event = ReadyForVerificationEvent.builder()
+                .payment(PAYMENT)
+                .paymentVerification(PAYMENT_VERIFICATION)
+                .nextVerifications(List.of(next))
+                .build();
+        when(paymentVerifier.verify(PAYMENT)).thenReturn(PaymentVerificationStatus.PASSED);
+
+        // When
+        runner.runVerification(event);
+
+        // Then
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues().get(1)).isInstanceOfSatisfying(ReadyForVerificationEvent.class, nextEvent -> {
+            assertThat(nextEvent.paymentVerification()).isEqualTo(next);
+            assertThat(nextEvent.nextVerifications()).isEmpty();
+        });
+    }
+
+    @Test
+    @DisplayName("Skip remaining sequential verifications when previous one failed")
+    void testRunVerification_sequentialFailed_thenSkipRemaining() {
+        // Given
+        PaymentVerification next = PaymentFactory.createPaymentVerification(builder -> builder
+                .paymentId(PAYMENT.id())
+                .verificationType(VerificationType.ACCOUNT_STATUS_CHECK));
+        ReadyForVerificationEvent event = ReadyForVerificationEvent.builder()
+                .payment(PAYMENT)
+                .paymentVerification(PAYMENT_VERIFICATION)
+                .nextVerifications(List.of(next))
+                .build();
+        cancellationRegistry.track(PAYMENT.id(), 2);
+        when(paymentVerifier.verify(PAYMENT)).thenReturn(PaymentVerificationStatus.FAILED);
+
+        // When
+        runner.runVerification(event);
+
+        // Then
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues().get(1).verificationId()).isEqualTo(next.id());
+        assertThat(captor.getAllValues().get(1).verificationResult()).isEqualTo(PaymentVerificationStatus.CANCELLED);
+        assertThat(cancellationRegistry.trackedPayments()).isZero();
+        assertThat(meterRegistry.get("payment.verifications.avoided")
+                .tag("type", VerificationType.ACCOUNT_STATUS_CHECK.name())
+                .tag("reason", "sequential_early_exit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Hand verification of a batch verifier to the batcher instead of running it")
+    void testRunVerification_batchVerifier_thenAddToBatch() {
+        // Given
+        when(batchPaymentVerifier.type()).thenReturn(VerificationType.CREDIT_LIMIT_CHECK);
+        ReadyForVerificationEvent event = creditLimitEvent(PAYMENT);
+        runner = runner(List.of(paymentVerifier, batchPaymentVerifier));
+        when(verificationBatcher.add(event)).thenReturn(true);
+
+        // When
+        runner.runVerification(event);
+
+        // Then
+        verify(batchPaymentVerifier, never()).verifyAll(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Verify batch in one call and publish a result per verification, skipping decided payments")
+    void testRunBatchVerification_thenPublishEveryResult() {
+        // Given
+        when(batchPaymentVerifier.type()).thenReturn(VerificationType.CREDIT_LIMIT_CHECK);
+        runner = runner(List.of(paymentVerifier, batchPaymentVerifier));
+        Payment decided = PaymentFactory.createPayment(null);
+        Payment other = PaymentFactory.createPayment(null);
+        cancellationRegistry.track(decided.id(), 1);
+        cancellationRegistry.cancel(decided.id());
+        when(batchPaymentVerifier.verifyAll(List.of(PAYMENT, other)))
+                .thenReturn(List.of(PaymentVerificationStatus.PASSED, PaymentVerificationStatus.FAILED));
+
+        // When
+        runner.runBatchVerification(ReadyForBatchVerificationEvent.builder()
+                .verificationType(VerificationType.CREDIT_LIMIT_CHECK)
+                .verifications(List.of(creditLimitEvent(PAYMENT), creditLimitEvent(decided), creditLimitEvent(other)))
+                .build());
+
+        // Then
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PaymentVerificationCompletedEvent::verificationResult)
+                .containsExactly(PaymentVerificationStatus.PASSED, PaymentVerificationStatus.CANCELLED, PaymentVerificationStatus.FAILED);
+        assertThat(cancellationRegistry.trackedPayments()).isZero();
+        assertThat(meterRegistry.get("payment.verification.batch.size")
+                .tag("type", "CREDIT_LIMIT_CHECK").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Record ERROR for every verification of a batch when the batch call fails")
+    void testRunBatchVerification_callFails_thenError() {
+        // Given
+        when(batchPaymentVerifier.type()).thenReturn(VerificationType.CREDIT_LIMIT_CHECK);
+        runner = runner(List.of(paymentVerifier, batchPaymentVerifier));
+        Payment other = PaymentFactory.createPayment(null);
+        when(batchPaymentVerifier.verifyAll(any())).thenThrow(new RuntimeException("Backend unavailable"));
+
+        // When
+        runner.runBatchVerification(ReadyForBatchVerificationEvent.builder()
+                .verificationType(VerificationType.CREDIT_LIMIT_CHECK)
+                .verifications(List.of(creditLimitEvent(PAYMENT), creditLimitEvent(other)))
+                .build());
+
+        // Then
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PaymentVerificationCompletedEvent::verificationResult)
+                .containsOnly(PaymentVerificationStatus.ERROR);
+    }
+
+    @Test
+    @DisplayName("Schedule the next attempt instead of recording ERROR when a retry is left")
+    void testRunVerification_verifierFails_thenRetryLater() {
+        // Given
+        VerificationConfigProperties.Resilience resilience = new VerificationConfigProperties.Resilience();
+        resilience.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getResilience().put(VerificationType.FRAUD_CHECK, resilience);
+        runner = runner(List.of(paymentVerifier));
+        cancellationRegistry.track(PAYMENT.id(), 1);
+        when(paymentVerifier.verify(PAYMENT)).thenThrow(new RuntimeException("Service unavailable"));
+
+        // When
+        runner.runVerification(EVENT);
+
+        // Then
+        ArgumentCaptor<ReadyForVerificationEvent> captor = ArgumentCaptor.forClass(ReadyForVerificationEvent.class);
+        verify(eventPublisher, timeout(5000)).publishEvent(captor.capture());
+        assertThat(captor.getValue().attempt()).isEqualTo(2);
+        assertThat(captor.getValue().paymentVerification()).isEqualTo(PAYMENT_VERIFICATION);
+        verify(eventPublisher, never()).publishEvent(any(PaymentVerificationCompletedEvent.class));
+        assertThat(cancellationRegistry.trackedPayments()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.verification.retries").tag("type", "FRAUD_CHECK").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Record ERROR when the last attempt fails")
+    void testRunVerification_lastAttemptFails_thenError() {
+        // Given
+        properties.getResilience().put(VerificationType.FRAUD_CHECK, new VerificationConfigProperties.Resilience());
+        runner = runner(List.of(paymentVerifier));
+        when(paymentVerifier.verify(PAYMENT)).thenThrow(new RuntimeException("Service unavailable"));
+
+        // When & Then
+        assertThatThrownBy(() -> runner.runVerification(EVENT.toBuilder().attempt(3).build()))
+                .hasMessage("Service unavailable");
+        ArgumentCaptor<PaymentVerificationCompletedEvent> captor =
+                ArgumentCaptor.forClass(PaymentVerificationCompletedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().verificationResult()).isEqualTo(PaymentVerificationStatus.ERROR);
+    }
+
+    private PaymentVerificationRunner runner(List<PaymentVerifier> verifiers) {
+        return runner(verifiers, Runnable::run);
+    }
+
+    private PaymentVerificationRunner runner(List<PaymentVerifier> verifiers, Executor runnerExecutor) {
+        VerificationMetrics verificationMetrics = new VerificationMetrics(meterRegistry);
+        return new PaymentVerificationRunner(verifiers, eventPublisher, cancellationRegistry,
+                verificationMetrics, rejectedVerificationRetry,
+                new VerificationResultCache(properties, verificationMetrics), verificationBatcher,
+                new VerifierResilience(properties, verificationMetrics, meterRegistry),
+                new VerificationBulkheads(runnerExecutor, new ThreadPoolConfigProperties(), meterRegistry, Tracer.NOOP),
+                payment -> Duration.ofSeconds(1));
+    }
+
+    private static ReadyForVerificationEvent creditLimitEvent(Payment payment) {
+        return ReadyForVerificationEvent.builder()
+                .payment(payment)
+                .paymentVerification(PaymentFactory.createPaymentVerification(builder -> builder
+                        .paymentId(payment.id())
+                        .verificationType(VerificationType.CREDIT_LIMIT_CHECK)))
+                .build();
+    }
 }
@@ -1,16 +1,24 @@
 package com.zilch.payment.application.verification;
 
 import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.PaymentTracing;
 import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.VerificationConfigProperties;
 import com.zilch.payment.domain.payment.Payment;
-import com.zilch.payment.domain.payment.PaymentCreatedEvent;
 import com.zilch.payment.domain.payment.PaymentProvider;
+import com.zilch.payment.domain.payment.PaymentStatusChangedEvent;
+import com.zilch.payment.domain.payment.enums.PaymentMethod;
 import com.zilch.payment.domain.payment.enums.PaymentStatus;
 import com.zilch.payment.domain.verification.PaymentVerification;
 import com.zilch.payment.domain.verification.PaymentVerificationProvider;
 import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationStrategy;
 import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.PaymentVerificationsScheduledEvent;
 import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,9 +26,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
 
+import java.time.Duration;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,38 +54,44 @@ class PaymentVerificationSchedulerTests {
     @Mock
     private PaymentVerifier secondTestVerifier;
 
+    @Mock
+    private VerificationCancellationRegistry cancellationRegistry;
+
+    private final VerificationConfigProperties verificationProperties = new VerificationConfigProperties();
+
     private PaymentVerificationScheduler paymentVerificationScheduler;
 
     @BeforeEach
     public void init() {
         List<PaymentVerifier> verifiers = List.of(firstTestVerifier, secondTestVerifier);
         paymentVerificationScheduler = new PaymentVerificationScheduler(
-                paymentProvider, paymentVerificationProvider, eventPublisher, verifiers);
+                paymentProvider, paymentVerificationProvider, eventPublisher, verifiers, verificationProperties, cancellationRegistry,
+                new VerificationMetrics(new SimpleMeterRegistry()), new PaymentTracing(Tracer.NOOP, Propagator.NOOP));
     }
 
     @Test
     @DisplayName("Should accept payment when no verifications are scheduled")
-    void scheduleVerifications_ShouldAcceptPayment_WhenNoVerificationsAreScheduled() {
+    void schedule_ShouldAcceptPayment_WhenNoVerificationsAreScheduled() {
         // Given
-        Payment payment = PaymentFactory.createPayment(null);
-        PaymentCreatedEvent paymentCreatedEvent = new PaymentCreatedEvent(payment);
+        Payment payment = newPayment();
         when(firstTestVerifier.shouldVerify(payment)).thenReturn(false);
         when(secondTestVerifier.shouldVerify(payment)).thenReturn(false);
 
         // When
-        paymentVerificationScheduler.scheduleVerifications(paymentCreatedEvent);
+        paymentVerificationScheduler.schedule(List.of(payment));
 
         // Then
         verify(paymentProvider).setPaymentStatus(payment.id(), PaymentStatus.ACCEPTED);
-        verifyNoInteractions(paymentVerificationProvider, eventPublisher);
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.ACCEPTED));
+        verifyNoMoreInteractions(eventPublisher);
+        verifyNoInteractions(paymentVerificationProvider);
     }
 
     @Test
     @DisplayName("Should schedule verification only for required verifiers")
-    void scheduleVerifications_ShouldScheduleVerification_OnlyForRequiredVerifiers() {
+    void schedule_ShouldScheduleVerification_OnlyForRequiredVerifiers() {
         // Given
-        Payment payment = PaymentFactory.createPayment(null);
-        PaymentCreatedEvent paymentCreatedEvent = new PaymentCreatedEvent(payment);
+        Payment payment = newPayment();
         when(firstTestVerifier.shouldVerify(payment)).thenReturn(false);
         when(secondTestVerifier.shouldVerify(payment)).thenReturn(true);
         when(secondTestVerifier.type()).thenReturn(VerificationType.FRAUD_CHECK);
@@ -81,30 +100,283 @@ class PaymentVerificationSchedulerTests {
                         .verificationStatus(PaymentVerificationStatus.SCHEDULED)
                         .verificationType(VerificationType.FRAUD_CHECK)
         );
-        when(paymentVerificationProvider.save(any())).thenReturn(verification);
+        when(paymentVerificationProvider.saveAll(any())).thenReturn(List.of(verification));
 
         // When
-        paymentVerificationScheduler.scheduleVerifications(paymentCreatedEvent);
+        paymentVerificationScheduler.schedule(List.of(payment));
 
         // Then
-        verify(paymentVerificationProvider).save(any());
+        verify(paymentVerificationProvider).saveAll(argThat(verifications -> verifications.size() == 1));
+        verify(cancellationRegistry).track(payment.id(), 1);
         verify(eventPublisher).publishEvent(any(ReadyForVerificationEvent.class));
         verify(paymentProvider).setPaymentStatus(payment.id(), PaymentStatus.VERIFYING);
     }
 
+    @Test
+    @DisplayName("Should publish single event with all verifications in coordinated mode")
+    void schedule_ShouldPublishSingleEvent_InCoordinatedMode() {
+        // Given
+        verificationProperties.setMode(VerificationConfigProperties.VerificationMode.COORDINATED);
+        Payment payment = newPayment();
+        when(firstTestVerifier.shouldVerify(payment)).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(secondTestVerifier.shouldVerify(payment)).thenReturn(true);
+        when(secondTestVerifier.type()).thenReturn(VerificationType.FRAUD_CHECK);
+        when(paymentVerificationProvider.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(payment));
+
+        // Then
+        verify(paymentVerificationProvider).saveAll(argThat(verifications -> verifications.size() == 2));
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof PaymentVerificationsScheduledEvent scheduledEvent
+                        && scheduledEvent.paymentVerifications().size() == 2));
+        verify(eventPublisher, never()).publishEvent(any(ReadyForVerificationEvent.class));
+        verify(paymentProvider).setPaymentStatus(payment.id(), PaymentStatus.VERIFYING);
+    }
+
     @Test
     @DisplayName("Should reject payment when exception occurs during verification scheduling")
-    void scheduleVerifications_ShouldRejectPayment_WhenExceptionOccurs() {
+    void schedule_ShouldRejectPayment_WhenExceptionOccurs() {
         // Given
-        Payment payment = PaymentFactory.createPayment(null);
-        PaymentCreatedEvent paymentCreatedEvent = new PaymentCreatedEvent(payment);
+        Payment payment = newPayment();
         doThrow(new RuntimeException("Test Exception")).when(firstTestVerifier).shouldVerify(payment);
 
         // When
-        paymentVerificationScheduler.scheduleVerifications(paymentCreatedEvent);
+        paymentVerificationScheduler.schedule(List.of(payment));
 
         // Then
         verify(paymentProvider).setPaymentStatus(payment.id(), PaymentStatus.REJECTED);
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.REJECTED));
     }
-}
 
+    @Test
+    @DisplayName("Should launch most rejecting per cost verification first with the rest to follow in sequential strategy")
+    void schedule_ShouldOrderByRejectionPerCost_InSequentialStrategy() {
+        // Given
+        verificationProperties.getStrategies().put(PaymentMethod.PAY_OVER_3_MONTHS, VerificationStrategy.SEQUENTIAL);
+        Payment payment = PaymentFactory.createPayment(builder -> builder
+                .paymentMethod(PaymentMethod.PAY_OVER_3_MONTHS)
+                .paymentStatus(PaymentStatus.NEW)
+                .paymentVerifications(List.of()));
+        when(firstTestVerifier.shouldVerify(payment)).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(firstTestVerifier.rejectionProbability()).thenReturn(0.01);
+        when(firstTestVerifier.expectedCost()).thenReturn(Duration.ofMillis(100));
+        when(secondTestVerifier.shouldVerify(payment)).thenReturn(true);
+        when(secondTestVerifier.type()).thenReturn(VerificationType.FRAUD_CHECK);
+        when(secondTestVerifier.rejectionProbability()).thenReturn(0.5);
+        when(secondTestVerifier.expectedCost()).thenReturn(Duration.ofMillis(500));
+        when(paymentVerificationProvider.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(payment));
+
+        // Then
+        verify(cancellationRegistry).track(payment.id(), 2);
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ReadyForVerificationEvent readyEvent
+                        && readyEvent.paymentVerification().verificationType() == VerificationType.FRAUD_CHECK
+                        && readyEvent.nextVerifications().size() == 1
+                        && readyEvent.nextVerifications().get(0).verificationType() == VerificationType.ACCOUNT_STATUS_CHECK));
+        verify(eventPublisher).publishEvent(new PaymentStatusChangedEvent(payment.id(), PaymentStatus.VERIFYING));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should save verifications of all created payments at once")
+    void schedule_ShouldSaveVerificationsOfAllPaymentsAtOnce() {
+        // Given
+        Payment first = newPayment();
+        Payment second = newPayment();
+        when(firstTestVerifier.shouldVerify(any())).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(secondTestVerifier.shouldVerify(any())).thenReturn(true);
+        when(secondTestVerifier.type()).thenReturn(VerificationType.FRAUD_CHECK);
+        when(paymentVerificationProvider.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(first, second));
+
+        // Then
+        verify(paymentVerificationProvider).saveAll(argThat(verifications -> verifications.size() == 4));
+        verify(paymentProvider).setPaymentStatus(first.id(), PaymentStatus.VERIFYING);
+        verify(paymentProvider).setPaymentStatus(second.id(), PaymentStatus.VERIFYING);
+        verify(cancellationRegistry).track(first.id(), 2);
+        verify(cancellationRegistry).track(second.id(), 2);
+        verify(eventPublisher, times(2)).publishEvent(argThat((Object event) ->
+                event instanceof ReadyForVerificationEvent readyEvent && readyEvent.payment().equals(first)));
+        verify(eventPublisher, times(2)).publishEvent(argThat((Object event) ->
+                event instanceof ReadyForVerificationEvent readyEvent && readyEvent.payment().equals(second)));
+    }
+
+    @Test
+    @DisplayName("Should reject only the payment whose verifications cannot be scheduled")
+    void schedule_ShouldRejectOnlyFailingPayment_WhenSchedulingBatch() {
+        // Given
+        Payment failing = newPayment();
+        Payment valid = newPayment();
+        doThrow(new RuntimeException("Test Exception")).when(firstTestVerifier).shouldVerify(failing);
+        when(firstTestVerifier.shouldVerify(valid)).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(secondTestVerifier.shouldVerify(valid)).thenReturn(false);
+        when(paymentVerificationProvider.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(failing, valid));
+
+        // Then
+        verify(paymentProvider).setPaymentStatus(failing.id(), PaymentStatus.REJECTED);
+        verify(paymentProvider).setPaymentStatus(valid.id(), PaymentStatus.VERIFYING);
+        verify(paymentVerificationProvider).saveAll(argThat(verifications -> verifications.size() == 1
+                && verifications.get(0).paymentId().equals(valid.id())));
+    }
+
+    @Test
+    @DisplayName("Should leave payments untouched when verifications cannot be saved, so they can be scheduled again")
+    void schedule_ShouldThrowWithoutRejecting_WhenSavingFails() {
+        // Given
+        Payment first = newPayment();
+        Payment second = newPayment();
+        when(firstTestVerifier.shouldVerify(any())).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(secondTestVerifier.shouldVerify(any())).thenReturn(false);
+        when(paymentVerificationProvider.saveAll(any())).thenThrow(new RuntimeException("Database error"));
+
+        // When & Then
+        assertThatThrownBy(() -> paymentVerificationScheduler.schedule(List.of(first, second)))
+                .hasMessage("Database error");
+        verifyNoInteractions(paymentProvider, cancellationRegistry, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should dispatch only scheduled verifications of payment handed over again")
+    void schedule_ShouldResumeOnlyScheduledVerifications_WhenPaymentHasVerifications() {
+        // Given
+        PaymentVerification passed = PaymentFactory.createPaymentVerification(builder -> builder
+                .id(1L)
+                .verificationType(VerificationType.ACCOUNT_STATUS_CHECK)
+                .verificationStatus(PaymentVerificationStatus.PASSED));
+        PaymentVerification scheduled = PaymentFactory.createPaymentVerification(builder -> builder
+                .id(2L)
+                .verificationType(VerificationType.FRAUD_CHECK)
+                .verificationStatus(PaymentVerificationStatus.SCHEDULED));
+        Payment payment = PaymentFactory.createPayment(builder -> builder
+                .paymentStatus(PaymentStatus.VERIFYING)
+                .paymentVerifications(List.of(passed, scheduled)));
+
+        // When
+        List<Payment> deferred = paymentVerificationScheduler.schedule(List.of(payment));
+
+        // Then
+        assertThat(deferred).isEmpty();
+        verifyNoInteractions(paymentVerificationProvider, firstTestVerifier, secondTestVerifier);
+        verify(cancellationRegistry).track(payment.id(), 1);
+        verify(eventPublisher).publishEvent(ReadyForVerificationEvent.builder().paymentVerification(scheduled).payment(payment).build());
+        verify(eventPublisher, never()).publishEvent(argThat((Object event) ->
+                event instanceof ReadyForVerificationEvent readyEvent && readyEvent.paymentVerification().equals(passed)));
+    }
+
+    @Test
+    @DisplayName("Should decide payment handed over again when its verifications are already completed")
+    void schedule_ShouldDecidePayment_WhenResumedVerificationsAreCompleted() {
+        // Given
+        Payment accepted = PaymentFactory.createPayment(builder -> builder
+                .paymentStatus(PaymentStatus.VERIFYING)
+                .paymentVerifications(List.of(PaymentFactory.createPaymentVerification(verification -> verification
+                        .verificationStatus(PaymentVerificationStatus.PASSED)))));
+        Payment rejected = PaymentFactory.createPayment(builder -> builder
+                .paymentStatus(PaymentStatus.VERIFYING)
+                .paymentVerifications(List.of(
+                        PaymentFactory.createPaymentVerification(verification -> verification
+                                .verificationStatus(PaymentVerificationStatus.FAILED)),
+                        PaymentFactory.createPaymentVerification(verification -> verification
+                                .verificationStatus(PaymentVerificationStatus.SCHEDULED)))));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(accepted, rejected));
+
+        // Then
+        verify(paymentProvider).setPaymentStatus(accepted.id(), PaymentStatus.ACCEPTED);
+        verify(paymentProvider).setPaymentStatus(rejected.id(), PaymentStatus.REJECTED);
+        verify(eventPublisher, never()).publishEvent(any(ReadyForVerificationEvent.class));
+        verifyNoInteractions(cancellationRegistry);
+    }
+
+    @Test
+    @DisplayName("Should skip payment that is already decided")
+    void schedule_ShouldSkipPayment_WhenAlreadyDecided() {
+        // Given
+        Payment payment = PaymentFactory.createPayment(builder -> builder.paymentStatus(PaymentStatus.ACCEPTED));
+
+        // When
+        paymentVerificationScheduler.schedule(List.of(payment));
+
+        // Then
+        verifyNoInteractions(paymentProvider, paymentVerificationProvider, eventPublisher, cancellationRegistry);
+    }
+
+    @Test
+    @DisplayName("Should return payments not dispatched when verification executors are full")
+    void schedule_ShouldDeferRemainingPayments_WhenExecutorRejectsTask() {
+        // Given
+        Payment first = newPayment();
+        Payment second = newPayment();
+        Payment third = newPayment();
+        when(firstTestVerifier.shouldVerify(any())).thenReturn(true);
+        when(firstTestVerifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+        when(secondTestVerifier.shouldVerify(any())).thenReturn(false);
+        when(paymentVerificationProvider.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().doNothing()
+                .doThrow(new TaskRejectedException("Queue is full"))
+                .when(eventPublisher).publishEvent(any(ReadyForVerificationEvent.class));
+
+        // When
+        List<Payment> deferred = paymentVerificationScheduler.schedule(List.of(first, second, third));
+
+        // Then
+        assertThat(deferred).containsExactly(second, third);
+        verify(paymentProvider, never()).setPaymentStatus(anyString(), eq(PaymentStatus.REJECTED));
+        verify(paymentProvider, never()).setPaymentStatus(third.id(), PaymentStatus.VERIFYING);
+    }
+
+    @Test
+    @DisplayName("Should dispatch again only verifications not handed over when executor rejects one of payment's verifications")
+    void schedule_ShouldDeferOnlyVerificationsNotHandedOver_WhenSecondVerificationRejected() {
+        // Given
+        PaymentVerification accountCheck = PaymentFactory.createPaymentVerification(builder -> builder
+                .id(1L)
+                .verificationType(VerificationType.ACCOUNT_STATUS_CHECK)
+                .verificationStatus(PaymentVerificationStatus.SCHEDULED));
+        PaymentVerification fraudCheck = PaymentFactory.createPaymentVerification(builder -> builder
+                .id(2L)
+                .verificationType(VerificationType.FRAUD_CHECK)
+                .verificationStatus(PaymentVerificationStatus.SCHEDULED));
+        Payment payment = PaymentFactory.createPayment(builder -> builder
+                .paymentStatus(PaymentStatus.VERIFYING)
+                .paymentVerifications(List.of(accountCheck, fraudCheck)));
+        lenient().doNothing()
+                .doThrow(new TaskRejectedException("Queue is full"))
+                .doNothing()
+                .when(eventPublisher).publishEvent(any(ReadyForVerificationEvent.class));
+        List<Payment> deferred = paymentVerificationScheduler.schedule(List.of(payment));
+        assertThat(deferred).containsExactly(payment);
+        verify(cancellationRegistry).track(payment.id(), 2);
+        verify(cancellationRegistry).untrack(payment.id(), 1);
+
+        // When - the relay hands the payment over again while the account check is still queued
+        deferred = paymentVerificationScheduler.schedule(List.of(payment));
+
+        // Then
+        assertThat(deferred).isEmpty();
+        verify(cancellationRegistry).track(payment.id(), 1);
+        verify(eventPublisher, times(1)).publishEvent(ReadyForVerificationEvent.builder().paymentVerification(accountCheck).payment(payment).build());
+        verify(eventPublisher, times(2)).publishEvent(ReadyForVerificationEvent.builder().paymentVerification(fraudCheck).payment(payment).build());
+        verify(paymentProvider, times(1)).setPaymentStatus(payment.id(), PaymentStatus.VERIFYING);
+    }
+
+    private static Payment newPayment() {
+        return PaymentFactory.createPayment(builder -> builder.paymentStatus(PaymentStatus.NEW).paymentVerifications(List.of()));
+    }
+}
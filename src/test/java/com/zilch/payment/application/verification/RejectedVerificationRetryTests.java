@@ -0,0 +1,70 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.domain.payment.PaymentOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RejectedVerificationRetryTests {
+
+    private static final TaskRejectedException REJECTION = new TaskRejectedException("Queue is full");
+
+    @Mock
+    private PaymentOutbox paymentOutbox;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RejectedVerificationRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        retry = new RejectedVerificationRetry(paymentOutbox, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Add payment back to the outbox")
+    void retry_thenAddPaymentToOutbox() {
+        // When
+        retry.retry("payment-id", REJECTION);
+
+        // Then
+        verify(paymentOutbox).addIfAbsent(List.of("payment-id"));
+        assertThat(meterRegistry.get("payment.verification.retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Add payment whose results could not be recorded back to the outbox")
+    void retryFailed_thenAddPaymentToOutbox() {
+        // When
+        retry.retryFailed("payment-id", new IllegalStateException("Database error"));
+
+        // Then
+        verify(paymentOutbox).addIfAbsent(List.of("payment-id"));
+        assertThat(meterRegistry.get("payment.verification.retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Do not propagate outbox failure to the verification thread")
+    void retry_whenOutboxFails_thenSwallow() {
+        // Given
+        doThrow(new IllegalStateException("Database error")).when(paymentOutbox).addIfAbsent(List.of("payment-id"));
+
+        // When
+        retry.retry("payment-id", REJECTION);
+
+        // Then
+        assertThat(meterRegistry.get("payment.verification.retried").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,140 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import com.zilch.payment.domain.verification.events.ReadyForBatchVerificationEvent;
+import com.zilch.payment.domain.verification.events.ReadyForVerificationEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationBatcherTests {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VerificationCancellationRegistry cancellationRegistry;
+
+    @Mock
+    private RejectedVerificationRetry rejectedVerificationRetry;
+
+    private final VerificationConfigProperties properties = new VerificationConfigProperties();
+
+    private final VerificationConfigProperties.Batching batching = new VerificationConfigProperties.Batching();
+
+    private VerificationBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batching.setMaxBatchSize(2);
+        batching.setMaxDelay(Duration.ofMinutes(1));
+        properties.getBatching().put(VerificationType.FRAUD_CHECK, batching);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Dispatch batch as soon as it is full")
+    void add_whenBatchFull_thenDispatch() {
+        // Given
+        batcher = new VerificationBatcher(properties, eventPublisher, cancellationRegistry, rejectedVerificationRetry);
+        ReadyForVerificationEvent first = event(VerificationType.FRAUD_CHECK);
+        ReadyForVerificationEvent second = event(VerificationType.FRAUD_CHECK);
+
+        // When
+        boolean batched = batcher.add(first);
+        verifyNoInteractions(eventPublisher);
+        batcher.add(second);
+
+        // Then
+        assertThat(batched).isTrue();
+        ArgumentCaptor<ReadyForBatchVerificationEvent> captor = ArgumentCaptor.forClass(ReadyForBatchVerificationEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().verificationType()).isEqualTo(VerificationType.FRAUD_CHECK);
+        assertThat(captor.getValue().verifications()).containsExactly(first, second);
+    }
+
+    @Test
+    @DisplayName("Dispatch partial batch once max delay elapsed")
+    void add_whenMaxDelayElapsed_thenDispatch() {
+        // Given
+        batching.setMaxBatchSize(10);
+        batching.setMaxDelay(Duration.ofMillis(20));
+        batcher = new VerificationBatcher(properties, eventPublisher, cancellationRegistry, rejectedVerificationRetry);
+        ReadyForVerificationEvent event = event(VerificationType.FRAUD_CHECK);
+
+        // When
+        batcher.add(event);
+
+        // Then
+        ArgumentCaptor<ReadyForBatchVerificationEvent> captor = ArgumentCaptor.forClass(ReadyForBatchVerificationEvent.class);
+        verify(eventPublisher, timeout(5000)).publishEvent(captor.capture());
+        assertThat(captor.getValue().verifications()).containsExactly(event);
+    }
+
+    @Test
+    @DisplayName("Leave verifications of types without batching to the caller")
+    void add_whenTypeNotBatched_thenReturnFalse() {
+        // Given
+        batcher = new VerificationBatcher(properties, eventPublisher, cancellationRegistry, rejectedVerificationRetry);
+
+        // When & Then
+        assertThat(batcher.add(event(VerificationType.CREDIT_LIMIT_CHECK))).isFalse();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Complete and retry payments of a batch through the outbox when the runner rejects it")
+    void add_whenRunnerRejects_thenCompleteAndRetryPayments() {
+        // Given
+        batcher = new VerificationBatcher(properties, eventPublisher, cancellationRegistry, rejectedVerificationRetry);
+        TaskRejectedException rejection = new TaskRejectedException("Runner queue is full");
+        doThrow(rejection).when(eventPublisher).publishEvent(any(ReadyForBatchVerificationEvent.class));
+        ReadyForVerificationEvent first = event(VerificationType.FRAUD_CHECK);
+        ReadyForVerificationEvent second = event(VerificationType.FRAUD_CHECK);
+
+        // When
+        batcher.add(first);
+        batcher.add(second);
+
+        // Then
+        InOrder inOrder = inOrder(cancellationRegistry, rejectedVerificationRetry);
+        inOrder.verify(cancellationRegistry).complete(first.payment().id());
+        inOrder.verify(rejectedVerificationRetry).retry(first.payment().id(), rejection);
+        inOrder.verify(cancellationRegistry).complete(second.payment().id());
+        inOrder.verify(rejectedVerificationRetry).retry(second.payment().id(), rejection);
+    }
+
+    private static ReadyForVerificationEvent event(VerificationType type) {
+        Payment payment = PaymentFactory.createPayment(null);
+        return ReadyForVerificationEvent.builder()
+                .payment(payment)
+                .paymentVerification(PaymentFactory.createPaymentVerification(builder -> builder
+                        .paymentId(payment.id())
+                        .verificationType(type)))
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.zilch.payment.application.verification;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerificationCancellationRegistryTests {
+
+    private static final String PAYMENT_ID = UUID.randomUUID().toString();
+
+    private final VerificationCancellationRegistry registry = new VerificationCancellationRegistry();
+
+    @Test
+    @DisplayName("Allow verifications of untracked payment")
+    void start_whenPaymentNotTracked_thenAllow() {
+        assertThat(registry.start(PAYMENT_ID)).isTrue();
+        assertThat(registry.isCancelled(PAYMENT_ID)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Do not allow verifications to start once payment is cancelled")
+    void start_whenPaymentCancelled_thenDoNotAllow() {
+        // Given
+        registry.track(PAYMENT_ID, 2);
+
+        // When
+        registry.cancel(PAYMENT_ID);
+
+        // Then
+        assertThat(registry.start(PAYMENT_ID)).isFalse();
+        assertThat(registry.isCancelled(PAYMENT_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Interrupt running verifications when payment is cancelled")
+    void cancel_whenVerificationRunning_thenInterruptIt() throws Exception {
+        // Given
+        registry.track(PAYMENT_ID, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> interrupted = CompletableFuture.supplyAsync(() -> {
+            registry.start(PAYMENT_ID);
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+                return false;
+            } catch (InterruptedException e) {
+                return true;
+            } finally {
+                registry.complete(PAYMENT_ID);
+            }
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        registry.cancel(PAYMENT_ID);
+
+        // Then
+        assertThat(interrupted.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Forget payment when all its verifications are completed")
+    void complete_whenAllVerificationsCompleted_thenForgetPayment() {
+        // Given
+        registry.track(PAYMENT_ID, 2);
+        registry.cancel(PAYMENT_ID);
+
+        // When
+        registry.complete(PAYMENT_ID);
+        registry.complete(PAYMENT_ID);
+
+        // Then
+        assertThat(registry.trackedPayments()).isZero();
+        assertThat(registry.start(PAYMENT_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Keep payment tracked until verifications of every hand over are completed")
+    void track_whenPaymentTrackedAgain_thenAddVerifications() {
+        // Given
+        registry.track(PAYMENT_ID, 2);
+        registry.untrack(PAYMENT_ID, 1);
+
+        // When
+        registry.track(PAYMENT_ID, 1);
+        registry.complete(PAYMENT_ID);
+
+        // Then
+        assertThat(registry.trackedPayments()).isEqualTo(1);
+        registry.complete(PAYMENT_ID);
+        assertThat(registry.trackedPayments()).isZero();
+    }
+}
@@ -0,0 +1,200 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.PaymentFactory;
+import com.zilch.payment.application.verification.verifier.PaymentVerifier;
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.payment.Payment;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationResultCacheTests {
+
+    private static final Payment PAYMENT = PaymentFactory.createPayment(builder -> builder.merchant("Merchant"));
+    private static final Payment SAME_MERCHANT_PAYMENT = PaymentFactory.createPayment(builder -> builder.merchant("Merchant"));
+
+    @Mock
+    private PaymentVerifier verifier;
+
+    private final VerificationConfigProperties properties = new VerificationConfigProperties();
+
+    private final VerificationConfigProperties.ResultCache cacheProperties = new VerificationConfigProperties.ResultCache();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties.getResultCache().put(VerificationType.ACCOUNT_STATUS_CHECK, cacheProperties);
+        when(verifier.type()).thenReturn(VerificationType.ACCOUNT_STATUS_CHECK);
+    }
+
+    @Test
+    @DisplayName("Reuse PASSED result for payments with the same key")
+    void verify_whenResultPassed_thenReuse() {
+        // Given
+        when(verifier.cacheKey(any())).thenAnswer(invocation -> Optional.of(invocation.<Payment>getArgument(0).merchant()));
+        VerificationResultCache cache = cache();
+
+        // When
+        cache.verify(verifier, PAYMENT, () -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return PaymentVerificationStatus.PASSED;
+        });
+        PaymentVerificationStatus status = cache.verify(verifier, SAME_MERCHANT_PAYMENT, call(PaymentVerificationStatus.PASSED));
+
+        // Then
+        assertThat(status).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(calls).hasValue(1);
+        assertThat(avoided("cache_hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.verification.time.saved").counter().count()).isGreaterThanOrEqualTo(0.02);
+    }
+
+    @Test
+    @DisplayName("Call verifier again for FAILED result when negative results are not kept")
+    void verify_whenResultFailed_thenCallAgain() {
+        // Given
+        when(verifier.cacheKey(any())).thenReturn(Optional.of("Merchant"));
+        VerificationResultCache cache = cache();
+
+        // When
+        cache.verify(verifier, PAYMENT, call(PaymentVerificationStatus.FAILED));
+        cache.verify(verifier, SAME_MERCHANT_PAYMENT, call(PaymentVerificationStatus.FAILED));
+
+        // Then
+        assertThat(calls).hasValue(2);
+        assertThat(avoided("cache_hit")).isZero();
+    }
+
+    @Test
+    @DisplayName("Reuse FAILED result when negative ttl is set")
+    void verify_whenResultFailedAndNegativeTtlSet_thenReuse() {
+        // Given
+        cacheProperties.setNegativeTtl(Duration.ofSeconds(5));
+        when(verifier.cacheKey(any())).thenReturn(Optional.of("Merchant"));
+        VerificationResultCache cache = cache();
+
+        // When
+        cache.verify(verifier, PAYMENT, call(PaymentVerificationStatus.FAILED));
+        PaymentVerificationStatus status = cache.verify(verifier, SAME_MERCHANT_PAYMENT, call(PaymentVerificationStatus.PASSED));
+
+        // Then
+        assertThat(status).isEqualTo(PaymentVerificationStatus.FAILED);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Never keep a call that threw")
+    void verify_whenCallThrows_thenCallAgain() {
+        // Given
+        when(verifier.cacheKey(any())).thenReturn(Optional.of("Merchant"));
+        VerificationResultCache cache = cache();
+
+        // When
+        assertThatThrownBy(() -> cache.verify(verifier, PAYMENT, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Service unavailable");
+        })).hasMessage("Service unavailable");
+        PaymentVerificationStatus status = cache.verify(verifier, SAME_MERCHANT_PAYMENT, call(PaymentVerificationStatus.PASSED));
+
+        // Then
+        assertThat(status).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Share one call between concurrent verifications with the same key")
+    void verify_whenConcurrentWithSameKey_thenShareCall() throws Exception {
+        // Given
+        when(verifier.cacheKey(any())).thenReturn(Optional.of("Merchant"));
+        VerificationResultCache cache = cache();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PaymentVerificationStatus> first = CompletableFuture.supplyAsync(() -> cache.verify(verifier, PAYMENT, () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return PaymentVerificationStatus.PASSED;
+        }));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> calls.get() == 1);
+
+        // When
+        CompletableFuture<PaymentVerificationStatus> second = CompletableFuture.supplyAsync(() ->
+                cache.verify(verifier, SAME_MERCHANT_PAYMENT, call(PaymentVerificationStatus.FAILED)));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(calls).hasValue(1);
+        assertThat(avoided("single_flight")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Call verifier every time when its type has no cache or it gives no key")
+    void verify_whenNoCacheOrNoKey_thenAlwaysCall() {
+        // Given
+        properties.getResultCache().clear();
+        VerificationResultCache disabled = cache();
+        properties.getResultCache().put(VerificationType.ACCOUNT_STATUS_CHECK, cacheProperties);
+        when(verifier.cacheKey(any())).thenReturn(Optional.empty());
+        VerificationResultCache noKey = cache();
+
+        // When
+        disabled.verify(verifier, PAYMENT, call(PaymentVerificationStatus.PASSED));
+        disabled.verify(verifier, PAYMENT, call(PaymentVerificationStatus.PASSED));
+        noKey.verify(verifier, PAYMENT, call(PaymentVerificationStatus.PASSED));
+        noKey.verify(verifier, PAYMENT, call(PaymentVerificationStatus.PASSED));
+
+        // Then
+        assertThat(calls).hasValue(4);
+    }
+
+    private VerificationResultCache cache() {
+        return new VerificationResultCache(properties, new VerificationMetrics(meterRegistry));
+    }
+
+    private Supplier<PaymentVerificationStatus> call(PaymentVerificationStatus status) {
+        return () -> {
+            calls.incrementAndGet();
+            return status;
+        };
+    }
+
+    private double avoided(String reason) {
+        return meterRegistry.get("payment.verifications.avoided")
+                .tag("type", VerificationType.ACCOUNT_STATUS_CHECK.name())
+                .tag("reason", reason)
+                .counter().count();
+    }
+}
@@ -0,0 +1,124 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifierCircuitBreakerTests {
+
+    private final VerificationConfigProperties.CircuitBreaker properties = new VerificationConfigProperties.CircuitBreaker();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private VerifierCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(2);
+        circuitBreaker = new VerifierCircuitBreaker(properties, clock::get);
+    }
+
+    @Test
+    @DisplayName("Stay closed until minimum calls are made, then open when failure rate reaches the threshold")
+    void record_whenFailureRateReached_thenOpen() {
+        // When
+        record(true, true, true);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.CLOSED);
+
+        // When
+        record(false);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Count only the last calls of the sliding window")
+    void record_whenOldFailuresSlideOut_thenStayClosed() {
+        // When
+        record(true, false, false, false, false, true, false);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Let trial calls through after open duration and close when all of them succeed")
+    void tryAcquire_whenOpenDurationPassed_thenHalfOpenAndClose() {
+        // Given
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        boolean first = circuitBreaker.tryAcquire();
+        boolean second = circuitBreaker.tryAcquire();
+        boolean third = circuitBreaker.tryAcquire();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.HALF_OPEN);
+
+        // When
+        record(false, false);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Open again when a trial call fails")
+    void record_whenTrialCallFails_thenOpenAgain() {
+        // Given
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.tryAcquire();
+
+        // When
+        record(true);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Give trial permit back when a trial call is not recorded, so the circuit can still close")
+    void release_whenTrialCallInterrupted_thenLetAnotherTrialThrough() {
+        // Given
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.tryAcquire();
+        circuitBreaker.tryAcquire();
+
+        // When - the second trial is interrupted because its payment was decided
+        record(false);
+        circuitBreaker.release();
+
+        // Then
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+        record(false);
+        assertThat(circuitBreaker.state()).isEqualTo(VerifierCircuitBreaker.State.CLOSED);
+    }
+
+    private void record(boolean... failures) {
+        for (boolean failed : failures) {
+            circuitBreaker.record(failed);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.zilch.payment.application.verification;
+
+import com.zilch.payment.config.VerificationConfigProperties;
+import com.zilch.payment.domain.verification.enums.PaymentVerificationStatus;
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifierResilienceTests {
+
+    private final VerificationConfigProperties properties = new VerificationConfigProperties();
+
+    private final VerificationConfigProperties.Resilience resilience = new VerificationConfigProperties.Resilience();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VerifierResilience verifierResilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience.setTimeout(Duration.ofMillis(50));
+        resilience.getCircuitBreaker().setSlidingWindowSize(2);
+        resilience.getCircuitBreaker().setMinimumCalls(2);
+        properties.getResilience().put(VerificationType.FRAUD_CHECK, resilience);
+        verifierResilience = new VerifierResilience(properties, new VerificationMetrics(meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifierResilience.shutdown();
+    }
+
+    @Test
+    @DisplayName("Interrupt call running longer than the timeout")
+    void call_whenTimeoutExceeded_thenInterruptAndThrow() {
+        // When & Then
+        assertThatThrownBy(() -> verifierResilience.call(VerificationType.FRAUD_CHECK, () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return PaymentVerificationStatus.PASSED;
+        }))
+                .isInstanceOf(VerifierTimeoutException.class)
+                .hasMessage("The FRAUD_CHECK verifier did not respond within PT0.05S");
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        assertThat(meterRegistry.get("payment.verification.timeouts").tag("type", "FRAUD_CHECK").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Fail fast without calling the verifier once its failure rate opens the circuit")
+    void call_whenCircuitOpen_thenFailFast() {
+        // Given
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> verifierResilience.call(VerificationType.FRAUD_CHECK, () -> {
+                throw new IllegalStateException("Service unavailable");
+            })).hasMessage("Service unavailable");
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> verifierResilience.call(VerificationType.FRAUD_CHECK, () -> {
+            throw new AssertionError("Should not be called");
+        })).isInstanceOf(VerifierUnavailableException.class);
+        assertThat(verifierResilience.circuitState(VerificationType.FRAUD_CHECK)).isEqualTo(VerifierCircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("payment.verifications.avoided")
+                .tag("type", "FRAUD_CHECK").tag("reason", "circuit_open").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Call verifiers without resilience settings as they are")
+    void call_whenTypeNotConfigured_thenCallDirectly() {
+        // When
+        PaymentVerificationStatus status = verifierResilience.call(VerificationType.CREDIT_LIMIT_CHECK, () -> PaymentVerificationStatus.PASSED);
+
+        // Then
+        assertThat(status).isEqualTo(PaymentVerificationStatus.PASSED);
+        assertThat(verifierResilience.retryDelay(VerificationType.CREDIT_LIMIT_CHECK, 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Delay retries randomly up to the exponential backoff and stop after max attempts")
+    void retryDelay_thenBoundedByExponentialBackoff() {
+        // Given
+        resilience.getRetry().setMaxAttempts(4);
+        resilience.getRetry().setInitialBackoff(Duration.ofMillis(100));
+        resilience.getRetry().setMultiplier(2.0);
+        resilience.getRetry().setMaxBackoff(Duration.ofMillis(300));
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertThat(verifierResilience.retryDelay(VerificationType.FRAUD_CHECK, 1)).hasValueSatisfying(delay ->
+                    assertThat(delay).isBetween(Duration.ZERO, Duration.ofMillis(100)));
+            assertThat(verifierResilience.retryDelay(VerificationType.FRAUD_CHECK, 2)).hasValueSatisfying(delay ->
+                    assertThat(delay).isBetween(Duration.ZERO, Duration.ofMillis(200)));
+            assertThat(verifierResilience.retryDelay(VerificationType.FRAUD_CHECK, 3)).hasValueSatisfying(delay ->
+                    assertThat(delay).isBetween(Duration.ZERO, Duration.ofMillis(300)));
+        }
+        assertThat(verifierResilience.retryDelay(VerificationType.FRAUD_CHECK, 4)).isEmpty();
+    }
+}
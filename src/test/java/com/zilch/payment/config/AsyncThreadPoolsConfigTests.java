@@ -0,0 +1,245 @@
+package com.zilch.payment.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class AsyncThreadPoolsConfigTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should create bounded thread pool in PLATFORM mode")
+    void createExecutor_PlatformMode() {
+        // Given
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = properties(ThreadPoolConfigProperties.ExecutorMode.PLATFORM);
+
+        // When
+        Executor executor = AsyncThreadPoolsConfig.createExecutor("test", properties, meterRegistry, Tracer.NOOP);
+
+        // Then
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        ThreadPoolTaskExecutor threadPoolTaskExecutor = (ThreadPoolTaskExecutor) executor;
+        assertThat(threadPoolTaskExecutor.getCorePoolSize()).isEqualTo(2);
+        assertThat(threadPoolTaskExecutor.getMaxPoolSize()).isEqualTo(4);
+        assertThat(threadPoolTaskExecutor.getQueueCapacity()).isEqualTo(10);
+        assertThat(meterRegistry.get("executor.queued").tag("name", "test").gauge().value()).isZero();
+        threadPoolTaskExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run tasks on virtual threads with concurrency limit in VIRTUAL mode")
+    void createExecutor_VirtualMode() throws Exception {
+        // Given
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = properties(ThreadPoolConfigProperties.ExecutorMode.VIRTUAL);
+
+        // When
+        Executor executor = AsyncThreadPoolsConfig.createExecutor("test", properties, meterRegistry, Tracer.NOOP);
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+
+        // Then
+        assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        assertThat(((SimpleAsyncTaskExecutor) executor).getConcurrencyLimit()).isEqualTo(5);
+        Thread executingThread = thread.get(1, TimeUnit.SECONDS);
+        assertThat(executingThread.isVirtual()).isTrue();
+        assertThat(executingThread.getName()).startsWith("test-");
+    }
+
+    @Test
+    @DisplayName("Should record queue wait and execution time of every task")
+    void createExecutor_thenRecordTaskTimes() throws Exception {
+        // Given
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = properties(ThreadPoolConfigProperties.ExecutorMode.PLATFORM);
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) AsyncThreadPoolsConfig.createExecutor("test", properties, meterRegistry, Tracer.NOOP);
+
+        // When
+        executor.submit(() -> {}).get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(meterRegistry.get("executor.task.wait").tag("name", "test").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.task.execution").tag("name", "test").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject task when pool is full with ABORT policy")
+    void createExecutor_whenFullAndAbort_thenReject() {
+        // Given
+        ThreadPoolTaskExecutor executor = fullExecutor(ThreadPoolConfigProperties.RejectionPolicy.ABORT);
+
+        // When & Then
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(TaskRejectedException.class);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run task on submitting thread when pool is full with CALLER_RUNS policy")
+    void createExecutor_whenFullAndCallerRuns_thenRunOnCaller() {
+        // Given
+        ThreadPoolTaskExecutor executor = fullExecutor(ThreadPoolConfigProperties.RejectionPolicy.CALLER_RUNS);
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+
+        // When
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+
+        // Then
+        assertThat(thread.join()).isEqualTo(Thread.currentThread());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should wait for a free queue slot and reject after timeout with BLOCK policy")
+    void createExecutor_whenFullAndBlock_thenWaitAndReject() {
+        // Given
+        ThreadPoolTaskExecutor executor = fullExecutor(ThreadPoolConfigProperties.RejectionPolicy.BLOCK);
+        long start = System.nanoTime();
+
+        // When & Then
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(TaskRejectedException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should queue task once a slot is freed with BLOCK policy")
+    void createExecutor_whenSlotFreedAndBlock_thenQueue() throws Exception {
+        // Given
+        ThreadPoolTaskExecutor executor = fullExecutor(ThreadPoolConfigProperties.RejectionPolicy.BLOCK);
+        CompletableFuture<Void> executed = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS).execute(release::countDown);
+
+        // When
+        executor.execute(() -> executed.complete(null));
+
+        // Then
+        executed.get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should start queued tasks with a head start first in PRIORITY queue order")
+    void createExecutor_whenPriorityQueue_thenStartByHeadStart() {
+        // Given
+        ThreadPoolTaskExecutor executor = busyPriorityExecutor(10);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        // When
+        executor.execute(() -> started.add("no head start"));
+        executor.execute(PrioritizedTask.of(() -> started.add("head start"), Duration.ofSeconds(1)));
+        executor.execute(PrioritizedTask.of(() -> started.add("later, no head start"), Duration.ZERO));
+        release.countDown();
+        await().atMost(Duration.ofSeconds(1)).until(() -> started.size() == 3);
+        executor.shutdown();
+
+        // Then
+        assertThat(started).containsExactly("head start", "no head start", "later, no head start");
+    }
+
+    @Test
+    @DisplayName("Should start task queued longer than the head start of a newer one first in PRIORITY queue order")
+    void createExecutor_whenPriorityQueueAndTaskWaitedLonger_thenStartItFirst() throws Exception {
+        // Given
+        ThreadPoolTaskExecutor executor = busyPriorityExecutor(10);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        // When
+        executor.execute(PrioritizedTask.of(() -> started.add("waiting"), Duration.ZERO));
+        Thread.sleep(100);
+        executor.execute(PrioritizedTask.of(() -> started.add("head start"), Duration.ofMillis(10)));
+        release.countDown();
+        await().atMost(Duration.ofSeconds(1)).until(() -> started.size() == 2);
+        executor.shutdown();
+
+        // Then
+        assertThat(started).containsExactly("waiting", "head start");
+    }
+
+    @Test
+    @DisplayName("Should reject task when PRIORITY queue is full with ABORT policy")
+    void createExecutor_whenPriorityQueueFullAndAbort_thenReject() {
+        // Given
+        ThreadPoolTaskExecutor executor = busyPriorityExecutor(1);
+        executor.execute(() -> {});
+
+        // When & Then
+        assertThat(executor.getThreadPoolExecutor().getQueue().remainingCapacity()).isZero();
+        assertThatThrownBy(() -> executor.execute(PrioritizedTask.of(() -> {}, Duration.ofSeconds(1))))
+                .isInstanceOf(TaskRejectedException.class);
+        executor.shutdown();
+    }
+
+    //Single thread busy until release
+    private ThreadPoolTaskExecutor busyPriorityExecutor(int queueCapacity) {
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = properties(ThreadPoolConfigProperties.ExecutorMode.PLATFORM);
+        properties.setCorePoolSize(1);
+        properties.setMaxPoolSize(1);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setQueueOrder(ThreadPoolConfigProperties.QueueOrder.PRIORITY);
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) AsyncThreadPoolsConfig.createExecutor("test", properties, meterRegistry, Tracer.NOOP);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return executor;
+    }
+
+    //One thread busy until release, one task queued
+    private ThreadPoolTaskExecutor fullExecutor(ThreadPoolConfigProperties.RejectionPolicy rejectionPolicy) {
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = properties(ThreadPoolConfigProperties.ExecutorMode.PLATFORM);
+        properties.setCorePoolSize(1);
+        properties.setMaxPoolSize(1);
+        properties.setQueueCapacity(1);
+        properties.setRejectionPolicy(rejectionPolicy);
+        properties.setBlockTimeout(Duration.ofMillis(100));
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) AsyncThreadPoolsConfig.createExecutor("test", properties, meterRegistry, Tracer.NOOP);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        return executor;
+    }
+
+    private static ThreadPoolConfigProperties.ThreadPoolProperties properties(ThreadPoolConfigProperties.ExecutorMode mode) {
+        ThreadPoolConfigProperties.ThreadPoolProperties properties = new ThreadPoolConfigProperties.ThreadPoolProperties();
+        properties.setMode(mode);
+        properties.setCorePoolSize(2);
+        properties.setMaxPoolSize(4);
+        properties.setQueueCapacity(10);
+        properties.setConcurrencyLimit(5);
+        properties.setThreadNamePrefix("test-");
+        return properties;
+    }
+}
@@ -0,0 +1,71 @@
+package com.zilch.payment.config;
+
+import com.zilch.payment.TestTracing;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingTaskDecoratorTests {
+
+    private final TestTracing testTracing = new TestTracing();
+    private final TracingTaskDecorator decorator = new TracingTaskDecorator("test", testTracing.tracer());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Run task in a child span of the submitting thread with its MDC")
+    void decorate_whenSubmittedInSpan_thenRunInChildSpanWithMdc() throws Exception {
+        // Given
+        Tracer tracer = testTracing.tracer();
+        Span parent = tracer.nextSpan().name("parent").start();
+        CompletableFuture<String> paymentId = new CompletableFuture<>();
+        Runnable task;
+        try (Tracer.SpanInScope ignored = tracer.withSpan(parent)) {
+            MDC.put("paymentId", "payment-id");
+            task = decorator.decorate(() -> paymentId.complete(MDC.get("paymentId")));
+        } finally {
+            MDC.remove("paymentId");
+            parent.end();
+        }
+
+        // When
+        executor.submit(task).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(paymentId.get()).isEqualTo("payment-id");
+        SpanData taskSpan = testTracing.finishedSpans().get(1);
+        assertThat(taskSpan.getName()).isEqualTo("test");
+        assertThat(taskSpan.getTraceId()).isEqualTo(parent.context().traceId());
+        assertThat(taskSpan.getParentSpanId()).isEqualTo(parent.context().spanId());
+        assertThat(executor.submit(() -> MDC.get("paymentId")).get(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Do not start a trace for tasks submitted outside of one")
+    void decorate_whenNotTraced_thenNoSpan() throws Exception {
+        // Given
+        Runnable task = decorator.decorate(() -> {});
+
+        // When
+        executor.submit(task).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(testTracing.finishedSpans()).isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+package com.zilch.payment.config;
+
+import com.zilch.payment.domain.verification.enums.VerificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerificationBulkheadsTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolConfigProperties properties = new ThreadPoolConfigProperties();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor sharedExecutor;
+    private VerificationBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        properties.setVerificationRunner(pool("v-runner-"));
+        properties.getVerificationBulkheads().put(VerificationType.FRAUD_CHECK, pool("v-fraud-"));
+        sharedExecutor = (ThreadPoolTaskExecutor) AsyncThreadPoolsConfig.createExecutor(
+                "verificationRunner", properties.getVerificationRunner(), meterRegistry, Tracer.NOOP);
+        bulkheads = new VerificationBulkheads(sharedExecutor, properties, meterRegistry, Tracer.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkheads.shutdown();
+        sharedExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Run types with a bulkhead on their own pool and the other types on the shared one")
+    void executor_thenRunOnPoolOfType() throws Exception {
+        // Given
+        CompletableFuture<String> fraudThread = new CompletableFuture<>();
+        CompletableFuture<String> accountThread = new CompletableFuture<>();
+
+        // When
+        bulkheads.executor(VerificationType.FRAUD_CHECK).execute(() -> fraudThread.complete(Thread.currentThread().getName()));
+        bulkheads.executor(VerificationType.ACCOUNT_STATUS_CHECK).execute(() -> accountThread.complete(Thread.currentThread().getName()));
+
+        // Then
+        assertThat(fraudThread.get(1, TimeUnit.SECONDS)).startsWith("v-fraud-");
+        assertThat(accountThread.get(1, TimeUnit.SECONDS)).startsWith("v-runner-");
+    }
+
+    @Test
+    @DisplayName("Keep running other types while a slow verifier fills its bulkhead")
+    void executor_whenBulkheadFull_thenOtherTypesNotAffected() throws Exception {
+        // Given
+        fillFraudBulkhead();
+        CompletableFuture<Void> accountVerified = new CompletableFuture<>();
+
+        // When
+        bulkheads.executor(VerificationType.ACCOUNT_STATUS_CHECK).execute(() -> accountVerified.complete(null));
+
+        // Then
+        accountVerified.get(1, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bulkheads.executor(VerificationType.FRAUD_CHECK).execute(() -> {}))
+                .isInstanceOf(TaskRejectedException.class);
+        assertThat(meterRegistry.get("payment.verification.bulkhead.rejected")
+                .tag("name", "verificationRunner-FRAUD_CHECK").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.verification.bulkhead.rejected")
+                .tag("name", "verificationRunner").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Report tasks held by a bulkhead as share of its capacity")
+    void executor_thenReportSaturation() {
+        // Given & When
+        fillFraudBulkhead();
+
+        // Then
+        assertThat(meterRegistry.get("payment.verification.bulkhead.inflight")
+                .tag("name", "verificationRunner-FRAUD_CHECK").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("payment.verification.bulkhead.saturation")
+                .tag("name", "verificationRunner-FRAUD_CHECK").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.verification.bulkhead.saturation")
+                .tag("name", "verificationRunner").gauge().value()).isZero();
+    }
+
+    //One fraud task running until release, one queued
+    private void fillFraudBulkhead() {
+        for (int i = 0; i < 2; i++) {
+            bulkheads.executor(VerificationType.FRAUD_CHECK).execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    private static ThreadPoolConfigProperties.ThreadPoolProperties pool(String threadNamePrefix) {
+        ThreadPoolConfigProperties.ThreadPoolProperties pool = new ThreadPoolConfigProperties.ThreadPoolProperties();
+        pool.setCorePoolSize(1);
+        pool.setMaxPoolSize(1);
+        pool.setQueueCapacity(1);
+        pool.setThreadNamePrefix(threadNamePrefix);
+        return pool;
+    }
+}